@@ -6,8 +6,16 @@ Usage:
 - python generate_charts.py A.csv           -> single file charts, tag based on filename
 - python generate_charts.py A.csv B.csv     -> comparative charts (A vs B)
 
-CSV columns expected (as exported by MainWindow):
+CSV columns expected (as exported by MainWindow, converted from its 10 ms TelemetryRecorder file;
+ time is in seconds, fractional there):
  time, occupiedRunways, occupiedGates, taxiQueueSize, avgRunwayWait, avgGateWait, utilization, notifyAllCount
+ (newer exports also append: signalCount, futileWakeups, and per histogram
+  runwayWait/gateWait/runwayHold/turnaround: <name>P50, P90, P99, P999, Max in ms,
+  then runwayMap/gateMap ('#' busy, '.' free per index), gateUtilMin, gateUtilMax,
+  and arrivalTimeouts, departureTimeouts, gateTimeouts, diversions; the histograms include holding,
+  arrivalWait and departureWait (runway wait per class), and emergencyLanding, lowFuelLanding,
+  normalLanding (landing wait per plane priority), and recovery (closure recovery time);
+  runwayMap/gateMap mark a closed index 'x'; runwaysInService, gatesInService last)
 
 Note: User only uses notifyAll (no notify), so charts focus on notifyAll.
 """
@@ -21,11 +29,14 @@ import matplotlib.pyplot as plt
 def load_csv(path: str) -> pd.DataFrame:
     if not os.path.exists(path):
         raise FileNotFoundError(f"CSV not found: {path}")
-    df = pd.read_csv(path)
+    df = pd.read_csv(path, dtype={'runwayMap': str, 'gateMap': str})
     numeric_cols = [
         'time', 'occupiedRunways', 'occupiedGates', 'taxiQueueSize',
-        'avgRunwayWait', 'avgGateWait', 'utilization', 'notifyAllCount'
+        'avgRunwayWait', 'avgGateWait', 'utilization', 'notifyAllCount',
+        'signalCount', 'futileWakeups', 'gateUtilMin', 'gateUtilMax',
+        'arrivalTimeouts', 'departureTimeouts', 'gateTimeouts', 'diversions'
     ]
+    numeric_cols += [c for c in df.columns if c.endswith(('P50', 'P90', 'P99', 'P999', 'Max'))]
     for col in numeric_cols:
         if col in df.columns:
             df[col] = pd.to_numeric(df[col], errors='coerce')
@@ -78,6 +89,71 @@ def charts_single(df: pd.DataFrame, tag: str = "telemetry"):
     plt.grid(True)
     save_fig(fig4, f'{tag}_taxi_queue.png')
 
+    # Wait-time percentiles (tail latency)
+    if 'runwayWaitP99' in df.columns:
+        fig6 = plt.figure(figsize=(10, 6))
+        for name, style in (('runwayWait', '-'), ('gateWait', '--')):
+            for p in ('P50', 'P99', 'P999'):
+                plt.plot(df['time'], df[name + p], label=f'{name} {p}', linestyle=style)
+        plt.xlabel('Time (s)'); plt.ylabel('Wait (ms)')
+        plt.title(safe_title(f'{tag}: Wait Time Percentiles'))
+        plt.legend(); plt.grid(True)
+        save_fig(fig6, f'{tag}_wait_percentiles.png')
+
+    # Busiest vs idlest gate (share of time busy)
+    if 'gateUtilMax' in df.columns:
+        fig7 = plt.figure(figsize=(10, 6))
+        plt.plot(df['time'], df['gateUtilMax'], label='Busiest gate')
+        plt.plot(df['time'], df['gateUtilMin'], label='Idlest gate', linestyle='--')
+        plt.xlabel('Time (s)'); plt.ylabel('Gate Utilization (0–1)')
+        plt.title(safe_title(f'{tag}: Gate Utilization Spread'))
+        plt.legend(); plt.grid(True)
+        save_fig(fig7, f'{tag}_gate_spread.png')
+
+    # Runway wait per class: what the runway policy trades (arrival tail vs departure starvation)
+    if 'departureWaitP99' in df.columns:
+        fig9 = plt.figure(figsize=(10, 6))
+        for name, style in (('arrivalWait', '-'), ('departureWait', '--')):
+            for p in ('P50', 'P99'):
+                plt.plot(df['time'], df[name + p], label=f'{name} {p}', linestyle=style)
+        plt.xlabel('Time (s)'); plt.ylabel('Wait (ms)')
+        plt.title(safe_title(f'{tag}: Runway Wait by Class'))
+        plt.legend(); plt.grid(True)
+        save_fig(fig9, f'{tag}_runway_wait_by_class.png')
+
+    # Landing wait per plane priority: emergencies first, normal traffic still served
+    if 'normalLandingP99' in df.columns:
+        fig10 = plt.figure(figsize=(10, 6))
+        for name, style in (('emergencyLanding', '-'), ('lowFuelLanding', '-.'), ('normalLanding', '--')):
+            plt.plot(df['time'], df[name + 'P99'], label=f'{name} P99', linestyle=style)
+        plt.xlabel('Time (s)'); plt.ylabel('Wait (ms)')
+        plt.title(safe_title(f'{tag}: Landing Wait by Priority'))
+        plt.legend(); plt.grid(True)
+        save_fig(fig10, f'{tag}_landing_wait_by_priority.png')
+
+    # Closures: capacity in service against the queue it builds
+    if 'runwaysInService' in df.columns and (df['runwaysInService'].nunique() > 1 or df['gatesInService'].nunique() > 1):
+        fig11, ax = plt.subplots(figsize=(10, 6))
+        ax.step(df['time'], df['runwaysInService'], where='post', label='runwaysInService')
+        ax.step(df['time'], df['gatesInService'], where='post', label='gatesInService', linestyle='--')
+        ax.set_xlabel('Time (s)'); ax.set_ylabel('In service')
+        ax2 = ax.twinx()
+        ax2.plot(df['time'], df['taxiQueueSize'], color='tab:red', alpha=0.6, label='taxiQueueSize')
+        ax2.set_ylabel('Taxi queue')
+        ax.set_title(safe_title(f'{tag}: Capacity and Queue During Closures'))
+        ax.legend(loc='upper left'); ax2.legend(loc='upper right'); ax.grid(True)
+        save_fig(fig11, f'{tag}_capacity.png')
+
+    # Overload: timed requests that gave up, and diversions (cumulative)
+    if 'diversions' in df.columns and df['diversions'].fillna(0).max() + df['arrivalTimeouts'].fillna(0).max() > 0:
+        fig8 = plt.figure(figsize=(10, 6))
+        for col in ('arrivalTimeouts', 'departureTimeouts', 'gateTimeouts', 'diversions'):
+            plt.plot(df['time'], df[col], label=col, linestyle='--' if col == 'diversions' else '-')
+        plt.xlabel('Time (s)'); plt.ylabel('Count')
+        plt.title(safe_title(f'{tag}: Timeouts and Diversions'))
+        plt.legend(); plt.grid(True)
+        save_fig(fig8, f'{tag}_timeouts.png')
+
     # Final notifyAll bar
     if 'notifyAllCount' in df.columns and not df['notifyAllCount'].dropna().empty:
         final_notify_all = df['notifyAllCount'].dropna().iloc[-1]
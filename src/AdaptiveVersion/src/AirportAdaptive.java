@@ -0,0 +1,457 @@
+package AdaptiveVersion.src;
+
+import MonitorVersion.src.AirportMonitor;
+import SemaphoreVersion.src.AirportSemaphore;
+import Shared.src.Airplane;
+import Shared.src.Airport;
+import Shared.src.AirportTelemetry;
+import Shared.src.EventTrace;
+import Shared.src.GateReservingAirport;
+import Shared.src.LandingClearance;
+import Shared.src.Lease;
+import Shared.src.ResourceSlots;
+import Shared.src.RunwayPolicy;
+import Shared.src.SupportsClosures;
+import Shared.src.SupportsRunwayPolicy;
+import Shared.src.SupportsTelemetry;
+import Shared.src.SupportsTracing;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Adaptive controller: admits planes through a Monitor or a Semaphore controller and moves to the
+ * other one when the load regime changes (Monitor for bursty traffic, Semaphore for steady load).
+ *
+ * Every window (500 ms) a daemon thread samples:
+ *   arrival rate   arrival requests in the window, kept for the last 16 windows
+ *   queue depth    most planes inside an acquire call at once during the window
+ *   wake-ups       futile wake-ups per grant, from AirportTelemetry
+ * and picks a strategy:
+ *   bursty   arrival counts vary a lot between windows (coefficient of variation >= 1)       -> Monitor
+ *   steady   even arrivals (cv <= 0.5) with planes queueing, and on the Monitor wasted wake-ups -> Semaphore
+ * anything else keeps the current one. A pick must hold for 3 windows, and 5 s must pass since the last switch.
+ *
+ * Each strategy is a whole controller with its own counts of the same runways and gates, so every unit
+ * belongs to one of them at a time (owner) and is closed in the other (close/reopen without telemetry).
+ * A switch only sends new requests to the other controller; nobody waits for it. Planes already waiting in
+ * the old one are served there, and planes holding a lease release it there (the controller that issued
+ * it is kept per runway/gate; the lease itself is re-issued in this airport's name). Once no plane waits
+ * in the old controller it closes every unit, and each one that is not held moves to the new controller;
+ * a held one moves when its plane releases it. So a switch can happen while the airport is busy, and is
+ * recorded in telemetry. A controller takes over again only once it has given every unit away.
+ */
+public class AirportAdaptive implements GateReservingAirport, SupportsTelemetry, SupportsRunwayPolicy, SupportsClosures, SupportsTracing, AutoCloseable {
+
+    private static final long DEFAULT_WINDOW_MS = 500;
+    private static final int HISTORY = 16;
+    private static final int MIN_HISTORY = 4;
+    private static final double BURSTY_CV = 1.0;
+    private static final double STEADY_CV = 0.5;
+    private static final double WASTED_WAKEUPS_PER_GRANT = 0.5;
+    private static final int CONFIRM_WINDOWS = 3;
+    private static final long MIN_DWELL_MS = Long.getLong("adaptive.minDwellMs", 5_000);   // tests shrink it
+
+    private final AirportMonitor monitor;
+    private final AirportSemaphore semaphore;
+    private volatile GateReservingAirport active;
+
+    // Planes inside an acquire call, per controller. With active they form a Dekker pair: enter() counts
+    // itself in and then reads active, a switch writes active and then reads the count.
+    private final AtomicInteger monitorCalls = new AtomicInteger();
+    private final AtomicInteger semaphoreCalls = new AtomicInteger();
+    // Leases out per controller
+    private final AtomicInteger monitorLeases = new AtomicInteger();
+    private final AtomicInteger semaphoreLeases = new AtomicInteger();
+    // Which controller issued the lease out on each runway/gate (null: free); its release goes back there.
+    private final AtomicReferenceArray<GateReservingAirport> runwayIssuer, gateIssuer;
+    // Serializes closures/reopenings and moving units between the controllers; guards the fields below.
+    private final Object closures = new Object();
+    // Closed through this airport
+    private final boolean[] runwayClosed, gateClosed;
+    // The controller each runway/gate belongs to (open there unless closed through this airport)
+    private final GateReservingAirport[] runwayOwner, gateOwner;
+    // The idle controller has closed every unit (none is open there any more)
+    private boolean idleClosedDown = true;
+
+    // Load signals, written on the acquire paths
+    private final LongAdder arrivalRequests = new LongAdder();
+    private final LongAdder grants = new LongAdder();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger peakWaiting = new AtomicInteger();
+
+    // Sampler state (sampler thread only)
+    private final long[] arrivalsPerWindow = new long[HISTORY];
+    private int windows = 0;
+    private long lastArrivals, lastGrants, lastFutile;
+    private GateReservingAirport candidate;
+    private int confirmed = 0;
+    private long lastSwitchNanos = System.nanoTime();
+    private volatile int switches = 0;
+    private volatile int failedSamples = 0;
+    private volatile RuntimeException sampleFailure;
+
+    private final ScheduledExecutorService sampler;
+    private volatile AirportTelemetry telemetry;
+
+    public AirportAdaptive(int runways, int gates) {
+        this(runways, gates, ResourceSlots.Policy.LOWEST_FREE);
+    }
+
+    // policy: which free runway/gate an admitted plane gets. Starts on the Semaphore strategy.
+    public AirportAdaptive(int runways, int gates, ResourceSlots.Policy policy) {
+        this(runways, gates, policy, DEFAULT_WINDOW_MS);
+    }
+
+    public AirportAdaptive(int runways, int gates, ResourceSlots.Policy policy, long windowMs) {
+        if (windowMs <= 0) throw new IllegalArgumentException("window must be > 0 ms");
+        this.monitor = new AirportMonitor(runways, gates, policy);
+        this.semaphore = new AirportSemaphore(runways, gates, policy);
+        this.active = semaphore;
+        this.runwayClosed = new boolean[runways];
+        this.gateClosed = new boolean[gates];
+        this.runwayIssuer = new AtomicReferenceArray<>(runways);
+        this.gateIssuer = new AtomicReferenceArray<>(gates);
+        this.runwayOwner = new GateReservingAirport[runways];
+        this.gateOwner = new GateReservingAirport[gates];
+        Arrays.fill(runwayOwner, semaphore);
+        Arrays.fill(gateOwner, semaphore);
+        for (int r = 0; r < runways; r++) monitor.close(Lease.Kind.RUNWAY, r, false);
+        for (int g = 0; g < gates; g++) monitor.close(Lease.Kind.GATE, g, false);
+        this.sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "adaptive-controller");
+            t.setDaemon(true);
+            return t;
+        });
+        sampler.scheduleAtFixedRate(this::sample, windowMs, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void setTelemetry(AirportTelemetry telemetry) {
+        monitor.setTelemetry(telemetry);
+        semaphore.setTelemetry(telemetry);
+        this.telemetry = telemetry;
+        if (telemetry != null) telemetry.setStrategy(name(active));
+    }
+
+    @Override
+    public void setTrace(EventTrace trace) {
+        monitor.setTrace(trace);
+        semaphore.setTrace(trace);
+    }
+
+    @Override
+    public void setRunwayPolicy(RunwayPolicy policy) {
+        //one instance for both: only the active controller grants runways
+        monitor.setRunwayPolicy(policy);
+        semaphore.setRunwayPolicy(policy);
+    }
+
+    // Stop the sampler; the strategy in use stays.
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+    }
+
+    public String strategy() { return name(active); }
+
+    // --- Closures: kept here and applied in the controller the unit belongs to ---
+
+    @Override
+    public boolean close(Lease.Kind kind, int index) {
+        boolean[] closed = closedOf(kind);
+        Objects.checkIndex(index, closed.length);
+        int depth;
+        synchronized (closures) {
+            if (closed[index]) return false;
+            closed[index] = true;
+            GateReservingAirport owner = ownerOf(kind)[index];
+            //an idle controller that closed down has it closed already
+            if (owner == active || !idleClosedDown) closeQuietly(owner, kind, index);
+            depth = queuedPlanes();
+        }
+        AirportTelemetry t = telemetry;
+        if (t != null) t.capacityChanged(kind, index, true, depth);
+        return true;
+    }
+
+    @Override
+    public boolean reopen(Lease.Kind kind, int index) {
+        boolean[] closed = closedOf(kind);
+        Objects.checkIndex(index, closed.length);
+        int depth;
+        synchronized (closures) {
+            if (!closed[index]) return false;
+            closed[index] = false;
+            GateReservingAirport owner = ownerOf(kind)[index];
+            //held by a plane of an idle controller that closed down: handBack() opens it when that plane leaves
+            if (owner == active || !idleClosedDown) reopenQuietly(owner, kind, index);
+            depth = queuedPlanes();
+        }
+        AirportTelemetry t = telemetry;
+        if (t != null) t.capacityChanged(kind, index, false, depth);
+        return true;
+    }
+
+    @Override
+    public boolean isClosed(Lease.Kind kind, int index) {
+        synchronized (closures) {
+            return closedOf(kind)[index];
+        }
+    }
+
+    // Both: the idle controller may still have planes queued.
+    @Override
+    public int queuedPlanes() { return monitor.queuedPlanes() + semaphore.queuedPlanes(); }
+
+    // --- Airport: every acquire goes to the active controller ---
+
+    @Override
+    public Lease acquireRunwayForArrival(Airplane a) throws InterruptedException {
+        arrivalRequests.increment();
+        return admit(false, 0L, (ap, nanos) -> reissue(ap, ap.acquireRunwayForArrival(a)));
+    }
+
+    @Override
+    public Lease tryAcquireRunwayForArrival(Airplane a, long timeout, TimeUnit unit) throws InterruptedException {
+        arrivalRequests.increment();
+        return admit(true, unit.toNanos(timeout), (ap, nanos) -> reissue(ap, ap.tryAcquireRunwayForArrival(a, nanos, TimeUnit.NANOSECONDS)));
+    }
+
+    @Override
+    public Lease acquireRunwayForDeparture(Airplane a) throws InterruptedException {
+        return admit(false, 0L, (ap, nanos) -> reissue(ap, ap.acquireRunwayForDeparture(a)));
+    }
+
+    @Override
+    public Lease tryAcquireRunwayForDeparture(Airplane a, long timeout, TimeUnit unit) throws InterruptedException {
+        return admit(true, unit.toNanos(timeout), (ap, nanos) -> reissue(ap, ap.tryAcquireRunwayForDeparture(a, nanos, TimeUnit.NANOSECONDS)));
+    }
+
+    @Override
+    public Lease acquireGate(Airplane a) throws InterruptedException {
+        return admit(false, 0L, (ap, nanos) -> reissue(ap, ap.acquireGate(a)));
+    }
+
+    @Override
+    public Lease tryAcquireGate(Airplane a, long timeout, TimeUnit unit) throws InterruptedException {
+        return admit(true, unit.toNanos(timeout), (ap, nanos) -> reissue(ap, ap.tryAcquireGate(a, nanos, TimeUnit.NANOSECONDS)));
+    }
+
+    @Override
+    public LandingClearance acquireLandingClearance(Airplane a) throws InterruptedException {
+        arrivalRequests.increment();
+        return admit(false, 0L, (ap, nanos) -> {
+            LandingClearance c = ap.acquireLandingClearance(a);
+            return new LandingClearance(reissue(ap, c.runway()), reissue(ap, c.gate()));
+        });
+    }
+
+    // Back to the controller that issued it, which may no longer be the active one.
+    @Override
+    public void release(Lease lease) {
+        lease.checkOwner(this, lease.kind());
+        GateReservingAirport issuer = issuerOf(lease.kind()).getAndSet(lease.index(), null);
+        if (issuer == null) throw new IllegalArgumentException(lease + " is not held");
+        issuer.release(new Lease(issuer, lease.kind(), lease.index(), lease.acquiredAtNanos(), lease.plane()));
+        //read after clearing the issuer: a hand-over that still saw it held leaves this unit to us
+        if (issuer != active) handBack(lease.kind(), lease.index(), issuer);
+        //last: the issuer cannot take over again before its unit has moved
+        leasesOf(issuer).decrementAndGet();
+    }
+
+    // Same runway/gate and time, owned by this airport (so the legacy void release adapters find it).
+    private Lease reissue(GateReservingAirport issuer, Lease lease) {
+        if (lease == null) return null;
+        issuerOf(lease.kind()).set(lease.index(), issuer);
+        leasesOf(issuer).incrementAndGet();
+        return new Lease(this, lease.kind(), lease.index(), lease.acquiredAtNanos(), lease.plane());
+    }
+
+    // A unit the idle controller got back moves to the active one, once the idle one has closed down
+    // (before that its own waiters take it, and the last of them hands everything over). One of them may
+    // have taken it before we got here, or it may have moved already: then it is not ours to move.
+    private void handBack(Lease.Kind kind, int index, GateReservingAirport issuer) {
+        synchronized (closures) {
+            if (issuer == active || !idleClosedDown) return;
+            if (ownerOf(kind)[index] != issuer || issuerOf(kind).get(index) == issuer) return;
+            //closed by handOver() while held; closing again is a no-op
+            closeQuietly(issuer, kind, index);
+            moveTo(active, kind, index);
+        }
+    }
+
+    private interface Acquire<T> {
+        // nanos: the caller's timeout (timed requests only)
+        T call(GateReservingAirport airport, long nanos) throws InterruptedException;
+    }
+
+    // The active controller, counted in its calls for the call only.
+    private <T> T admit(boolean timed, long nanos, Acquire<T> acquire) throws InterruptedException {
+        int w = waiting.incrementAndGet();
+        if (w > peakWaiting.get()) peakWaiting.accumulateAndGet(w, Math::max);
+        GateReservingAirport airport = enter();
+        try {
+            T result = acquire.call(airport, timed ? nanos : 0L);
+            if (result != null) grants.increment();
+            return result;
+        } finally {
+            exit(airport);
+            waiting.decrementAndGet();
+        }
+    }
+
+    // Count in with the active controller; a switch in between sends us to the new one.
+    private GateReservingAirport enter() {
+        for (;;) {
+            GateReservingAirport airport = active;
+            callsOf(airport).incrementAndGet();
+            if (airport == active) return airport;
+            exit(airport);
+        }
+    }
+
+    // The last plane out of an idle controller makes it hand its units over.
+    private void exit(GateReservingAirport airport) {
+        if (callsOf(airport).decrementAndGet() == 0 && airport != active) handOver(airport);
+    }
+
+    // --- Regime detection (sampler thread) ---
+
+    private void sample() {
+        try {
+            long arrivals = arrivalRequests.sum();
+            long granted = grants.sum();
+            AirportTelemetry t = telemetry;
+            long futile = t != null ? t.getFutileWakeupCount() : 0L;
+            arrivalsPerWindow[windows++ % HISTORY] = arrivals - lastArrivals;
+            double futilePerGrant = granted > lastGrants ? (double) (futile - lastFutile) / (granted - lastGrants) : 0.0;
+            int depth = peakWaiting.getAndSet(waiting.get());
+            lastArrivals = arrivals;
+            lastGrants = granted;
+            lastFutile = futile;
+            if (windows < MIN_HISTORY) return;
+
+            double cv = arrivalVariation();
+            GateReservingAirport target = active;
+            String regime = null;
+            if (cv >= BURSTY_CV) {
+                target = monitor;
+                regime = "bursty";
+            } else if (cv <= STEADY_CV && depth > 1 && (active != monitor || futilePerGrant >= WASTED_WAKEUPS_PER_GRANT)) {
+                target = semaphore;
+                regime = "steady";
+            }
+            if (target == active) {
+                candidate = null;
+                confirmed = 0;
+                return;
+            }
+            if (target != candidate) {
+                candidate = target;
+                confirmed = 0;
+            }
+            if (++confirmed < CONFIRM_WINDOWS || System.nanoTime() - lastSwitchNanos < MIN_DWELL_MS * 1_000_000L) return;
+            //not ready (it still has planes or units from before the last switch): keep the pick, try next window
+            if (!switchTo(target, String.format(Locale.US, "%s: cv=%.2f depth=%d futile/grant=%.2f", regime, cv, depth, futilePerGrant))) return;
+            candidate = null;
+            confirmed = 0;
+            lastSwitchNanos = System.nanoTime();
+        } catch (RuntimeException e) {
+            //rethrowing would make scheduleAtFixedRate drop the sampler silently: keep it, try again next window
+            sampleFailure = e;
+            failedSamples++;
+        }
+    }
+
+    // Coefficient of variation of arrivals per window over the history (0 when nothing arrived).
+    private double arrivalVariation() {
+        int n = Math.min(windows, HISTORY);
+        double mean = 0;
+        for (int i = 0; i < n; i++) mean += arrivalsPerWindow[i];
+        mean /= n;
+        if (mean == 0) return 0.0;
+        double var = 0;
+        for (int i = 0; i < n; i++) var += (arrivalsPerWindow[i] - mean) * (arrivalsPerWindow[i] - mean);
+        return Math.sqrt(var / n) / mean;
+    }
+
+    // New requests go to next from now on; false if next still has planes or units from before.
+    private boolean switchTo(GateReservingAirport next, String reason) {
+        GateReservingAirport from = active;
+        long start = System.nanoTime();
+        synchronized (closures) {
+            if (!idleClosedDown || leasesOf(next).get() > 0 || callsOf(next).get() > 0) return false;
+            active = next;
+            idleClosedDown = false;
+            switches++;
+            //read after writing active: a plane still counting itself in with from either goes on to next or is seen here
+            if (callsOf(from).get() == 0) handOver(from);
+        }
+        AirportTelemetry t = telemetry;
+        if (t != null) t.recordStrategySwitch(name(from), name(next), reason, System.nanoTime() - start);
+        return true;
+    }
+
+    /*
+     * No plane waits in the idle controller any more: close every unit there, and move each one it does
+     * not hold to the active controller (a held one is closed by its release and moved by handBack()).
+     * Issuers are read after active was written, and release() clears the issuer before reading active,
+     * so a unit released meanwhile is either seen free here or handed back by its release.
+     */
+    private void handOver(GateReservingAirport from) {
+        synchronized (closures) {
+            if (from == active || idleClosedDown || callsOf(from).get() > 0) return;
+            idleClosedDown = true;
+            for (int r = 0; r < runwayOwner.length; r++) {
+                closeQuietly(from, Lease.Kind.RUNWAY, r);
+                if (runwayOwner[r] == from && runwayIssuer.get(r) != from) moveTo(active, Lease.Kind.RUNWAY, r);
+            }
+            for (int g = 0; g < gateOwner.length; g++) {
+                closeQuietly(from, Lease.Kind.GATE, g);
+                if (gateOwner[g] == from && gateIssuer.get(g) != from) moveTo(active, Lease.Kind.GATE, g);
+            }
+        }
+    }
+
+    // The unit now belongs to to, open there unless closed through this airport. Caller holds closures.
+    private void moveTo(GateReservingAirport to, Lease.Kind kind, int index) {
+        ownerOf(kind)[index] = to;
+        if (!closedOf(kind)[index]) reopenQuietly(to, kind, index);
+    }
+
+    // Closures telemetry does not see: only the ones asked for through this airport are reported.
+    private void closeQuietly(GateReservingAirport a, Lease.Kind kind, int index) {
+        if (a == monitor) monitor.close(kind, index, false);
+        else semaphore.close(kind, index, false);
+    }
+
+    private void reopenQuietly(GateReservingAirport a, Lease.Kind kind, int index) {
+        if (a == monitor) monitor.reopen(kind, index, false);
+        else semaphore.reopen(kind, index, false);
+    }
+
+    private boolean[] closedOf(Lease.Kind kind) { return kind == Lease.Kind.RUNWAY ? runwayClosed : gateClosed; }
+    private AtomicReferenceArray<GateReservingAirport> issuerOf(Lease.Kind kind) { return kind == Lease.Kind.RUNWAY ? runwayIssuer : gateIssuer; }
+    private GateReservingAirport[] ownerOf(Lease.Kind kind) { return kind == Lease.Kind.RUNWAY ? runwayOwner : gateOwner; }
+    private AtomicInteger leasesOf(Airport a) { return a == monitor ? monitorLeases : semaphoreLeases; }
+    private AtomicInteger callsOf(Airport a) { return a == monitor ? monitorCalls : semaphoreCalls; }
+
+    private String name(Airport a) { return a == monitor ? "Monitor" : "Semaphore"; }
+
+    //Returns a readable snapshot
+    @Override
+    public String getStatus() {
+        RuntimeException failure = sampleFailure;
+        return String.format("[Adaptive:%s] switches=%d, calls(Monitor/Semaphore)=%d/%d, leases(Monitor/Semaphore)=%d/%d%s %s",
+                name(active), switches, monitorCalls.get(), semaphoreCalls.get(), monitorLeases.get(), semaphoreLeases.get(),
+                failure == null ? "" : ", failedSamples=" + failedSamples + " (last: " + failure + ")", active.getStatus());
+    }
+}
@@ -0,0 +1,207 @@
+package Benchmarks.src;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.locks.LockSupport;
+
+import AdaptiveVersion.src.AirportAdaptive;
+import Headless.src.HeadlessRunner;
+import Shared.src.Airport;
+import Shared.src.AirportTelemetry;
+import Shared.src.EventTrace;
+import Shared.src.LatencyHistogram;
+import Shared.src.Lease;
+import Shared.src.SupportsTelemetry;
+import Shared.src.SupportsTracing;
+
+/*
+ * Micro-benchmark of the Airport controllers, in the spirit of JMH (warmup + measured iterations,
+ * throughput and sample-time modes), self-contained because the project has no build system to pull JMH in.
+ *
+ * One operation = one plane cycle on the controller, chosen by arrivalRatio:
+ *   arrival:   acquireRunwayForArrival, release, acquireGate, release, acquireRunwayForDeparture, release
+ *   departure: acquireRunwayForDeparture, release
+ * hold=zero releases immediately; hold=realistic parks for a short random time while holding a resource
+ * (runway 20-50 us, gate 40-120 us: the Airplane hold times scaled down 10^4 so a run takes seconds).
+ *
+ *   java Benchmarks.src.ControllerBenchmark [--key=value ...]
+ *     versions=Monitor,Semaphore,ReentrantLock,LockFree  threads=1,4,16  runways=2  gates=3
+ *     arrivalRatio=0.5  hold=zero,realistic  telemetry=off,on  trace=off  mode=throughput,sample
+ *     warmup=2  iterations=5  time=1 (seconds per iteration)
+ * Comma-separated values are crossed, like JMH @Param. trace=off,on measures the EventTrace overhead
+ * (Monitor / Semaphore / Adaptive), drained to a temporary file that is deleted afterwards. Sample mode
+ * records every measured operation into one LatencyHistogram (~3% bucket error), start to end of each iteration.
+ */
+public class ControllerBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Options o = Options.parse(args);
+        System.out.printf("%-14s %4s %5s %9s %4s %5s %10s  %s%n", "version", "thr", "R/G", "hold", "tel", "trace", "mode", "score");
+        for (String version : o.versions)
+            for (int threads : o.threads)
+                for (String hold : o.hold)
+                    for (String tel : o.telemetry)
+                        for (String trace : o.trace)
+                            for (String mode : o.mode) {
+                                String score = run(o, version, threads, hold.equals("realistic"), tel.equals("on"),
+                                        trace.equals("on"), mode.equals("sample"));
+                                System.out.printf("%-14s %4d %5s %9s %4s %5s %10s  %s%n",
+                                        version, threads, o.runways + "/" + o.gates, hold, tel, trace, mode, score);
+                            }
+    }
+
+    // Runs warmup + measured iterations of one configuration and returns the formatted score.
+    static String run(Options o, String version, int threads, boolean realisticHold, boolean withTelemetry,
+                      boolean withTrace, boolean sampleMode) throws Exception {
+        Airport airport = HeadlessRunner.createAirport(version, o.runways, o.gates);
+        if (withTelemetry && airport instanceof SupportsTelemetry st) {
+            st.setTelemetry(new AirportTelemetry(o.runways, o.gates));
+        }
+        EventTrace trace = null;
+        Path traceFile = null;
+        if (withTrace && airport instanceof SupportsTracing traced) {
+            trace = new EventTrace();
+            traceFile = Files.createTempFile("bench-trace", ".bin");
+            trace.start(traceFile);
+            traced.setTrace(trace);
+        }
+
+        double[] opsPerSec = new double[o.iterations];
+        LatencyHistogram samples = new LatencyHistogram();   // measured iterations only
+
+        for (int it = -o.warmup; it < o.iterations; it++) {
+            boolean measured = it >= 0;
+            Worker[] workers = new Worker[threads];
+            CyclicBarrier start = new CyclicBarrier(threads + 1);
+            for (int t = 0; t < threads; t++) {
+                workers[t] = new Worker(airport, o.arrivalRatio, realisticHold, sampleMode && measured ? samples : null, start, t * 7919L + it);
+                workers[t].start();
+            }
+            start.await();
+            long t0 = System.nanoTime();
+            Thread.sleep(o.timeMs);
+            for (Worker w : workers) w.running = false;
+            long ops = 0;
+            for (Worker w : workers) {
+                w.join();
+                ops += w.ops;
+            }
+            double secs = (System.nanoTime() - t0) / 1e9;
+            if (measured) opsPerSec[it] = ops / secs;
+        }
+
+        if (airport instanceof AirportAdaptive ad) ad.close();
+        //an overrun ring drops events instead of slowing the planes down: show it next to the score
+        String dropped = "";
+        if (trace != null) {
+            trace.close();
+            Files.deleteIfExists(traceFile);
+            if (trace.dropped() > 0) dropped = String.format(Locale.US, " (trace dropped %d of %d)", trace.dropped(), trace.recorded());
+        }
+
+        if (!sampleMode) {
+            double mean = Arrays.stream(opsPerSec).average().orElse(0);
+            double var = Arrays.stream(opsPerSec).map(v -> (v - mean) * (v - mean)).sum() / Math.max(1, opsPerSec.length - 1);
+            return String.format(Locale.US, "%,.0f +- %,.0f ops/s", mean, Math.sqrt(var)) + dropped;
+        }
+        LatencyHistogram.Snapshot h = samples.snapshot();
+        return String.format(Locale.US, "n=%d p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f us/op",
+                h.count(), h.valueAtPercentile(50) / 1e3, h.valueAtPercentile(90) / 1e3, h.valueAtPercentile(99) / 1e3,
+                h.valueAtPercentile(99.9) / 1e3, h.maxNanos() / 1e3) + dropped;
+    }
+
+    private static final class Worker extends Thread {
+        private final Airport airport;
+        private final double arrivalRatio;
+        private final boolean realisticHold;
+        private final LatencyHistogram samples;   // null: not sampling
+        private final CyclicBarrier start;
+        private final SplittableRandom rng;
+        volatile boolean running = true;
+        long ops;
+
+        Worker(Airport airport, double arrivalRatio, boolean realisticHold, LatencyHistogram samples, CyclicBarrier start, long seed) {
+            this.airport = airport;
+            this.arrivalRatio = arrivalRatio;
+            this.realisticHold = realisticHold;
+            this.samples = samples;
+            this.start = start;
+            this.rng = new SplittableRandom(seed);
+            setName("bench-" + seed);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+                while (running) {
+                    long t0 = samples != null ? System.nanoTime() : 0;
+                    if (rng.nextDouble() < arrivalRatio) {
+                        Lease runway = airport.acquireRunwayForArrival(null);
+                        hold(20_000, 30_000);
+                        airport.release(runway);
+                        Lease gate = airport.acquireGate(null);
+                        hold(40_000, 80_000);
+                        airport.release(gate);
+                    }
+                    Lease runway = airport.acquireRunwayForDeparture(null);
+                    hold(20_000, 30_000);
+                    airport.release(runway);
+                    if (samples != null) samples.record(System.nanoTime() - t0);
+                    ops++;
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void hold(long minNs, int spreadNs) {
+            if (realisticHold) LockSupport.parkNanos(minNs + rng.nextInt(spreadNs));
+        }
+    }
+
+    static final class Options {
+        String[] versions = {"Monitor", "Semaphore", "ReentrantLock", "LockFree"};
+        int[] threads = {1, 4, 16};
+        int runways = 2;
+        int gates = 3;
+        double arrivalRatio = 0.5;
+        String[] hold = {"zero", "realistic"};
+        String[] telemetry = {"off", "on"};
+        String[] trace = {"off"};
+        String[] mode = {"throughput", "sample"};
+        int warmup = 2;
+        int iterations = 5;
+        long timeMs = 1000;
+
+        static Options parse(String[] args) {
+            Options o = new Options();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (!arg.startsWith("--") || eq < 0) throw new IllegalArgumentException("expected --key=value, got: " + arg);
+                String k = arg.substring(2, eq), v = arg.substring(eq + 1);
+                switch (k) {
+                    case "versions" -> o.versions = v.split(",");
+                    case "threads" -> o.threads = Arrays.stream(v.split(",")).mapToInt(Integer::parseInt).toArray();
+                    case "runways" -> o.runways = Integer.parseInt(v);
+                    case "gates" -> o.gates = Integer.parseInt(v);
+                    case "arrivalRatio" -> o.arrivalRatio = Double.parseDouble(v);
+                    case "hold" -> o.hold = v.split(",");
+                    case "telemetry" -> o.telemetry = v.split(",");
+                    case "trace" -> o.trace = v.split(",");
+                    case "mode" -> o.mode = v.split(",");
+                    case "warmup" -> o.warmup = Integer.parseInt(v);
+                    case "iterations" -> o.iterations = Integer.parseInt(v);
+                    case "time" -> o.timeMs = (long) (Double.parseDouble(v) * 1000);
+                    default -> throw new IllegalArgumentException("unknown option: " + k);
+                }
+            }
+            return o;
+        }
+    }
+}
@@ -1,13 +1,23 @@
 package GUI.src;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
 
+// Position, target and paint of one plane on the MapPanel. Moved by plane threads (moveTo), stepped and
+// painted on the EDT only.
 public class AirplaneSprite {
+    private static final int R = 8;                 // dot radius
+    private static final int LABEL_ASCENT = 14;     // label baseline is 12 px above the centre
+    private static final Map<Color, BufferedImage> DOTS = new HashMap<>();   // EDT only
+
     public double x, y;
-    public double tx, ty; // target
+    public volatile double tx, ty; // target
     public final String id;
     public final Color color;
     public boolean finished = false;
+    int labelWidth = 4 * R;        // set by MapPanel from its font
 
     public AirplaneSprite(String id, double x, double y, Color color) {
         this.id = id;
@@ -18,19 +28,40 @@ public class AirplaneSprite {
         this.tx = tx; this.ty = ty;
     }
 
-    public void updatePosition() {
+    // One animation step towards the target; false when already there (nothing to repaint).
+    public boolean updatePosition() {
         double dx = tx - x; double dy = ty - y;
+        if (dx == 0 && dy == 0) return false;
         double dist = Math.sqrt(dx*dx + dy*dy);
-        if (dist < 1) { x = tx; y = ty; return; }
+        if (dist < 1) { x = tx; y = ty; return true; }
         double step = Math.min(6.0, dist);
         x += dx/dist * step;
         y += dy/dist * step;
+        return true;
     }
 
+    // Painted area at the current position: the dot and the label above it.
+    int left()   { return (int) x - R; }
+    int top()    { return (int) y - 12 - LABEL_ASCENT; }
+    int right()  { return (int) x - R + Math.max(2 * R, labelWidth) + 1; }
+    int bottom() { return (int) y + R + 1; }
+
     public void paint(Graphics2D g2) {
-        g2.setColor(color);
-        g2.fillOval((int)x-8, (int)y-8, 16, 16);
+        g2.drawImage(dot(color), (int)x-R, (int)y-R, null);
         g2.setColor(Color.BLACK);
-        g2.drawString(id, (int)x-8, (int)y-12);
+        g2.drawString(id, (int)x-R, (int)y-12);
+    }
+
+    // The antialiased dot is drawn once per color and blitted after that.
+    private static BufferedImage dot(Color color) {
+        return DOTS.computeIfAbsent(color, c -> {
+            BufferedImage img = new BufferedImage(2 * R, 2 * R, BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g = img.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(c);
+            g.fillOval(0, 0, 2 * R, 2 * R);
+            g.dispose();
+            return img;
+        });
     }
-}
\ No newline at end of file
+}
@@ -7,18 +7,23 @@ import java.awt.event.ActionEvent;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
+import Shared.src.Lease;
+import Shared.src.PlaneLauncher;
+
 public class ControlPanel extends JPanel {
     private final JComboBox<String> versionBox;
     private final JSpinner runwaysSpinner;
     private final JSpinner gatesSpinner;
+    private final JComboBox<String> threadsBox;
 
     public ControlPanel( TriConsumer<String,Integer,Integer> startCallback,
                          BiConsumer<Boolean,ActionEvent> addPlaneCallback,
                          Consumer<ActionEvent> pauseCallback,
-                         Consumer<ActionEvent> resetCallback) {
+                         Consumer<ActionEvent> resetCallback,
+                         BiConsumer<Lease.Kind,Integer> closureCallback) {
         setLayout(new FlowLayout(FlowLayout.LEFT));
 
-        versionBox = new JComboBox<>(new String[]{"Semaphore", "Monitor"});
+        versionBox = new JComboBox<>(new String[]{"Semaphore", "Monitor", "ReentrantLock", "LockFree", "Adaptive"});
         add(new JLabel("Version:"));
         add(versionBox);
 
@@ -27,6 +32,9 @@ public class ControlPanel extends JPanel {
         add(new JLabel("Runways:")); add(runwaysSpinner);
         add(new JLabel("Gates:")); add(gatesSpinner);
 
+        threadsBox = new JComboBox<>(new String[]{"Platform", "Virtual"});
+        add(new JLabel("Threads:")); add(threadsBox);
+
         JButton startBtn = new JButton("Start");
         JButton addArrival = new JButton("Add Arrival");
         JButton addDeparture = new JButton("Add Departure");
@@ -35,6 +43,15 @@ public class ControlPanel extends JPanel {
 
         add(startBtn); add(addArrival); add(addDeparture); add(pauseBtn); add(resetBtn);
 
+        // Runtime outages: close (or reopen) runway/gate n of the running airport
+        JComboBox<String> closureKind = new JComboBox<>(new String[]{"Runway", "Gate"});
+        JSpinner closureIndex = new JSpinner(new SpinnerNumberModel(1, 1, 10, 1));
+        JButton closureBtn = new JButton("Close/Reopen");
+        add(new JLabel("Outage:")); add(closureKind); add(closureIndex); add(closureBtn);
+        closureBtn.addActionListener(e -> closureCallback.accept(
+                "Gate".equals(closureKind.getSelectedItem()) ? Lease.Kind.GATE : Lease.Kind.RUNWAY,
+                (Integer) closureIndex.getValue()));
+
         startBtn.addActionListener(e ->
             startCallback.accept(
                 (String) versionBox.getSelectedItem(),
@@ -48,6 +65,11 @@ public class ControlPanel extends JPanel {
         resetBtn.addActionListener(resetCallback::accept);
     }
 
+    // Thread mode used for planes created after the next Start.
+    public PlaneLauncher.Mode getThreadMode() {
+        return "Virtual".equals(threadsBox.getSelectedItem()) ? PlaneLauncher.Mode.VIRTUAL : PlaneLauncher.Mode.PLATFORM;
+    }
+
     // small functional interface used for start callback
     @FunctionalInterface
     public interface TriConsumer<A,B,C> {
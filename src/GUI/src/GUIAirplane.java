@@ -1,43 +1,76 @@
 
 package GUI.src;
 
+import Shared.src.Airplane;
 import Shared.src.Airport;
+import Shared.src.AirportTelemetry;
+import Shared.src.FlightPlan;
+import Shared.src.Lease;
+import Shared.src.PlaneLauncher;
 import java.awt.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
 import javax.swing.SwingUtilities;
 
 /**
- * GUIAirplane: thread that coordinates GUI sprite animation with airport synchronization calls.
- * It calls Airport.requestRunwayForArrival/requestGate/requestRunwayForDeparture and updates UI.
+ * GUIAirplane: plane body that coordinates GUI sprite animation with airport synchronization calls.
+ * It calls Airport.acquireRunwayForArrival/acquireGate/acquireRunwayForDeparture, releases the leases and updates UI.
+ * Started through a PlaneLauncher, so it can run on a platform or a virtual thread.
+ * Hold times come from its FlightPlan, so a GUI session can be written out and replayed headless.
  */
-public class GUIAirplane extends Thread {
+public class GUIAirplane implements Runnable {
     private final String id;
     private final Airport airport;
     private final boolean arrivalFirst;
+    private final FlightPlan plan;
     private final MapPanel map;
     private final RunwaysPanel runwaysPanel;
     private final GatesPanel gatesPanel;
     private final LogPanel logPanel;
     private final Color color;
     private final AirplaneSprite sprite;
+    private final AirportTelemetry telemetry;
     private volatile boolean stopped = false;
     private volatile boolean paused = false;
+    private volatile Thread thread;
 
-    public GUIAirplane(String id, Airport airport, boolean arrivalFirst, MapPanel map,
-                       RunwaysPanel r, GatesPanel g, LogPanel log, Color color) {
-        this.id = id;
+    public GUIAirplane(FlightPlan plan, Airport airport, MapPanel map,
+                       RunwaysPanel r, GatesPanel g, LogPanel log, Color color, AirportTelemetry telemetry) {
+        this.id = plan.id;
         this.airport = airport;
-        this.arrivalFirst = arrivalFirst;
+        this.arrivalFirst = plan.arrivalFirst;
+        this.plan = plan;
         this.map = map;
         this.runwaysPanel = r;
         this.gatesPanel = g;
         this.logPanel = log;
         this.color = color;
+        this.telemetry = telemetry;
         this.sprite = new AirplaneSprite(id, 300, -20, color); // start above map
         SwingUtilities.invokeLater(() -> map.addSprite(sprite));
-        setName("GUIAirplane-" + id);
     }
 
-    public void requestStop() { stopped = true; interrupt(); }
+    // GUI hold times: landing 200-500 ms, parked 700-1500 ms, departure-only takeoff 200-500 ms
+    // (an arrival's takeoff is the fly-away animation).
+    public static FlightPlan plan(String id, long atNanos, boolean arrivalFirst, Random rng) {
+        long land = arrivalFirst ? ms(200 + rng.nextInt(300)) : 0;
+        long gate = arrivalFirst ? ms(700 + rng.nextInt(800)) : 0;
+        long takeoff = arrivalFirst ? 0 : ms(200 + rng.nextInt(300));
+        return new FlightPlan(id, atNanos, arrivalFirst, Airplane.Priority.NORMAL, land, gate, 0, takeoff, rng.nextLong());
+    }
+
+    private static long ms(long ms) { return ms * 1_000_000L; }
+
+    public Thread start(PlaneLauncher launcher) {
+        thread = launcher.start("GUIAirplane-" + id, this);
+        return thread;
+    }
+
+    public void requestStop() {
+        stopped = true;
+        Thread t = thread;
+        if (t != null) t.interrupt();
+    }
     public void togglePause() { paused = !paused; }
 
     private void waitWhilePaused() throws InterruptedException {
@@ -46,8 +79,9 @@ public class GUIAirplane extends Thread {
 
     @Override
     public void run() {
-        boolean runwayHeld = false;
-        boolean gateHeld = false;
+        final long cycleStart = System.nanoTime();
+        Lease runway = null;
+        Lease gate = null;
 
         try {
             if (arrivalFirst) {
@@ -55,44 +89,42 @@ public class GUIAirplane extends Thread {
                 sprite.moveTo(150, 70); // go to runway 1
                 waitWhilePaused();
 
-                airport.requestRunwayForArrival(null);
-                runwayHeld = true;
-                logPanel.log(id, "Landed on runway", color);
+                runway = airport.acquireRunwayForArrival(null);
+                logPanel.log(id, "Landed on runway " + (runway.index() + 1), color);
 
-                Thread.sleep(200 + (int)(Math.random() * 300)); // landing time
-                airport.releaseRunway(null);
-                runwayHeld = false;
+                TimeUnit.NANOSECONDS.sleep(plan.landNanos); // landing time
+                airport.release(runway);
+                runway = null;
 
                 // taxi to gate
                 sprite.moveTo(120, 320);
                 waitWhilePaused();
 
-                airport.requestGate(null);
-                gateHeld = true;
-                logPanel.log(id, "Parked at gate", color);
+                gate = airport.acquireGate(null);
+                logPanel.log(id, "Parked at gate " + (gate.index() + 1), color);
 
                 // stay parked
-                Thread.sleep(700 + (int)(Math.random() * 800));
+                TimeUnit.NANOSECONDS.sleep(plan.gateNanos);
                 waitWhilePaused();
 
-                airport.releaseGate(null);
-                gateHeld = false;
+                airport.release(gate);
+                gate = null;
                 logPanel.log(id, "Left gate (preparing departure)", color);
 
                 // request departure runway
                 sprite.moveTo(180, 70); // taxi to runway
                 waitWhilePaused();
 
-                airport.requestRunwayForDeparture(null);
-                runwayHeld = true;
-                logPanel.log(id, "Took off", color);
+                runway = airport.acquireRunwayForDeparture(null);
+                logPanel.log(id, "Took off from runway " + (runway.index() + 1), color);
 
                 sprite.moveTo(300, -40); // fly away
                 waitWhilePaused();
 
-                airport.releaseRunway(null);
-                runwayHeld = false;
+                airport.release(runway);
+                runway = null;
 
+                if (telemetry != null) telemetry.recordTurnaroundNanos(System.nanoTime() - cycleStart);
                 SwingUtilities.invokeLater(() -> map.removeSprite(sprite));
             } else {
                 // direct departure
@@ -100,23 +132,23 @@ public class GUIAirplane extends Thread {
                 sprite.moveTo(180, 70);
                 waitWhilePaused();
 
-                airport.requestRunwayForDeparture(null);
-                runwayHeld = true;
-                logPanel.log(id, "Departed", color);
+                runway = airport.acquireRunwayForDeparture(null);
+                logPanel.log(id, "Departed from runway " + (runway.index() + 1), color);
 
-                Thread.sleep(200 + (int)(Math.random() * 300));
+                TimeUnit.NANOSECONDS.sleep(plan.takeoffNanos);
                 sprite.moveTo(300, -40);
                 waitWhilePaused();
 
-                airport.releaseRunway(null);
-                runwayHeld = false;
+                airport.release(runway);
+                runway = null;
 
+                if (telemetry != null) telemetry.recordTurnaroundNanos(System.nanoTime() - cycleStart);
                 SwingUtilities.invokeLater(() -> map.removeSprite(sprite));
             }
         } catch (InterruptedException e) {
             logPanel.log(id, "Interrupted", color);
-            try { if (gateHeld) airport.releaseGate(null); } catch (Throwable ignored) {}
-            try { if (runwayHeld) airport.releaseRunway(null); } catch (Throwable ignored) {}
+            try { if (gate != null) airport.release(gate); } catch (Throwable ignored) {}
+            try { if (runway != null) airport.release(runway); } catch (Throwable ignored) {}
             SwingUtilities.invokeLater(() -> map.removeSprite(sprite));
             Thread.currentThread().interrupt();
         } catch (Throwable t) {
@@ -4,18 +4,32 @@ package GUI.src;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.io.FileWriter;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Locale;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import Shared.src.Airport;
 import Shared.src.AirportTelemetry;
+import Shared.src.FlightPlan;
+import Shared.src.Lease;
+import Shared.src.PlaneLauncher;
+import Shared.src.SupportsClosures;
 import Shared.src.SupportsTelemetry;
+import Shared.src.TelemetryRecorder;
 import MonitorVersion.src.AirportMonitor;
 import SemaphoreVersion.src.AirportSemaphore;
+import ReentrantLockVersion.src.AirportReentrantLock;
+import LockFreeVersion.src.AirportLockFree;
+import AdaptiveVersion.src.AirportAdaptive;
 
 public class MainWindow extends JFrame {
     private final ControlPanel controlPanel;
@@ -23,13 +37,29 @@ public class MainWindow extends JFrame {
     private final LogPanel logPanel;
     private final JLabel statusLabel; // bottom status bar
 
-    private FileWriter csvWriter;
+    // Sampled off the EDT into telemetry_data.bin (every telemetry.periodMs, default 10 ms), converted to
+    // telemetry_data.csv on the exporter thread when the run ends (Reset, next Start, window closed).
+    private static final long RECORD_PERIOD_MS = Long.getLong("telemetry.periodMs", 10L);
+    private TelemetryRecorder recorder;
+    private final ExecutorService exporter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "telemetry-export");
+        t.setDaemon(true);
+        return t;
+    });
     private AirportTelemetry telemetry;
     private javax.swing.Timer telemetryTimer;
+    private int loggedSwitches = 0;   // adaptive strategy switches already shown in the log
 
     private Airport airport;
+    private PlaneLauncher launcher = new PlaneLauncher(PlaneLauncher.Mode.PLATFORM);
     private final java.util.List<GUIAirplane> activePlanes = new ArrayList<>();
     private final Map<String, Color> colorMap = new HashMap<>();
+    // Plane hold times from a seeded stream (-Dgui.seed), and the planes of the run in the order they were
+    // added, written to gui_workload.csv when it ends: replay it with Headless.src.TraceReplay.
+    private static final long TRAFFIC_SEED = Long.getLong("gui.seed", 42L);
+    private Random traffic = new Random(TRAFFIC_SEED);
+    private List<FlightPlan> workload = new ArrayList<>();
+    private long runStartNanos = System.nanoTime();
 
     public MainWindow() {
         super("Airport Simulator — Swing GUI");
@@ -42,7 +72,8 @@ public class MainWindow extends JFrame {
                 this::onStart,
                 (arrivalFirst, e) -> onAddPlane(arrivalFirst),
                 this::onPauseAll,
-                this::onReset
+                this::onReset,
+                this::onToggleClosure
         );
 
         mapPanel = new MapPanel();
@@ -57,31 +88,60 @@ public class MainWindow extends JFrame {
         add(logPanel, BorderLayout.EAST);
         add(statusLabel, BorderLayout.SOUTH);
 
+        //last run's CSV before exit: wait for the export (off the EDT until now)
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                stopRecording();
+                exporter.shutdown();
+                try {
+                    exporter.awaitTermination(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
         setLocationRelativeTo(null);
         setVisible(true);
     }
 
     private void onStart(String version, int runways, int gates) {
+        if (airport instanceof AirportAdaptive ad) ad.close();
         switch (version) {
             case "Monitor" -> airport = new AirportMonitor(runways, gates);
+            case "ReentrantLock" -> airport = new AirportReentrantLock(runways, gates);
+            case "LockFree" -> airport = new AirportLockFree(runways, gates);
+            case "Adaptive" -> airport = new AirportAdaptive(runways, gates);
             default -> airport = new AirportSemaphore(runways, gates);
         }
         logPanel.logSystem("Airport started using: " + version + " (R=" + runways + ", G=" + gates + ")");
 
         telemetry = new AirportTelemetry(runways, gates);
-
-        // Prepare CSV file
-        try {
-            csvWriter = new FileWriter("telemetry_data.csv");
-            csvWriter.write("time,occupiedRunways,occupiedGates,taxiQueueSize,avgRunwayWait,avgGateWait,utilization,notifyAllCount\n");
-        } catch (IOException e) {
-            e.printStackTrace();
+        loggedSwitches = 0;
+
+        launcher = new PlaneLauncher(controlPanel.getThreadMode());
+        telemetry.setExecutionMode(launcher.describe());
+        logPanel.logSystem("Plane threads: " + launcher.describe());
+        if (launcher.getEffectiveMode() == PlaneLauncher.Mode.VIRTUAL && airport instanceof AirportMonitor) {
+            // synchronized/wait pins the carrier: see pinnedWaits in the status bar
+            logPanel.logSystem("Warning: Monitor version pins virtual threads while waiting (carrier pool caps at ~256 waiters)");
         }
 
         if (airport instanceof SupportsTelemetry st) {
             st.setTelemetry(telemetry);
         }
 
+        stopRecording();
+        traffic = new Random(TRAFFIC_SEED);
+        runStartNanos = System.nanoTime();
+        try {
+            recorder = new TelemetryRecorder(telemetry, Path.of("telemetry_data.bin"), RECORD_PERIOD_MS);
+            logPanel.logSystem("Recording telemetry every " + RECORD_PERIOD_MS + " ms");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
         mapPanel.setAirport(airport);
         mapPanel.setTelemetry(telemetry);
         mapPanel.setRunwayCount(runways);
@@ -89,35 +149,16 @@ public class MainWindow extends JFrame {
 
         if (telemetryTimer != null) telemetryTimer.stop();
 
-        long startTime = System.currentTimeMillis();
-
+        // Status bar and log only (the map repaints what changed on its own): no I/O on the EDT
         telemetryTimer = new javax.swing.Timer(1000, e -> {
             if (telemetry != null) {
                 String summary = telemetry.summary();
                 if (!summary.equals(statusLabel.getText())) {
                     statusLabel.setText(summary);
                 }
-                mapPanel.repaint();
-
-                // Write telemetry data to CSV
-                long elapsedSec = (System.currentTimeMillis() - startTime) / 1000;
-                String row = String.format(Locale.US,
-                        "%d,%d,%d,%d,%.1f,%.1f,%.2f,%d\n",
-                        elapsedSec,
-                        telemetry.getOccupiedRunways(),
-                        telemetry.getOccupiedGates(),
-                        telemetry.taxiQueueSnapshot().size(),
-                        telemetry.avgRunwayWaitMs(),
-                        telemetry.avgGateWaitMs(),
-                        telemetry.runwayUtilization(),
-                        telemetry.getNotifyAllCount()
-                        
-                );
-                try {
-                    csvWriter.write(row);
-                    csvWriter.flush();
-                } catch (IOException ex) {
-                    ex.printStackTrace();
+                java.util.List<AirportTelemetry.StrategySwitch> switches = telemetry.strategySwitches();
+                for (; loggedSwitches < switches.size(); loggedSwitches++) {
+                    logPanel.logSystem("Strategy switch: " + switches.get(loggedSwitches));
                 }
             }
         });
@@ -132,12 +173,32 @@ public class MainWindow extends JFrame {
         String id = "P" + (activePlanes.size() + 1);
         Color c = randomColorFor(id);
 
-        GUIAirplane g = new GUIAirplane(id, airport, arrivalFirst, mapPanel, null, null, logPanel, c);
+        FlightPlan plan = GUIAirplane.plan(id, System.nanoTime() - runStartNanos, arrivalFirst, traffic);
+        workload.add(plan);
+        GUIAirplane g = new GUIAirplane(plan, airport, mapPanel, null, null, logPanel, c, telemetry);
         activePlanes.add(g);
-        g.start();
+        g.start(launcher);
         logPanel.log(id, "Created", c);
     }
 
+    // Close runway/gate n (1-based), or reopen it if it is closed.
+    private void onToggleClosure(Lease.Kind kind, int n) {
+        if (!(airport instanceof SupportsClosures ctl)) {
+            JOptionPane.showMessageDialog(this, airport == null ? "Start the airport first!" : "Closures need Monitor, Semaphore or Adaptive");
+            return;
+        }
+        int count = kind == Lease.Kind.RUNWAY ? telemetry.getTotalRunways() : telemetry.getTotalGates();
+        String name = (kind == Lease.Kind.RUNWAY ? "Runway " : "Gate ") + n;
+        if (n > count) {
+            JOptionPane.showMessageDialog(this, "No " + name);
+            return;
+        }
+        if (ctl.isClosed(kind, n - 1)) ctl.reopen(kind, n - 1);
+        else ctl.close(kind, n - 1);
+        logPanel.logSystem(name + (ctl.isClosed(kind, n - 1) ? " closed" : " reopened") + " (" + ctl.queuedPlanes() + " planes queued)");
+        mapPanel.repaint();
+    }
+
     private void onPauseAll(ActionEvent e) {
         for (GUIAirplane g : activePlanes) g.togglePause();
         logPanel.logSystem("Toggled pause for all airplanes");
@@ -148,17 +209,32 @@ public class MainWindow extends JFrame {
         activePlanes.clear();
 
         if (telemetryTimer != null) telemetryTimer.stop();
-        try {
-            if (csvWriter != null) csvWriter.close();
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
+        stopRecording();
 
         mapPanel.clearSprites();
         statusLabel.setText("Simulation reset");
         logPanel.logSystem("Simulation reset");
     }
 
+    // Stop the recorder and convert its file to telemetry_data.csv on the exporter thread, with the run's workload.
+    private void stopRecording() {
+        TelemetryRecorder r = recorder;
+        if (r == null) return;
+        recorder = null;
+        List<FlightPlan> planes = workload;
+        workload = new ArrayList<>();
+        exporter.execute(() -> {
+            r.close();
+            if (r.failure() != null) logPanel.logSystem("Telemetry recording " + r.failureMessage());
+            try {
+                TelemetryRecorder.toCsv(r.file(), Path.of("telemetry_data.csv"));
+                if (!planes.isEmpty()) FlightPlan.write(Path.of("gui_workload.csv"), planes);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
     private Color randomColorFor(String id) {
         return colorMap.computeIfAbsent(id, k -> new Color((int) (Math.random() * 0xFFFFFF)));
     }
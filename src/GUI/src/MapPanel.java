@@ -1,107 +1,270 @@
-
 package GUI.src;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 import Shared.src.Airport;
 import Shared.src.AirportTelemetry;
 
+/*
+ * Airport map. The layout (background, runways and gates as free, labels) is drawn once into a cached
+ * image and only redrawn on a resize or a runway/gate count change. Each 40 ms tick steps the sprites and
+ * compares the runway/gate states and the taxi queue with what was last painted; only what changed is
+ * marked dirty, and a tick where nothing moved or changed repaints nothing. paintComponent blits the
+ * cached layer and draws only the resources and sprites inside the clip.
+ */
 public class MapPanel extends JPanel {
-    private final List<AirplaneSprite> sprites = new CopyOnWriteArrayList<>();
+    private final List<AirplaneSprite> sprites = new ArrayList<>();   // EDT only
     private Airport airport;
     private AirportTelemetry telemetry;
 
     private int runwayCount = 2;
     private int gateCount   = 3;
+    private static final Color CLOSED = new Color(0xF0B0B0);
+    private static final Color RUNWAY_FREE = new Color(0xAAAAAA);
+    private static final Color RUNWAY_BUSY = new Color(0x444444);
+    private static final Color GATE_BUSY = new Color(0x8080FF);
+    private static final Color TAXI = new Color(0xFFD27F);
+    private static final Color CROSS = new Color(0xB00000);
+
+    // Layout, computed with the static layer
+    private static final int LEFT = 50, RUNWAY_TOP = 50, RUNWAY_HEIGHT = 40, RUNWAY_GAP = 70;
+    private static final int GATE_WIDTH = 60, GATE_HEIGHT = 40, GATE_GAP = 80;
+    private int runwayWidth, gatesTop, gatesPerRow, taxiY;
+    private BufferedImage staticLayer;
+
+    // State as last painted, to find what changed: bit 0 occupied, bit 1 closed; gates add their busy %
+    private int[] runwayState = new int[0];
+    private int[] gateState = new int[0];
+    private long taxiVersion = -1;
+    private int dirtyX0, dirtyY0, dirtyX1, dirtyY1;   // pending repaint area, empty when x0 >= x1
 
     public MapPanel() {
         setPreferredSize(new Dimension(600, 480));
         setBackground(new Color(0xDFF3FF));
-        new Timer(40, e -> {
-            for (AirplaneSprite s : sprites) s.updatePosition();
-            repaint();
-        }).start();
+        setOpaque(true);
+        clearDirty();
+        new Timer(40, e -> tick()).start();
     }
 
     public void setAirport(Airport a) { this.airport = a; }
-    public void setTelemetry(AirportTelemetry t) { this.telemetry = t; }
-    public void setRunwayCount(int n) { this.runwayCount = Math.max(1, n); repaint(); }
-    public void setGateCount(int n)    { this.gateCount   = Math.max(1, n); repaint(); }
+    public void setTelemetry(AirportTelemetry t) { this.telemetry = t; invalidateLayout(); }
+    public void setRunwayCount(int n) { this.runwayCount = Math.max(1, n); invalidateLayout(); }
+    public void setGateCount(int n)    { this.gateCount   = Math.max(1, n); invalidateLayout(); }
+
+    public void addSprite(AirplaneSprite s) {
+        s.labelWidth = getFontMetrics(getFont()).stringWidth(s.id);
+        sprites.add(s);
+        markDirty(s);
+    }
+
+    public void removeSprite(AirplaneSprite s) {
+        if (sprites.remove(s)) markDirty(s);
+    }
+
+    public void clearSprites() {
+        sprites.clear();
+        repaint();
+    }
+
+    private void invalidateLayout() {
+        staticLayer = null;
+        repaint();
+    }
+
+    // --- Animation tick: find what changed, repaint only that ---
 
-    public void addSprite(AirplaneSprite s) { sprites.add(s); }
-    public void removeSprite(AirplaneSprite s) { sprites.remove(s); }
-    public void clearSprites() { sprites.clear(); }
+    private void tick() {
+        for (AirplaneSprite s : sprites) {
+            int x0 = s.left(), y0 = s.top(), x1 = s.right(), y1 = s.bottom();
+            if (s.updatePosition()) {
+                markDirty(x0, y0, x1, y1);
+                markDirty(s);
+            }
+        }
+        if (staticLayer != null && telemetry != null) checkResources();
+        if (dirtyX0 < dirtyX1) {
+            // One rectangle: the RepaintManager would merge several into their union anyway
+            repaint(dirtyX0, dirtyY0, dirtyX1 - dirtyX0, dirtyY1 - dirtyY0);
+            clearDirty();
+        }
+    }
+
+    private void checkResources() {
+        for (int i = 0; i < runwayState.length; i++) {
+            int st = state(telemetry.isRunwayOccupied(i), telemetry.isRunwayClosed(i));
+            if (st != runwayState[i]) {
+                runwayState[i] = st;
+                int y = RUNWAY_TOP + i * RUNWAY_GAP;
+                markDirty(LEFT, y - 20, LEFT + runwayWidth + 1, y + RUNWAY_HEIGHT + 1);
+            }
+        }
+        double[] gateUtil = telemetry.gateUtilizations();
+        for (int i = 0; i < gateState.length; i++) {
+            int busy = i < gateUtil.length ? (int) Math.round(gateUtil[i] * 100) : 0;
+            int st = state(telemetry.isGateOccupied(i), telemetry.isGateClosed(i)) | busy << 2;
+            if (st != gateState[i]) {
+                gateState[i] = st;
+                int x = gateX(i), y = gateY(i);
+                markDirty(x, y, x + GATE_WIDTH + 30, y + GATE_HEIGHT + 20);
+            }
+        }
+        long v = telemetry.taxiQueueVersion();
+        if (v != taxiVersion) {
+            taxiVersion = v;
+            markDirty(0, taxiY, getWidth(), taxiY + 40);
+        }
+    }
+
+    private static int state(boolean occupied, boolean closed) {
+        return (occupied ? 1 : 0) | (closed ? 2 : 0);
+    }
+
+    private void markDirty(AirplaneSprite s) {
+        markDirty(s.left(), s.top(), s.right(), s.bottom());
+    }
+
+    private void markDirty(int x0, int y0, int x1, int y1) {
+        dirtyX0 = Math.min(dirtyX0, x0);
+        dirtyY0 = Math.min(dirtyY0, y0);
+        dirtyX1 = Math.max(dirtyX1, x1);
+        dirtyY1 = Math.max(dirtyY1, y1);
+    }
+
+    private void clearDirty() {
+        dirtyX0 = dirtyY0 = Integer.MAX_VALUE;
+        dirtyX1 = dirtyY1 = Integer.MIN_VALUE;
+    }
+
+    // --- Painting ---
+
+    private int gateX(int idx) { return LEFT + (idx % gatesPerRow) * GATE_GAP + 10; }
+    private int gateY(int idx) { return gatesTop + (idx / gatesPerRow) * (GATE_HEIGHT + 30); }
+
+    // Layout and the static layer: every runway/gate drawn free; paintComponent draws only the others over it.
+    private BufferedImage staticLayer() {
+        int w = Math.max(1, getWidth()), h = Math.max(1, getHeight());
+        if (staticLayer != null && staticLayer.getWidth() == w && staticLayer.getHeight() == h) return staticLayer;
+
+        runwayWidth = w - 100;
+        gatesTop = RUNWAY_TOP + runwayCount * RUNWAY_GAP + 60;
+        gatesPerRow = Math.max(1, Math.min(gateCount, Math.max(1, (w - 120) / GATE_GAP)));
+        int totalRows = (gateCount + gatesPerRow - 1) / gatesPerRow;
+        taxiY = gatesTop + totalRows * (GATE_HEIGHT + 30) + 20;
+        runwayState = new int[runwayCount];
+        gateState = new int[gateCount];
+        taxiVersion = -1;
+
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        staticLayer = gc != null ? gc.createCompatibleImage(w, h) : new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = staticLayer.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setFont(getFont());
+        g2.setColor(getBackground());
+        g2.fillRect(0, 0, w, h);
+        for (int i = 0; i < runwayCount; i++) paintRunway(g2, i, 0);
+        for (int i = 0; i < gateCount; i++) paintGate(g2, i, 0);
+        g2.setColor(Color.BLACK);
+        g2.drawString("Taxiway queue (waiting for gate):", LEFT, taxiY);
+        g2.dispose();
+        return staticLayer;
+    }
 
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
         Graphics2D g2 = (Graphics2D) g;
+        g2.drawImage(staticLayer(), 0, 0, null);
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        Rectangle clip = g2.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
 
-        int left = 50;
-        int runwayTop = 50;
-        int runwayWidth = getWidth() - 100;
-        int runwayHeight = 40;
-        int runwayGap = 70;
-
-        int occRunways = telemetry != null ? telemetry.getOccupiedRunways() : 0;
-        int occGates   = telemetry != null ? telemetry.getOccupiedGates()   : 0;
-
-        // --- Runways (color occupied vs free) ---
-        for (int i = 0; i < runwayCount; i++) {
-            int y = runwayTop + i * runwayGap;
-            boolean occupied = i < occRunways;
-            g2.setColor(occupied ? new Color(0x444444) : new Color(0xAAAAAA));
-            g2.fillRect(left, y, runwayWidth, runwayHeight);
-            g2.setColor(Color.BLACK);
-            g2.drawRect(left, y, runwayWidth, runwayHeight);
-            g2.drawString("Runway " + (i + 1) + (occupied ? " (occupied)" : " (free)"), left + 5, y - 5);
+        if (telemetry != null) {
+            // Real per-resource state (lease indices) and each gate's share of time busy: hot vs idle gates
+            for (int i = 0; i < runwayCount; i++) {
+                int y = RUNWAY_TOP + i * RUNWAY_GAP;
+                if (!clip.intersects(LEFT, y - 20, runwayWidth + 1, RUNWAY_HEIGHT + 21)) continue;
+                int st = state(telemetry.isRunwayOccupied(i), telemetry.isRunwayClosed(i));
+                if (st != 0) paintRunway(g2, i, st);
+            }
+            double[] gateUtil = null;
+            for (int i = 0; i < gateCount; i++) {
+                if (!clip.intersects(gateX(i), gateY(i), GATE_WIDTH + 30, GATE_HEIGHT + 20)) continue;
+                if (gateUtil == null) gateUtil = telemetry.gateUtilizations();
+                int busy = i < gateUtil.length ? (int) Math.round(gateUtil[i] * 100) : 0;
+                int st = state(telemetry.isGateOccupied(i), telemetry.isGateClosed(i));
+                if (st != 0) paintGate(g2, i, st);
+                if (i < gateUtil.length) {
+                    g2.setColor(Color.BLACK);
+                    g2.drawString(busy + "% busy", gateX(i) + 5, gateY(i) + GATE_HEIGHT + 14);
+                }
+            }
+            if (clip.intersects(0, taxiY, getWidth(), 40)) paintTaxiQueue(g2);
         }
 
-        // --- Gates area ---
-        int gatesTop = runwayTop + runwayCount * runwayGap + 60;
-        int gateWidth = 60;
-        int gateHeight = 40;
-        int gateGap = 80;
-        int gatesPerRow = Math.max(1, Math.min(gateCount, Math.max(1, (getWidth() - 120) / gateGap)));
-        int totalRows = (gateCount + gatesPerRow - 1) / gatesPerRow;
-
-        int idx = 0;
-        for (int row = 0; row < totalRows; row++) {
-            for (int col = 0; col < gatesPerRow && idx < gateCount; col++, idx++) {
-                int x = left + col * gateGap + 10;
-                int y = gatesTop + row * (gateHeight + 30);
-                boolean occupied = idx < occGates;
-                g2.setColor(occupied ? new Color(0x8080FF) : Color.LIGHT_GRAY);
-                g2.fillRect(x, y, gateWidth, gateHeight);
-                g2.setColor(Color.BLACK);
-                g2.drawRect(x, y, gateWidth, gateHeight);
-                g2.drawString("G" + (idx + 1) + (occupied ? " (occupied)" : " (free)"), x + 5, y + (gateHeight / 2) + 4);
-            }
+        // --- Sprites on top, only those in the clip ---
+        for (AirplaneSprite s : sprites) {
+            if (s.right() < clip.x || s.left() > clip.x + clip.width || s.bottom() < clip.y || s.top() > clip.y + clip.height) continue;
+            s.paint(g2);
         }
+    }
 
-        // --- Taxiway queue ---
-        int taxiY = gatesTop + totalRows * (gateHeight + 30) + 20;
+    // st: bit 0 occupied, bit 1 closed (0: free, as in the static layer)
+    private void paintRunway(Graphics2D g2, int i, int st) {
+        boolean occupied = (st & 1) != 0, closed = (st & 2) != 0;
+        int y = RUNWAY_TOP + i * RUNWAY_GAP;
+        g2.setColor(getBackground());
+        g2.fillRect(LEFT, y - 20, runwayWidth + 1, 20);   // label strip: the free label is longer than some
+        g2.setColor(occupied ? RUNWAY_BUSY : closed ? CLOSED : RUNWAY_FREE);
+        g2.fillRect(LEFT, y, runwayWidth, RUNWAY_HEIGHT);
         g2.setColor(Color.BLACK);
-        g2.drawString("Taxiway queue (waiting for gate):", left, taxiY);
-        if (telemetry != null) {
-            List<String> q = telemetry.taxiQueueSnapshot();
-            int x = left;
-            int y = taxiY + 15;
-            for (String id : q) {
-                g2.setColor(new Color(0xFFD27F));
-                g2.fillRoundRect(x, y, 60, 22, 8, 8);
-                g2.setColor(Color.BLACK);
-                g2.drawRoundRect(x, y, 60, 22, 8, 8);
-                g2.drawString(id, x + 8, y + 16);
-                x += 70;
-            }
+        g2.drawRect(LEFT, y, runwayWidth, RUNWAY_HEIGHT);
+        if (closed) crossOut(g2, LEFT, y, runwayWidth, RUNWAY_HEIGHT);
+        g2.drawString("Runway " + (i + 1) + label(occupied, closed), LEFT + 5, y - 5);
+    }
+
+    private void paintGate(Graphics2D g2, int i, int st) {
+        boolean occupied = (st & 1) != 0, closed = (st & 2) != 0;
+        int x = gateX(i), y = gateY(i);
+        g2.setColor(occupied ? GATE_BUSY : closed ? CLOSED : Color.LIGHT_GRAY);
+        g2.fillRect(x, y, GATE_WIDTH, GATE_HEIGHT);
+        g2.setColor(Color.BLACK);
+        g2.drawRect(x, y, GATE_WIDTH, GATE_HEIGHT);
+        if (closed) crossOut(g2, x, y, GATE_WIDTH, GATE_HEIGHT);
+        g2.drawString("G" + (i + 1) + label(occupied, closed), x + 5, y + (GATE_HEIGHT / 2) + 4);
+    }
+
+    private void paintTaxiQueue(Graphics2D g2) {
+        // Only copy the planes that fit on one row; the rest is shown as a count.
+        int fits = Math.max(1, (getWidth() - LEFT - 70) / 70);
+        int total = telemetry.taxiQueueSize();
+        List<String> q = total == 0 ? List.of() : telemetry.taxiQueueSnapshot(fits);
+        int x = LEFT;
+        int y = taxiY + 15;
+        for (String id : q) {
+            g2.setColor(TAXI);
+            g2.fillRoundRect(x, y, 60, 22, 8, 8);
+            g2.setColor(Color.BLACK);
+            g2.drawRoundRect(x, y, 60, 22, 8, 8);
+            g2.drawString(id, x + 8, y + 16);
+            x += 70;
         }
+        g2.setColor(Color.BLACK);
+        if (total > q.size()) g2.drawString("+" + (total - q.size()) + " more", x, y + 16);
+    }
 
-        // --- Sprites on top ---
-        for (AirplaneSprite s : sprites) s.paint(g2);
+    // Closed while occupied: the plane on it finishes, then it stays closed.
+    private static String label(boolean occupied, boolean closed) {
+        if (closed) return occupied ? " (closing)" : " (closed)";
+        return occupied ? " (occupied)" : " (free)";
+    }
+
+    private static void crossOut(Graphics2D g2, int x, int y, int w, int h) {
+        g2.setColor(CROSS);
+        g2.drawLine(x, y, x + w, y + h);
+        g2.drawLine(x, y + h, x + w, y);
+        g2.setColor(Color.BLACK);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,402 @@
+package Headless.src;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import AdaptiveVersion.src.AirportAdaptive;
+import LockFreeVersion.src.AirportLockFree;
+import MonitorVersion.src.AirportMonitor;
+import ReentrantLockVersion.src.AirportReentrantLock;
+import SemaphoreVersion.src.AirportSemaphore;
+import Shared.src.Airplane;
+import Shared.src.Airport;
+import Shared.src.AirportTelemetry;
+import Shared.src.EventTrace;
+import Shared.src.FlightPlan;
+import Shared.src.GateReservingAirport;
+import Shared.src.HoldingPolicy;
+import Shared.src.LatencyHistogram;
+import Shared.src.PlaneLauncher;
+import Shared.src.ResourceSlots;
+import Shared.src.SupportsClosures;
+import Shared.src.SupportsRunwayPolicy;
+import Shared.src.SupportsTelemetry;
+import Shared.src.SupportsTracing;
+import Shared.src.TelemetryRecorder;
+import Shared.src.WorkloadGenerator;
+
+/*
+ * Command-line runner: injects Airplane threads into a controller according to a Scenario, without
+ * loading AWT/Swing, then prints AirportTelemetry.summary() plus throughput and writes a JSON result.
+ *
+ *   java Headless.src.HeadlessRunner [--scenario=file.properties] [--key=value ...]
+ *
+ * Exit code: 0 all planes completed, 1 some planes had to be interrupted at the timeout, 2 bad arguments.
+ */
+public class HeadlessRunner {
+
+    public static Airport createAirport(String version, int runways, int gates) {
+        return createAirport(version, runways, gates, ResourceSlots.Policy.LOWEST_FREE);
+    }
+
+    public static Airport createAirport(String version, int runways, int gates, ResourceSlots.Policy policy) {
+        return switch (version) {
+            case "Monitor" -> new AirportMonitor(runways, gates, policy);
+            case "Semaphore" -> new AirportSemaphore(runways, gates, policy);
+            case "ReentrantLock" -> new AirportReentrantLock(runways, gates, policy);
+            case "LockFree" -> new AirportLockFree(runways, gates, policy);
+            case "Adaptive" -> new AirportAdaptive(runways, gates, policy);
+            default -> throw new IllegalArgumentException("unknown version: " + version);
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        Scenario sc;
+        try {
+            sc = Scenario.parse(args);
+            Airport probe = createAirport(sc.version, 1, 1); // validate the name and features before starting anything
+            try {
+                checkFeatures(sc, probe);
+            } finally {
+                if (probe instanceof AirportAdaptive ad) ad.close();
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        Map<String, Object> result = run(sc);
+        System.out.println(result.get("summary"));
+        System.out.printf(Locale.US, "completed %d/%d planes in %.2f s -> %.2f planes/s%n",
+                (Long) result.get("planesCompleted"), (Integer) result.get("planesStarted"),
+                (Double) result.get("elapsedSec"), (Double) result.get("throughput"));
+
+        try (Writer w = new FileWriter(sc.out)) {
+            w.write(toJson(result));
+        }
+        System.out.println("Result written to " + sc.out);
+        System.exit((Boolean) result.get("timedOut") ? 1 : 0);
+    }
+
+    // Scenario keys the version has to support: fails before a run opens anything.
+    static void checkFeatures(Scenario sc, Airport airport) {
+        if (!sc.trace.isEmpty() && !(airport instanceof SupportsTracing)) {
+            throw new IllegalArgumentException("trace needs Monitor, Semaphore or Adaptive");
+        }
+        if (!sc.closures.isBlank() && !(airport instanceof SupportsClosures)) {
+            throw new IllegalArgumentException("closures need Monitor, Semaphore or Adaptive");
+        }
+    }
+
+    public static Map<String, Object> run(Scenario sc) throws IOException, InterruptedException {
+        return run(sc, null);
+    }
+
+    // Same, handing the planes of the run (in injection order) to planesOut for per-plane results.
+    public static Map<String, Object> run(Scenario sc, List<Airplane> planesOut) throws IOException, InterruptedException {
+        Airplane.setVerbose(sc.verbose);
+        Iterator<FlightPlan> plans = !sc.workload.isEmpty() ? FlightPlan.read(Path.of(sc.workload)).iterator()
+                : !sc.traffic.isEmpty() ? sc.trafficGenerator() : generate(sc).iterator();
+        Airport airport = createAirport(sc.version, sc.runways, sc.gates, sc.allocationPolicy());
+        try {
+            checkFeatures(sc, airport);   // before any file or thread below is opened
+        } catch (IllegalArgumentException e) {
+            if (airport instanceof AirportAdaptive ad) ad.close();
+            throw e;
+        }
+        AirportTelemetry telemetry = new AirportTelemetry(sc.runways, sc.gates);
+        if (airport instanceof SupportsTelemetry st) st.setTelemetry(telemetry);
+        if (airport instanceof SupportsRunwayPolicy sp) sp.setRunwayPolicy(sc.runwayPolicy());
+        PlaneLauncher launcher = new PlaneLauncher(sc.threads.equals("virtual") ? PlaneLauncher.Mode.VIRTUAL : PlaneLauncher.Mode.PLATFORM);
+        telemetry.setExecutionMode(launcher.describe());
+
+        // Optional per-second CSV, written off the injecting thread.
+        ScheduledExecutorService sampler = null;
+        Writer csv = null;
+        final long startMs = System.currentTimeMillis();
+        if (!sc.csv.isEmpty()) {
+            csv = new FileWriter(sc.csv);
+            csv.write(AirportTelemetry.csvHeader() + "\n");
+            final Writer csvOut = csv;
+            sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "telemetry-csv");
+                t.setDaemon(true);
+                return t;
+            });
+            sampler.scheduleAtFixedRate(() -> {
+                try {
+                    csvOut.write(telemetry.csvRow((System.currentTimeMillis() - startMs) / 1000) + "\n");
+                    csvOut.flush();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, 1, 1, TimeUnit.SECONDS);
+        }
+
+        // Optional high-rate binary recording, on its own thread
+        TelemetryRecorder recorder = sc.record.isEmpty() ? null : new TelemetryRecorder(telemetry, Path.of(sc.record), sc.recordMs);
+
+        // Optional per-event trace, drained to disk by its own thread
+        EventTrace trace = null;
+        if (!sc.trace.isEmpty()) {
+            trace = new EventTrace();
+            trace.start(Path.of(sc.trace));
+            ((SupportsTracing) airport).setTrace(trace);
+        }
+
+        // Outages, on their own timer from the start of injection
+        List<Scenario.Closure> closures = sc.closures();
+        ScheduledExecutorService outages = null;
+        if (!closures.isEmpty()) {
+            SupportsClosures ctl = (SupportsClosures) airport;
+            outages = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "closures");
+                t.setDaemon(true);
+                return t;
+            });
+            for (Scenario.Closure c : closures) {
+                outages.schedule(() -> ctl.close(c.kind, c.index), (long) (c.closeSec * 1000), TimeUnit.MILLISECONDS);
+                if (c.reopenSec >= 0) outages.schedule(() -> ctl.reopen(c.kind, c.index), (long) (c.reopenSec * 1000), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        // Injection, open loop on the plans' clock (scaled for a replay): a plane is due at its atNanos whatever
+        // the airport is doing, and its waits count from then even when the injector or thread start is late.
+        double speed = sc.workload.isEmpty() ? 1 : sc.speedFactor();
+        HoldingPolicy holding = sc.holdingPolicy();
+        // Only planes still flying are kept (a long traffic= run has no cap): finished ones go into the tally,
+        // and the workload is written as it is injected.
+        Map<Thread, Airplane> live = new LinkedHashMap<>();
+        Tally tally = new Tally();
+        int pruneAt = 1024;
+        long startNs = System.nanoTime();
+        try (Writer workloadOut = sc.workloadOut.isEmpty() ? null : Files.newBufferedWriter(Path.of(sc.workloadOut))) {
+            if (workloadOut != null) workloadOut.write(FlightPlan.CSV_HEADER + "\n");
+            while (plans.hasNext()) {
+                FlightPlan original = plans.next();
+                FlightPlan plan = original.scaled(speed);
+                long delayNs = plan.atNanos - (System.nanoTime() - startNs);
+                if (delayNs > 0) TimeUnit.NANOSECONDS.sleep(delayNs);
+                Airplane p = new Airplane(plan, airport, telemetry, holding);
+                p.setReserveGate(sc.gateReservation);
+                p.setIntendedStart(startNs + plan.atNanos);
+                if (workloadOut != null) workloadOut.write(original.toCsv() + "\n");
+                if (planesOut != null) planesOut.add(p);
+                live.put(p.start(launcher), p);
+                tally.started++;
+                if (live.size() >= pruneAt) {
+                    tally.addFinished(live);
+                    pruneAt = Math.max(1024, 2 * live.size());
+                }
+            }
+        }
+
+        // Drain: wait up to the timeout, then interrupt whoever is left.
+        long deadlineNs = System.nanoTime() + (long) (sc.timeoutSec * 1e9);
+        boolean timedOut = false;
+        for (Thread t : live.keySet()) {
+            long leftMs = (deadlineNs - System.nanoTime()) / 1_000_000;
+            if (leftMs > 0) t.join(leftMs);
+            if (t.isAlive()) timedOut = true;
+        }
+        if (timedOut) {
+            for (Thread t : live.keySet()) t.interrupt();
+            for (Thread t : live.keySet()) t.join(1000);
+        }
+        for (Airplane p : live.values()) tally.add(p);
+        double elapsedSec = (System.nanoTime() - startNs) / 1e9;
+        if (outages != null) outages.shutdownNow();
+        if (recorder != null) recorder.close();
+        if (trace != null) trace.close();
+        if (airport instanceof AirportAdaptive ad) ad.close();
+
+        if (sampler != null) {
+            sampler.shutdown();
+            sampler.awaitTermination(2, TimeUnit.SECONDS);
+            csv.close();
+        }
+
+        long completed = tally.completed;
+        long diverted = tally.diverted;
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("version", sc.version);
+        r.put("threads", launcher.describe());
+        r.put("runways", sc.runways);
+        r.put("gates", sc.gates);
+        r.put("allocation", sc.allocation);
+        r.put("pattern", sc.pattern);
+        r.put("traffic", sc.traffic);
+        r.put("holds", sc.traffic.isEmpty() ? "uniform" : WorkloadGenerator.Holds.parse(sc.holds, sc.holdScale).toString());
+        r.put("arrivalRatio", sc.arrivalRatio);
+        r.put("emergencyRatio", sc.emergencyRatio);
+        r.put("lowFuelRatio", sc.lowFuelRatio);
+        r.put("durationSec", sc.durationSec);
+        r.put("seed", sc.seed);
+        r.put("workload", sc.workload);
+        r.put("speed", sc.workload.isEmpty() ? "1" : sc.speed);
+        r.put("planesStarted", tally.started);
+        r.put("planesCompleted", completed);
+        r.put("holding", holding.toString());
+        r.put("planesDiverted", diverted);
+        r.put("arrivalTimeouts", telemetry.getArrivalTimeouts());
+        r.put("departureTimeouts", telemetry.getDepartureTimeouts());
+        r.put("gateTimeouts", telemetry.getGateTimeouts());
+        r.put("gateReservation", sc.gateReservation && airport instanceof GateReservingAirport);
+        r.put("gateReservations", telemetry.getGateReservations());
+        r.put("strategy", telemetry.getStrategy());
+        r.put("strategySwitches", telemetry.strategySwitches().size());
+        r.put("strategySwitchLog", String.join("; ", telemetry.strategySwitches().stream().map(Object::toString).toList()));
+        r.put("runwayPolicy", airport instanceof SupportsRunwayPolicy ? sc.runwayPolicy : "strict");
+        r.put("closures", sc.closures);
+        r.put("capacityChanges", telemetry.capacityChanges().size());
+        r.put("capacityLog", String.join("; ", telemetry.capacityChanges().stream().map(Object::toString).toList()));
+        r.put("recordRows", recorder != null ? recorder.rows() : 0L);
+        r.put("recordError", recorder != null ? recorder.failureMessage() : "");
+        r.put("traceEvents", trace != null ? trace.recorded() : 0L);
+        r.put("traceDropped", trace != null ? trace.dropped() : 0L);
+        r.put("timedOut", timedOut);
+        r.put("elapsedSec", elapsedSec);
+        r.put("throughput", elapsedSec > 0 ? completed / elapsedSec : 0.0);
+        r.put("avgRunwayWaitMs", telemetry.avgRunwayWaitMs());
+        r.put("avgGateWaitMs", telemetry.avgGateWaitMs());
+        r.put("peakTaxiQueue", telemetry.peakTaxiQueueSize());
+        r.put("runwayUtilization", telemetry.runwayUtilization());
+        r.put("notifyAllCount", telemetry.getNotifyAllCount());
+        r.put("signalCount", telemetry.getSignalCount());
+        r.put("futileWakeups", telemetry.getFutileWakeupCount());
+        r.put("pinnedWaits", telemetry.getPinnedWaitCount());
+        putPercentiles(r, "runwayWait", telemetry.runwayWaitHistogram());
+        putPercentiles(r, "arrivalWait", telemetry.arrivalWaitHistogram());
+        putPercentiles(r, "departureWait", telemetry.departureWaitHistogram());
+        putPercentiles(r, "gateWait", telemetry.gateWaitHistogram());
+        putPercentiles(r, "runwayHold", telemetry.runwayHoldHistogram());
+        putPercentiles(r, "turnaround", telemetry.turnaroundHistogram());
+        putPercentiles(r, "holding", telemetry.holdingHistogram());
+        putPercentiles(r, "reservedGateIdle", telemetry.reservedGateIdleHistogram());
+        putPercentiles(r, "emergencyLanding", telemetry.landingWaitHistogram(Airplane.Priority.EMERGENCY));
+        putPercentiles(r, "lowFuelLanding", telemetry.landingWaitHistogram(Airplane.Priority.LOW_FUEL));
+        putPercentiles(r, "normalLanding", telemetry.landingWaitHistogram(Airplane.Priority.NORMAL));
+        putPercentiles(r, "recovery", telemetry.recoveryHistogram());
+        putPercentiles(r, "injectionLag", tally.startLags.snapshot());
+        r.put("runwayUtilizations", telemetry.runwayUtilizations());
+        r.put("gateUtilizations", telemetry.gateUtilizations());
+        r.put("summary", telemetry.summary());
+        return r;
+    }
+
+    // The injection schedule of the scenario: arrival mix and priorities from seed, hold times from a
+    // second stream off the same seed, so the same scenario is the same traffic for every controller.
+    // With traffic=, the whole open-loop stream instead.
+    static List<FlightPlan> generate(Scenario sc) {
+        if (!sc.traffic.isEmpty()) {
+            List<FlightPlan> plans = new ArrayList<>();
+            sc.trafficGenerator().forEachRemaining(plans::add);
+            return plans;
+        }
+        Random rng = new Random(sc.seed);
+        Random holds = new Random(sc.seed ^ 0x5DEECE66DL);
+        long durationMs = (long) (sc.durationSec * 1000);
+        int bursts = (sc.planes + sc.burstSize - 1) / sc.burstSize;
+        List<FlightPlan> plans = new ArrayList<>(sc.planes);
+        for (int i = 0; i < sc.planes; i++) {
+            long atMs;
+            boolean arrivalFirst;
+            if (sc.pattern.equals("bursty")) {
+                // Phase A style: burst k is all arrivals (even k) or all departures (odd k)
+                int burst = i / sc.burstSize;
+                atMs = bursts <= 1 ? 0 : durationMs * burst / bursts;
+                arrivalFirst = burst % 2 == 0;
+            } else {
+                atMs = sc.planes <= 1 ? 0 : durationMs * i / sc.planes;
+                arrivalFirst = rng.nextDouble() < sc.arrivalRatio;
+            }
+            Airplane.Priority priority = Airplane.Priority.NORMAL;
+            if (arrivalFirst && sc.emergencyRatio + sc.lowFuelRatio > 0) priority = sc.priority(rng.nextDouble());
+            plans.add(FlightPlan.random("P" + (i + 1), atMs * 1_000_000L, arrivalFirst, priority, holds));
+        }
+        return plans;
+    }
+
+    // Per-plane results of the run, added as planes finish.
+    private static final class Tally {
+        int started;
+        long completed;
+        long diverted;
+        // How late each plane started against its schedule: near zero unless the injector itself falls behind.
+        final LatencyHistogram startLags = new LatencyHistogram();
+
+        void add(Airplane p) {
+            if (p.isCompleted()) completed++;
+            if (p.isDiverted()) diverted++;
+            if (p.getStartLagNanos() >= 0) startLags.record(p.getStartLagNanos());
+        }
+
+        // Moves the planes whose threads have ended out of live.
+        void addFinished(Map<Thread, Airplane> live) {
+            for (Iterator<Map.Entry<Thread, Airplane>> it = live.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<Thread, Airplane> e = it.next();
+                if (e.getKey().isAlive()) continue;
+                add(e.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    private static void putPercentiles(Map<String, Object> r, String name, LatencyHistogram.Snapshot h) {
+        r.put(name + "P50Ms", h.percentileMs(50));
+        r.put(name + "P90Ms", h.percentileMs(90));
+        r.put(name + "P99Ms", h.percentileMs(99));
+        r.put(name + "P999Ms", h.percentileMs(99.9));
+        r.put(name + "MaxMs", h.maxMs());
+    }
+
+    // Flat JSON object: numbers and booleans as-is, double[] as an array, everything else as an escaped string.
+    static String toJson(Map<String, Object> values) {
+        StringBuilder sb = new StringBuilder("{\n");
+        int i = 0;
+        for (Map.Entry<String, Object> e : values.entrySet()) {
+            sb.append("  \"").append(e.getKey()).append("\": ");
+            Object v = e.getValue();
+            if (v instanceof Double d) sb.append(String.format(Locale.US, "%.4f", d));
+            else if (v instanceof Number || v instanceof Boolean) sb.append(v);
+            else if (v instanceof double[] a) {
+                sb.append('[');
+                for (int k = 0; k < a.length; k++) sb.append(k > 0 ? ", " : "").append(String.format(Locale.US, "%.4f", a[k]));
+                sb.append(']');
+            }
+            else sb.append('"').append(escape(String.valueOf(v))).append('"');
+            sb.append(++i < values.size() ? ",\n" : "\n");
+        }
+        return sb.append("}\n").toString();
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
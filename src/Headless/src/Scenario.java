@@ -0,0 +1,248 @@
+package Headless.src;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import Shared.src.Airplane;
+import Shared.src.FlightPlan;
+import Shared.src.HoldingPolicy;
+import Shared.src.Lease;
+import Shared.src.ResourceSlots;
+import Shared.src.RunwayPolicy;
+import Shared.src.WorkloadGenerator;
+
+/*
+ * Scenario for a headless run, read from a .properties file and/or --key=value arguments
+ * (arguments override the file). Keys and defaults:
+ *   version=Semaphore        Monitor | Semaphore | ReentrantLock | LockFree | Adaptive
+ *   runways=2  gates=3
+ *   allocation=lowest        which free runway/gate a plane gets: lowest | round-robin
+ *   planes=80                number of planes injected
+ *   arrivalRatio=0.5         share of planes that arrive first (the rest depart directly)
+ *   emergencyRatio=0  lowFuelRatio=0   share of arrivals flagged EMERGENCY / LOW_FUEL (Airplane.Priority)
+ *   duration=60              seconds over which planes are injected
+ *   pattern=steady           steady (evenly spaced) | bursty (alternating bursts of arrivals / departures)
+ *   burstSize=10             planes per burst when pattern=bursty
+ *   traffic=                 open-loop arrival process instead of pattern (WorkloadGenerator), planes per second:
+ *                            poisson:<rate> | onoff:<onRate>:<onSec>:<offSec>[:<offRate>]
+ *                            | diurnal:<rate>:<peakRate>:<daySec>:<banks>; runs for duration, planes caps it (0 = no cap)
+ *   holds=uniform  holdScale=1   hold times with traffic=: uniform | exponential | lognormal:<sigma>, times holdScale
+ *   threads=platform         platform | virtual
+ *   seed=42                  arrival/departure mix
+ *   timeout=120              seconds to wait for planes after injection before interrupting them
+ *   runwayTimeoutMs=0        give up on a runway after this long (0 = wait forever): arrivals hold, departures go back to a gate
+ *   gateTimeoutMs=0          same for a departure back in the gate queue (0 = wait forever)
+ *   holdBaseMs=250  holdMaxMs=2000   holding pattern length, doubling per retry up to the max
+ *   maxHolds=3               holding patterns before an arrival diverts
+ *   gateReservation=false    arrivals get landing clearance only together with a gate (Monitor / Semaphore)
+ *   runwayPolicy=strict      who gets a runway while both classes wait (Monitor / Semaphore / Adaptive):
+ *                            strict | aging:<ms> | weighted:<arrivals>:<departures>
+ *   closures=                runway/gate outages (Monitor / Semaphore / Adaptive), comma-separated
+ *                            <runway|gate>:<n>@<closeSec>[-<reopenSec>], n from 1, e.g. runway:1@10-25,gate:2@5
+ *   workload=                replay the planes of a workload file (FlightPlan CSV) instead of generating them:
+ *                            planes, duration, pattern, burstSize, traffic, holds, arrivalRatio and the priority ratios are ignored
+ *   speed=1                  workload replay clock: 1 real time, 10 ten times faster, max all at once with no holds
+ *   workloadOut=             write the planes of this run (generated or replayed) as a workload file
+ *   out=result.json          machine-readable result file
+ *   csv=                     optional telemetry CSV (one row per second, same schema as the GUI)
+ *   record=  recordMs=10     optional binary telemetry recording (TelemetryRecorder), one row every recordMs;
+ *                            convert with java Shared.src.TelemetryRecorder <record> <out.csv>
+ *   trace=                   optional per-event trace of requests, grants, releases, timeouts and wake-ups
+ *                            (Monitor / Semaphore / Adaptive); convert with java Shared.src.EventTrace <trace> <out.csv>
+ *   verbose=false            per-plane console logging
+ */
+public class Scenario {
+    public String version = "Semaphore";
+    public int runways = 2;
+    public int gates = 3;
+    public String allocation = "lowest";
+    public int planes = 80;
+    public double arrivalRatio = 0.5;
+    public double emergencyRatio = 0;
+    public double lowFuelRatio = 0;
+    public double durationSec = 60;
+    public String pattern = "steady";
+    public int burstSize = 10;
+    public String traffic = "";
+    public String holds = "uniform";
+    public double holdScale = 1;
+    public String threads = "platform";
+    public long seed = 42L;
+    public double timeoutSec = 120;
+    public long runwayTimeoutMs = 0;
+    public long gateTimeoutMs = 0;
+    public long holdBaseMs = 250;
+    public long holdMaxMs = 2000;
+    public int maxHolds = 3;
+    public boolean gateReservation = false;
+    public String runwayPolicy = "strict";
+    public String closures = "";
+    public String workload = "";
+    public String speed = "1";
+    public String workloadOut = "";
+    public String out = "result.json";
+    public String csv = "";
+    public String record = "";
+    public long recordMs = 10;
+    public String trace = "";
+    public boolean verbose = false;
+
+    public ResourceSlots.Policy allocationPolicy() {
+        return allocation.equals("round-robin") ? ResourceSlots.Policy.ROUND_ROBIN : ResourceSlots.Policy.LOWEST_FREE;
+    }
+
+    public HoldingPolicy holdingPolicy() {
+        return runwayTimeoutMs > 0 ? new HoldingPolicy(runwayTimeoutMs, gateTimeoutMs, holdBaseMs, holdMaxMs, maxHolds) : HoldingPolicy.BLOCKING;
+    }
+
+    // Priority of an arrival from a uniform draw in [0,1).
+    public Airplane.Priority priority(double draw) {
+        if (draw < emergencyRatio) return Airplane.Priority.EMERGENCY;
+        if (draw < emergencyRatio + lowFuelRatio) return Airplane.Priority.LOW_FUEL;
+        return Airplane.Priority.NORMAL;
+    }
+
+    // One scheduled outage: seconds from the start of injection; reopenSec < 0 stays closed.
+    public static final class Closure {
+        public final Lease.Kind kind;
+        public final int index;        // 0-based
+        public final double closeSec;
+        public final double reopenSec;
+
+        Closure(Lease.Kind kind, int index, double closeSec, double reopenSec) {
+            this.kind = kind; this.index = index; this.closeSec = closeSec; this.reopenSec = reopenSec;
+        }
+    }
+
+    public List<Closure> closures() {
+        List<Closure> list = new ArrayList<>();
+        if (closures.isBlank()) return list;
+        for (String spec : closures.split(",")) {
+            String[] kindRest = spec.trim().split(":", 2);
+            String[] indexTimes = kindRest.length == 2 ? kindRest[1].split("@", 2) : new String[0];
+            if (indexTimes.length != 2) throw new IllegalArgumentException("closure must be <runway|gate>:<n>@<closeSec>[-<reopenSec>], got: " + spec);
+            Lease.Kind kind = switch (kindRest[0]) {
+                case "runway" -> Lease.Kind.RUNWAY;
+                case "gate" -> Lease.Kind.GATE;
+                default -> throw new IllegalArgumentException("closure kind must be runway or gate, got: " + kindRest[0]);
+            };
+            int n = Integer.parseInt(indexTimes[0]);
+            if (n < 1 || n > (kind == Lease.Kind.RUNWAY ? runways : gates)) throw new IllegalArgumentException("no " + kindRest[0] + " " + n);
+            String[] times = indexTimes[1].split("-", 2);
+            double at = Double.parseDouble(times[0]);
+            double reopen = times.length == 2 ? Double.parseDouble(times[1]) : -1;
+            if (at < 0 || (times.length == 2 && reopen <= at)) throw new IllegalArgumentException("closure times must be >= 0, reopen after close: " + spec);
+            list.add(new Closure(kind, n - 1, at, reopen));
+        }
+        return list;
+    }
+
+    // Replay clock factor; max is infinite (no injection gaps, no holds).
+    public double speedFactor() {
+        double f = speed.equals("max") ? Double.POSITIVE_INFINITY : Double.parseDouble(speed);
+        if (!(f > 0)) throw new IllegalArgumentException("speed must be > 0 or max");
+        return f;
+    }
+
+    // The open-loop plane stream of traffic=, from the start (a new generator per call).
+    public Iterator<FlightPlan> trafficGenerator() {
+        return new WorkloadGenerator(WorkloadGenerator.Profile.parse(traffic), WorkloadGenerator.Holds.parse(holds, holdScale),
+                arrivalRatio, emergencyRatio, lowFuelRatio, seed, durationSec, planes);
+    }
+
+    // A new instance per run: policies may keep state.
+    public RunwayPolicy runwayPolicy() {
+        return RunwayPolicy.parse(runwayPolicy);
+    }
+
+    public static Scenario parse(String[] args) throws IOException {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) throw new IllegalArgumentException("expected --key=value, got: " + arg);
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        Scenario s = new Scenario();
+        String file = values.remove("scenario");
+        if (file != null) {
+            Properties p = new Properties();
+            try (Reader r = new FileReader(file)) {
+                p.load(r);
+            }
+            for (String k : p.stringPropertyNames()) s.set(k, p.getProperty(k).trim());
+        }
+        for (Map.Entry<String, String> e : values.entrySet()) s.set(e.getKey(), e.getValue());
+        s.validate();
+        return s;
+    }
+
+    private void set(String key, String value) {
+        switch (key) {
+            case "version" -> version = value;
+            case "runways" -> runways = Integer.parseInt(value);
+            case "gates" -> gates = Integer.parseInt(value);
+            case "allocation" -> allocation = value;
+            case "planes" -> planes = Integer.parseInt(value);
+            case "arrivalRatio" -> arrivalRatio = Double.parseDouble(value);
+            case "emergencyRatio" -> emergencyRatio = Double.parseDouble(value);
+            case "lowFuelRatio" -> lowFuelRatio = Double.parseDouble(value);
+            case "duration" -> durationSec = Double.parseDouble(value);
+            case "pattern" -> pattern = value;
+            case "burstSize" -> burstSize = Integer.parseInt(value);
+            case "traffic" -> traffic = value;
+            case "holds" -> holds = value;
+            case "holdScale" -> holdScale = Double.parseDouble(value);
+            case "threads" -> threads = value;
+            case "seed" -> seed = Long.parseLong(value);
+            case "timeout" -> timeoutSec = Double.parseDouble(value);
+            case "runwayTimeoutMs" -> runwayTimeoutMs = Long.parseLong(value);
+            case "gateTimeoutMs" -> gateTimeoutMs = Long.parseLong(value);
+            case "holdBaseMs" -> holdBaseMs = Long.parseLong(value);
+            case "holdMaxMs" -> holdMaxMs = Long.parseLong(value);
+            case "maxHolds" -> maxHolds = Integer.parseInt(value);
+            case "gateReservation" -> gateReservation = Boolean.parseBoolean(value);
+            case "runwayPolicy" -> runwayPolicy = value;
+            case "closures" -> closures = value;
+            case "workload" -> workload = value;
+            case "speed" -> speed = value;
+            case "workloadOut" -> workloadOut = value;
+            case "out" -> out = value;
+            case "csv" -> csv = value;
+            case "record" -> record = value;
+            case "recordMs" -> recordMs = Long.parseLong(value);
+            case "trace" -> trace = value;
+            case "verbose" -> verbose = Boolean.parseBoolean(value);
+            default -> throw new IllegalArgumentException("unknown scenario key: " + key);
+        }
+    }
+
+    private void validate() {
+        if (runways < 1 || gates < 1) throw new IllegalArgumentException("runways and gates must be >= 1");
+        if (!allocation.equals("lowest") && !allocation.equals("round-robin")) throw new IllegalArgumentException("allocation must be lowest or round-robin");
+        if (planes < 0) throw new IllegalArgumentException("planes must be >= 0");
+        if (arrivalRatio < 0 || arrivalRatio > 1) throw new IllegalArgumentException("arrivalRatio must be in [0,1]");
+        if (emergencyRatio < 0 || lowFuelRatio < 0 || emergencyRatio + lowFuelRatio > 1) {
+            throw new IllegalArgumentException("emergencyRatio and lowFuelRatio must be >= 0, together <= 1");
+        }
+        if (durationSec < 0 || timeoutSec < 0) throw new IllegalArgumentException("duration and timeout must be >= 0");
+        if (!pattern.equals("steady") && !pattern.equals("bursty")) throw new IllegalArgumentException("pattern must be steady or bursty");
+        if (runwayTimeoutMs < 0 || gateTimeoutMs < 0 || holdBaseMs < 0 || holdMaxMs < holdBaseMs || maxHolds < 0) {
+            throw new IllegalArgumentException("timeouts and holds must be >= 0, holdMaxMs >= holdBaseMs");
+        }
+        runwayPolicy();   // throws on a malformed spec
+        closures();
+        speedFactor();
+        if (!traffic.isEmpty()) trafficGenerator();
+        else WorkloadGenerator.Holds.parse(holds, holdScale);
+        if (recordMs < 1) throw new IllegalArgumentException("recordMs must be >= 1");
+        if (burstSize < 1) throw new IllegalArgumentException("burstSize must be >= 1");
+        if (!threads.equals("platform") && !threads.equals("virtual")) throw new IllegalArgumentException("threads must be platform or virtual");
+    }
+}
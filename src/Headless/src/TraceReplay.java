@@ -0,0 +1,159 @@
+package Headless.src;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import AdaptiveVersion.src.AirportAdaptive;
+import Shared.src.Airplane;
+import Shared.src.Airport;
+import Shared.src.FlightPlan;
+
+/*
+ * A/B comparison of controllers on identical traffic: replays one workload file (FlightPlan CSV: arrival
+ * times, plane types, priorities, hold times) against each version in turn, through HeadlessRunner with
+ * the same scenario, and compares the waits of every plane across versions. Differences in the numbers
+ * are then the controller's, not the random traffic's.
+ *
+ *   java Headless.src.TraceReplay --workload=run.csv --versions=Monitor,Semaphore [--speed=1|10|max]
+ *        [--diff=replay_diff.csv] [any scenario key: runways, gates, threads, holding, closures, ...]
+ *
+ * Without workload=, the scenario's generated traffic is written to workloadOut (default replay_workload.csv)
+ * and replayed from there. Record a workload from any headless run with --workloadOut=run.csv.
+ * The diff CSV has one row per plane: its waits (ms) under each version, then each version minus the first.
+ */
+public class TraceReplay {
+
+    private static final String[] METRICS = {"landingWait", "gateWait", "takeoffWait", "turnaround"};
+    private static final List<ToLongFunction<Airplane>> WAITS = List.of(
+            Airplane::getLandingWaitNanos, Airplane::getGateWaitNanos, Airplane::getTakeoffWaitNanos, Airplane::getTurnaroundNanos);
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        List<String> scenarioArgs = new ArrayList<>();
+        String[] versions = {"Monitor", "Semaphore"};
+        String diff = "replay_diff.csv";
+        for (String arg : args) {
+            if (arg.startsWith("--versions=")) versions = arg.substring("--versions=".length()).split(",");
+            else if (arg.startsWith("--diff=")) diff = arg.substring("--diff=".length());
+            else scenarioArgs.add(arg);
+        }
+        String[] scArgs = scenarioArgs.toArray(new String[0]);
+        Scenario base;
+        try {
+            base = Scenario.parse(scArgs);
+            for (String v : versions) {   // validate the names and features up front
+                Airport probe = HeadlessRunner.createAirport(v, 1, 1);
+                try {
+                    HeadlessRunner.checkFeatures(base, probe);
+                } finally {
+                    if (probe instanceof AirportAdaptive ad) ad.close();
+                }
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        if (base.workload.isEmpty()) {
+            String file = base.workloadOut.isEmpty() ? "replay_workload.csv" : base.workloadOut;
+            FlightPlan.write(Path.of(file), HeadlessRunner.generate(base));
+            scenarioArgs.add("--workload=" + file);
+            scArgs = scenarioArgs.toArray(new String[0]);
+            System.out.println("Workload written to " + file);
+        }
+
+        Map<String, List<Airplane>> runs = new LinkedHashMap<>();
+        for (String v : versions) {
+            Scenario sc = Scenario.parse(scArgs);
+            sc.version = v;
+            sc.workloadOut = "";
+            List<Airplane> planes = new ArrayList<>();
+            Map<String, Object> result = HeadlessRunner.run(sc, planes);
+            System.out.printf(Locale.US, "%-14s completed %d/%d in %.2f s%n", v, (Long) result.get("planesCompleted"),
+                    (Integer) result.get("planesStarted"), (Double) result.get("elapsedSec"));
+            runs.put(v, planes);
+        }
+
+        writeDiff(Path.of(diff), versions, runs);
+        System.out.println(summary(versions, runs));
+        System.out.println("Per-plane diff written to " + diff);
+    }
+
+    static void writeDiff(Path file, String[] versions, Map<String, List<Airplane>> runs) throws IOException {
+        List<Airplane> first = runs.get(versions[0]);
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            StringBuilder h = new StringBuilder("id,type,priority");
+            for (String v : versions) for (String m : METRICS) h.append(',').append(v).append('.').append(m).append("Ms");
+            for (int i = 1; i < versions.length; i++)
+                for (String m : METRICS) h.append(',').append(versions[i]).append('-').append(versions[0]).append('.').append(m).append("Ms");
+            out.write(h.append('\n').toString());
+            for (int p = 0; p < first.size(); p++) {
+                FlightPlan plan = first.get(p).getPlan();
+                StringBuilder row = new StringBuilder(plan.id).append(',').append(plan.arrivalFirst ? "ARRIVAL" : "DEPARTURE")
+                        .append(',').append(plan.priority);
+                for (String v : versions)
+                    for (ToLongFunction<Airplane> w : WAITS) row.append(',').append(ms(w.applyAsLong(runs.get(v).get(p))));
+                for (int i = 1; i < versions.length; i++) {
+                    for (ToLongFunction<Airplane> w : WAITS) {
+                        long a = w.applyAsLong(first.get(p)), b = w.applyAsLong(runs.get(versions[i]).get(p));
+                        row.append(',').append(a < 0 || b < 0 ? "" : String.format(Locale.US, "%.3f", (b - a) / 1e6));
+                    }
+                }
+                out.write(row.append('\n').toString());
+            }
+        }
+    }
+
+    // Per metric: each version's own percentiles, then the paired differences against the first version.
+    static String summary(String[] versions, Map<String, List<Airplane>> runs) {
+        StringBuilder sb = new StringBuilder();
+        List<Airplane> first = runs.get(versions[0]);
+        for (int m = 0; m < METRICS.length; m++) {
+            ToLongFunction<Airplane> w = WAITS.get(m);
+            sb.append(METRICS[m]).append(" (ms)\n");
+            for (String v : versions) {
+                long[] own = runs.get(v).stream().mapToLong(w).filter(n -> n >= 0).sorted().toArray();
+                sb.append(String.format(Locale.US, "  %-28s n=%d p50=%.1f p90=%.1f p99=%.1f max=%.1f%n", v, own.length,
+                        pct(own, 0.50), pct(own, 0.90), pct(own, 0.99), own.length == 0 ? 0.0 : own[own.length - 1] / 1e6));
+            }
+            for (int i = 1; i < versions.length; i++) {
+                List<Airplane> other = runs.get(versions[i]);
+                long[] d = new long[first.size()];
+                int n = 0, slower = 0, faster = 0;
+                for (int p = 0; p < first.size(); p++) {
+                    long a = w.applyAsLong(first.get(p)), b = w.applyAsLong(other.get(p));
+                    if (a < 0 || b < 0) continue;
+                    d[n++] = b - a;
+                    if (b > a) slower++; else if (b < a) faster++;
+                }
+                long[] sorted = Arrays.copyOf(d, n);
+                Arrays.sort(sorted);
+                double mean = Arrays.stream(sorted).average().orElse(0) / 1e6;
+                sb.append(String.format(Locale.US, "  %-28s n=%d mean=%+.1f p10=%+.1f p50=%+.1f p90=%+.1f  slower %d, faster %d%n",
+                        versions[i] + " - " + versions[0], n, mean, pct(sorted, 0.10), pct(sorted, 0.50), pct(sorted, 0.90), slower, faster));
+            }
+        }
+        return sb.toString();
+    }
+
+    // -1: step not reached (departure-only planes never land or park)
+    private static String ms(long nanos) {
+        return nanos < 0 ? "" : String.format(Locale.US, "%.3f", nanos / 1e6);
+    }
+
+    private static double pct(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, idx)] / 1e6;
+    }
+}
@@ -0,0 +1,401 @@
+package LockFreeVersion.src;
+
+import Shared.src.Airplane;
+import Shared.src.Airport;
+import Shared.src.AirportTelemetry;
+import Shared.src.Lease;
+import Shared.src.ResourceSlots;
+import Shared.src.SupportsTelemetry;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Lock-free controller: all admission decisions are a single CAS on a packed state word.
+ *
+ * Runway word:  [ waitingDepartures:24 | waitingArrivals:24 | freeRunways:16 ]
+ * Gate word:    [ waitingGates:32 | freeGates:32 ]
+ *
+ * A thread that finds no free resource bumps the waiting count in the same CAS, then enqueues a
+ * node and parks. A release that sees a waiting count > 0 never makes the resource "free":
+ * it claims one waiter in the CAS and hands the resource straight to the head node.
+ * Hence free > 0 implies nobody is waiting, and the uncontended path is one CAS with no allocation.
+ *
+ * Two windows break that briefly, and whoever opens one checks whether to close it (help()):
+ *  - a releaser that claimed a waiter whose node is not enqueued yet spins a bounded time, then gives the
+ *    count and the permit back to the word; the waiter helps itself to it once its node is in the queue.
+ *  - a waiter that times out or is interrupted takes its count back by CAS right away, so departures are
+ *    not held back by an arrival that left; if a releaser already claimed it, the canceller leaves a debt
+ *    that the releaser settles by releasing again.
+ */
+public class AirportLockFree implements Airport, SupportsTelemetry {
+
+    private static final int  FREE_BITS = 16;
+    private static final int  WAIT_BITS = 24;
+    private static final long FREE_MASK = (1L << FREE_BITS) - 1;
+    private static final long WAIT_MASK = (1L << WAIT_BITS) - 1;
+    private static final int  ARR_SHIFT = FREE_BITS;
+    private static final int  DEP_SHIFT = FREE_BITS + WAIT_BITS;
+    private static final long ONE_ARR = 1L << ARR_SHIFT;
+    private static final long ONE_DEP = 1L << DEP_SHIFT;
+
+    private static final long GATE_MASK = 0xFFFF_FFFFL;
+    private static final long ONE_GATE_WAITER = 1L << 32;
+
+    private final AtomicLong runwayState;
+    private final AtomicLong gateState;
+
+    // Spins for a claimed waiter to enqueue before giving its permit back (-Dlockfree.handoffSpins, tests shrink it)
+    private static final int HANDOFF_SPINS = Integer.getInteger("lockfree.handoffSpins", 128);
+
+    //FIFO waiter lines, one per waiting count in the state words.
+    private final Line arrivals;
+    private final Line departures;
+    private final Line gates;
+
+    private final int totalRunways;
+    private final int totalGates;
+    // Which runway/gate each admitted plane holds; freed before the state word is released
+    private final ResourceSlots runwaySlots;
+    private final ResourceSlots gateSlots;
+    private AirportTelemetry telemetry;
+
+    public AirportLockFree(int runways, int gates) {
+        this(runways, gates, ResourceSlots.Policy.LOWEST_FREE);
+    }
+
+    // policy: which free runway/gate an admitted plane gets
+    public AirportLockFree(int runways, int gates, ResourceSlots.Policy policy) {
+        if (runways < 0 || runways > FREE_MASK) throw new IllegalArgumentException("runways out of range: " + runways);
+        if (gates < 0) throw new IllegalArgumentException("gates out of range: " + gates);
+        this.totalRunways = runways;
+        this.totalGates = gates;
+        this.runwayState = new AtomicLong(runways);
+        this.gateState = new AtomicLong(gates);
+        this.runwaySlots = new ResourceSlots(runways, policy);
+        this.gateSlots = new ResourceSlots(gates, policy);
+        this.arrivals = new Line(runwayState, FREE_MASK, ARR_SHIFT, WAIT_MASK, false, true);
+        this.departures = new Line(runwayState, FREE_MASK, DEP_SHIFT, WAIT_MASK, true, true);
+        this.gates = new Line(gateState, GATE_MASK, 32, GATE_MASK, false, false);
+    }
+
+    @Override
+    public void setTelemetry(AirportTelemetry telemetry) { this.telemetry = telemetry; }
+
+    // Waiter node: parked thread plus its handoff state.
+    private static final class Waiter {
+        static final int WAITING = 0, GRANTED = 1, CANCELLED = 2;
+        final Thread thread = Thread.currentThread();
+        final AtomicInteger state = new AtomicInteger(WAITING);
+    }
+
+    // Waiter queue of one waiting count: where it sits in which word, and who may take a free permit from it.
+    private static final class Line {
+        final ConcurrentLinkedQueue<Waiter> queue = new ConcurrentLinkedQueue<>();
+        final AtomicLong word;
+        final long freeMask;
+        final int shift;
+        final long waitMask;
+        final long one;                  // one waiter in the word
+        final boolean departures;        // may take a free runway only while no arrival waits
+        final boolean runway;
+        final AtomicInteger debt = new AtomicInteger();   // cancelled waiters whose count a releaser had claimed
+
+        Line(AtomicLong word, long freeMask, int shift, long waitMask, boolean departures, boolean runway) {
+            this.word = word; this.freeMask = freeMask; this.shift = shift; this.waitMask = waitMask;
+            this.one = 1L << shift; this.departures = departures; this.runway = runway;
+        }
+
+        long free(long s)    { return s & freeMask; }
+        long waiting(long s) { return (s >>> shift) & waitMask; }
+        boolean mayTakeFree(long s) { return !departures || waitingArrivals(s) == 0; }
+
+        boolean takeDebt() {
+            for (;;) {
+                int d = debt.get();
+                if (d == 0) return false;
+                if (debt.compareAndSet(d, d - 1)) return true;
+            }
+        }
+    }
+
+    private static int freeRunways(long s)       { return (int) (s & FREE_MASK); }
+    private static int waitingArrivals(long s)   { return (int) ((s >>> ARR_SHIFT) & WAIT_MASK); }
+    private static int waitingDepartures(long s) { return (int) ((s >>> DEP_SHIFT) & WAIT_MASK); }
+
+    //Take a free runway, or register as a waiting arrival (arrivals may always take a free runway).
+    @Override
+    public Lease acquireRunwayForArrival(Airplane a) throws InterruptedException {
+        return awaitArrivalRunway(false, 0L);
+    }
+
+    //Same, but give up after the timeout (null).
+    @Override
+    public Lease tryAcquireRunwayForArrival(Airplane a, long timeout, TimeUnit unit) throws InterruptedException {
+        return awaitArrivalRunway(true, unit.toNanos(timeout));
+    }
+
+    private Lease awaitArrivalRunway(boolean timed, long nanos) throws InterruptedException {
+        final long waitStart = System.nanoTime();
+        for (;;) {
+            long s = runwayState.get();
+            if (freeRunways(s) > 0) {
+                if (runwayState.compareAndSet(s, s - 1)) break;
+            } else if (runwayState.compareAndSet(s, s + ONE_ARR)) {
+                if (!awaitHandoff(arrivals, timed, nanos)) return null;
+                break;
+            }
+        }
+        return onRunwayAcquired(waitStart, true);
+    }
+
+    //Take a free runway only when no arrival is waiting, otherwise register as a waiting departure.
+    @Override
+    public Lease acquireRunwayForDeparture(Airplane a) throws InterruptedException {
+        return awaitDepartureRunway(false, 0L);
+    }
+
+    @Override
+    public Lease tryAcquireRunwayForDeparture(Airplane a, long timeout, TimeUnit unit) throws InterruptedException {
+        return awaitDepartureRunway(true, unit.toNanos(timeout));
+    }
+
+    private Lease awaitDepartureRunway(boolean timed, long nanos) throws InterruptedException {
+        final long waitStart = System.nanoTime();
+        for (;;) {
+            long s = runwayState.get();
+            if (freeRunways(s) > 0 && waitingArrivals(s) == 0) {
+                if (runwayState.compareAndSet(s, s - 1)) break;
+            } else if (runwayState.compareAndSet(s, s + ONE_DEP)) {
+                if (!awaitHandoff(departures, timed, nanos)) return null;
+                break;
+            }
+        }
+        return onRunwayAcquired(waitStart, false);
+    }
+
+    //Take a free gate or wait on the taxiway until a gate is handed over.
+    @Override
+    public Lease acquireGate(Airplane a) throws InterruptedException {
+        return awaitGate(false, 0L);
+    }
+
+    @Override
+    public Lease tryAcquireGate(Airplane a, long timeout, TimeUnit unit) throws InterruptedException {
+        return awaitGate(true, unit.toNanos(timeout));
+    }
+
+    private Lease awaitGate(boolean timed, long nanos) throws InterruptedException {
+        final String planeId = Thread.currentThread().getName();
+        final long waitStart = System.nanoTime();
+        for (;;) {
+            long s = gateState.get();
+            if ((s & GATE_MASK) > 0) {
+                if (gateState.compareAndSet(s, s - 1)) break;
+            } else if (gateState.compareAndSet(s, s + ONE_GATE_WAITER)) {
+                if (telemetry != null) telemetry.addTaxi(planeId);
+                boolean granted;
+                try {
+                    granted = awaitHandoff(gates, timed, nanos);
+                } finally {
+                    if (telemetry != null) telemetry.removeTaxi(planeId);
+                }
+                if (!granted) return null;
+                break;
+            }
+        }
+        Lease lease = new Lease(this, Lease.Kind.GATE, gateSlots.claim(), System.nanoTime());
+        if (telemetry != null) {
+            telemetry.gateTaken(lease.index());
+            telemetry.recordGateWaitNanos(lease.acquiredAtNanos() - waitStart);
+        }
+        return lease;
+    }
+
+    @Override
+    public void release(Lease lease) {
+        if (lease.kind() == Lease.Kind.RUNWAY) releaseRunway(lease);
+        else releaseGate(lease);
+    }
+
+    //Hand the runway to the first waiting arrival, else the first waiting departure, else make it free.
+    private void releaseRunway(Lease lease) {
+        lease.checkOwner(this, Lease.Kind.RUNWAY);
+        if (telemetry != null) {
+            telemetry.runwayFreed(lease.index(), lease.heldNanos());
+        }
+        runwaySlots.free(lease.index());
+        returnRunway();
+    }
+
+    private void returnRunway() {
+        for (;;) {
+            long s = runwayState.get();
+            if (waitingArrivals(s) > 0) {
+                if (runwayState.compareAndSet(s, s - ONE_ARR) && handOff(arrivals) != RETRY) return;
+            } else if (waitingDepartures(s) > 0) {
+                if (runwayState.compareAndSet(s, s - ONE_DEP) && handOff(departures) != RETRY) return;
+            } else if (runwayState.compareAndSet(s, s + 1)) {
+                return;
+            }
+        }
+    }
+
+    private void releaseGate(Lease lease) {
+        lease.checkOwner(this, Lease.Kind.GATE);
+        if (telemetry != null) telemetry.gateFreed(lease.index(), lease.heldNanos());
+        gateSlots.free(lease.index());
+        returnGate();
+    }
+
+    private void returnGate() {
+        for (;;) {
+            long s = gateState.get();
+            if ((s >>> 32) > 0) {
+                if (gateState.compareAndSet(s, s - ONE_GATE_WAITER) && handOff(gates) != RETRY) return;
+            } else if (gateState.compareAndSet(s, s + 1)) {
+                return;
+            }
+        }
+    }
+
+    private static final int HANDED = 0, RETRY = 1, RETURNED = 2;
+
+    /*
+     * Called after a waiting count was claimed by CAS. The matching node may not be enqueued yet
+     * (the waiter enqueues right after its own CAS), so spin briefly for it, then give the count and the
+     * permit back to the word (RETURNED) rather than burn CPU for a descheduled waiter.
+     * RETRY: the node was cancelled (or the count was a cancelled waiter's debt); the caller still owns
+     * the resource and must release it again.
+     */
+    private int handOff(Line line) {
+        for (int spins = 0; ; ) {
+            Waiter w = line.queue.poll();
+            if (w == null) {
+                if (++spins < HANDOFF_SPINS) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                if (line.takeDebt()) return RETRY;
+                line.word.addAndGet(line.one + 1);
+                /*
+                 * A waiter that enqueued meanwhile, or a canceller that left a debt, may have looked before we
+                 * gave back - on either runway line: an arrival parked while we held the permit blocks
+                 * help(departures) through mayTakeFree, so the arrival line must be helped as well.
+                 */
+                if (line.runway) {
+                    helpQueued(arrivals);
+                    helpQueued(departures);
+                } else {
+                    helpQueued(gates);
+                }
+                return RETURNED;
+            }
+            if (!w.state.compareAndSet(Waiter.WAITING, Waiter.GRANTED)) return RETRY;
+            if (telemetry != null) telemetry.incSignal();
+            LockSupport.unpark(w.thread);
+            return HANDED;
+        }
+    }
+
+    //While a permit is free and the line's waiters may take it, hand it to them (closes the windows above).
+    private void help(Line line) {
+        for (;;) {
+            long s = line.word.get();
+            if (line.free(s) == 0 || line.waiting(s) == 0 || !line.mayTakeFree(s)) return;
+            if (!line.word.compareAndSet(s, s - 1 - line.one)) continue;
+            int r = handOff(line);
+            if (r == RETURNED) return;
+            if (r == RETRY) {
+                if (line.runway) returnRunway();
+                else returnGate();
+            }
+        }
+    }
+
+    //help() for a line that may have a parked waiter; the empty check keeps a give-back from re-claiming forever
+    private void helpQueued(Line line) {
+        if (!line.queue.isEmpty() || line.debt.get() > 0) help(line);
+    }
+
+    private void helpAll(Line line) {
+        if (line.runway) {
+            help(arrivals);
+            help(departures);
+        } else {
+            help(gates);
+        }
+    }
+
+    //A cancelled waiter nobody claimed: take its count back now, or owe it to the releaser that claimed it.
+    private void settle(Line line) {
+        for (;;) {
+            long s = line.word.get();
+            if (line.waiting(s) > 0) {
+                if (line.word.compareAndSet(s, s - line.one)) break;
+            } else {
+                line.debt.incrementAndGet();
+                break;
+            }
+        }
+        helpAll(line);
+    }
+
+    /*
+     * Enqueue and park until a releaser grants the resource (true), or until the timeout when timed (false).
+     * On interrupt or timeout the node is cancelled: taken out of the queue with its waiting count (settle),
+     * or, if a releaser polled it first, left to that releaser, which releases again. If the grant raced
+     * ahead, keep the resource (and re-assert the interrupt flag).
+     */
+    private boolean awaitHandoff(Line line, boolean timed, long nanos) throws InterruptedException {
+        Waiter w = new Waiter();
+        line.queue.offer(w);
+        helpAll(line);   //a releaser may have given our permit back before we were in the queue
+        final long deadline = System.nanoTime() + nanos;
+        while (w.state.get() == Waiter.WAITING) {
+            if (timed) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) return !cancel(line, w);
+                LockSupport.parkNanos(this, left);
+            } else {
+                LockSupport.park(this);
+            }
+            if (Thread.interrupted()) {
+                if (cancel(line, w)) throw new InterruptedException();
+                Thread.currentThread().interrupt();
+                return true;
+            }
+            if (w.state.get() == Waiter.WAITING && telemetry != null && (!timed || deadline - System.nanoTime() > 0)) telemetry.incFutileWakeup();
+        }
+        return true;
+    }
+
+    //False if the grant came first (the caller keeps the resource).
+    private boolean cancel(Line line, Waiter w) {
+        if (!w.state.compareAndSet(Waiter.WAITING, Waiter.CANCELLED)) return false;
+        if (line.queue.remove(w)) settle(line);
+        return true;
+    }
+
+    private Lease onRunwayAcquired(long waitStart, boolean arrival) {
+        Lease lease = new Lease(this, Lease.Kind.RUNWAY, runwaySlots.claim(), System.nanoTime());
+        if (telemetry != null) {
+            telemetry.runwayTaken(lease.index());
+            telemetry.recordRunwayWaitNanos(lease.acquiredAtNanos() - waitStart, arrival);
+        }
+        return lease;
+    }
+
+    //Returns a readable snapshot.
+    @Override
+    public String getStatus() {
+        long r = runwayState.get();
+        long g = gateState.get();
+        return String.format("[LockFree] runways=%d/%d, gates=%d/%d, waitingArrivals=%d, waitingDepartures=%d, waitingGates=%d",
+                freeRunways(r), totalRunways, (int) (g & GATE_MASK), totalGates,
+                waitingArrivals(r), waitingDepartures(r), (int) (g >>> 32));
+    }
+}
@@ -4,28 +4,81 @@ package MonitorVersion.src;
 import Shared.src.Airplane;
 import Shared.src.Airport;
 import Shared.src.AirportTelemetry;
+import Shared.src.AsyncAirport;
+import Shared.src.AsyncWaitQueue;
+import Shared.src.EventTrace;
+import Shared.src.GateReservingAirport;
+import Shared.src.LandingClearance;
+import Shared.src.Lease;
+import Shared.src.PlaneLauncher;
+import Shared.src.PriorityWaitQueue;
+import Shared.src.ResourceSlots;
+import Shared.src.RunwayPolicy;
+import Shared.src.SupportsClosures;
+import Shared.src.SupportsRunwayPolicy;
 import Shared.src.SupportsTelemetry;
+import Shared.src.SupportsTracing;
+import Shared.src.WaitingSince;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-public class AirportMonitor implements Airport, SupportsTelemetry {
+public class AirportMonitor implements GateReservingAirport, AsyncAirport, SupportsTelemetry, SupportsRunwayPolicy, SupportsClosures, SupportsTracing {
 
     private final Object lock = new Object();
     private int availableRunways;
     private int availableGates;
-    // Logical queues (counts) used for priority decisions and visibility in status.
-    private int waitingArrivals = 0;
-    private int waitingDepartures = 0;
+    // Arrivals that found no runway, blocking and async, most urgent first (Airplane.Priority). A release
+    // hands the runway to the head directly: no notifyAll race, the winner is picked under the lock.
+    private final PriorityWaitQueue<ArrivalWaiter> arrivalQueue = new PriorityWaitQueue<>();
+    // Arrivals waiting for a runway and a gate together, same order; they only hold departures back (and
+    // only compete with the arrivalQueue head) while a gate is free.
+    private final PriorityWaitQueue<ArrivalWaiter> reservationQueue = new PriorityWaitQueue<>();
+    // Departures, blocking and async, as FIFO tickets guarded by lock: a release hands the runway to the head
+    // when departures may go. A blocking plane waits on its ticket's future.
+    private final AsyncWaitQueue departureTickets = new AsyncWaitQueue();
+    // Taxiing planes, blocking and async, as FIFO tickets guarded by lock: a released gate goes straight to
+    // the head, so service order is the taxiway order telemetry shows. A blocking plane waits on its ticket's future.
+    private final AsyncWaitQueue gateTickets = new AsyncWaitQueue();
+    // Who gets a free runway while both classes wait (guarded by lock), fed with the oldest wait of each
+    // class. Only planes that actually wait are registered, blocking or async.
+    private RunwayPolicy runwayPolicy = RunwayPolicy.strictPriority();
+    private final WaitingSince arrivalsSince = new WaitingSince();
+    private final WaitingSince departuresSince = new WaitingSince();
+    // Which runway/gate each admitted plane holds (claimed outside the monitor)
+    private final ResourceSlots runwaySlots;
+    private final ResourceSlots gateSlots;
+    // Closed runways/gates (guarded by lock). A closure takes one unit off the count when it starts; with none
+    // free it waits here and absorbs the next one released, ahead of the queued planes.
+    private final boolean[] runwayClosed;
+    private final boolean[] gateClosed;
+    private final ArrayDeque<Integer> pendingRunwayClosures = new ArrayDeque<>();
+    private final ArrayDeque<Integer> pendingGateClosures = new ArrayDeque<>();
 
+    // Recorded after leaving the monitor: the lock only guards the counters above,
+    // so metric updates never lengthen the critical section other planes queue behind.
     private AirportTelemetry telemetry;
-
-    // Track runway hold durations per thread
-    //Records when a thread acquired a runway to later compute occupied duration on release.
-    private final ConcurrentHashMap<Long, Long> runwayHoldStart = new ConcurrentHashMap<>();
+    // Per-event trace, same rule: recorded outside the monitor, never allocates.
+    private EventTrace trace;
 
     public AirportMonitor(int runways, int gates) {
+        this(runways, gates, ResourceSlots.Policy.LOWEST_FREE);
+    }
+
+    // policy: which free runway/gate an admitted plane gets
+    public AirportMonitor(int runways, int gates, ResourceSlots.Policy policy) {
         this.availableRunways = runways;
         this.availableGates = gates;
+        this.runwaySlots = new ResourceSlots(runways, policy);
+        this.gateSlots = new ResourceSlots(gates, policy);
+        this.runwayClosed = new boolean[runways];
+        this.gateClosed = new boolean[gates];
     }
 
     @Override
@@ -33,134 +86,601 @@ public class AirportMonitor implements Airport, SupportsTelemetry {
         this.telemetry = telemetry;
     }
 
+    @Override
+    public void setTrace(EventTrace trace) {
+        this.trace = trace;
+    }
+
+    @Override
+    public void setRunwayPolicy(RunwayPolicy policy) {
+        synchronized (lock) {
+            this.runwayPolicy = policy;
+        }
+    }
+
     //Block until a runway is free for landing.
     @Override
-    public void requestRunwayForArrival(Airplane a) throws InterruptedException {
-        final long waitStart = System.currentTimeMillis();
+    public Lease acquireRunwayForArrival(Airplane a) throws InterruptedException {
+        return awaitArrivalRunway(a, false, 0L);
+    }
+
+    //Same, but give up after the timeout (null): the plane leaves the arrival queue.
+    @Override
+    public Lease tryAcquireRunwayForArrival(Airplane a, long timeout, TimeUnit unit) throws InterruptedException {
+        Lease lease = awaitArrivalRunway(a, true, unit.toNanos(timeout));
+        if (lease == null && trace != null) trace.record(EventTrace.Event.ARRIVAL_TIMEOUT, Airplane.traceIdOf(a), -1);
+        return lease;
+    }
+
+    private Lease awaitArrivalRunway(Airplane a, boolean timed, long nanos) throws InterruptedException {
+        final long waitStart = System.nanoTime();
+        final int plane = Airplane.traceIdOf(a);
+        if (trace != null) trace.record(EventTrace.Event.ARRIVAL_REQUEST, plane, -1);
+        ArrivalWaiter w = null;
+        List<RunwayGrant> granted = null;
         synchronized (lock) {
-            waitingArrivals++;
-            boolean decremented = false;
-            try {
-            	//no available runways -> wait
-                while (availableRunways == 0) {
-                    lock.wait();
-                }
-                //else resource(Runway) is acquired,
+            if (!arrivalsFirst() && runwaysForArrivals() > 0) {
+                // resource(Runway) is acquired,
                 availableRunways--;
-                //Update telemetry: record hold start time, accumulate runway wait time.
-                if (telemetry != null) {
-                    telemetry.incRunwayOccupied();
-                    runwayHoldStart.put(Thread.currentThread().getId(), System.currentTimeMillis());
-                    telemetry.addRunwayWait(System.currentTimeMillis() - waitStart);
-                }
-            } catch (InterruptedException ie) {
-                waitingArrivals--;
-                decremented = true;
-                if (telemetry != null) telemetry.incNotifyAll();
-                lock.notifyAll();
-                throw ie;
-            } finally {
-                if (!decremented) {
-                    waitingArrivals--;
-                    //give departures a chance to proceed.
-                    if (waitingArrivals == 0) {
-                        if (telemetry != null) telemetry.incNotifyAll();
-                        lock.notifyAll();
-                    }
+                runwayPolicy.granted(true);
+            } else if (timed && nanos <= 0) {
+                return null;
+            } else {
+                //no available runway (or the last one is a departure's turn) -> queue up by priority
+                w = new ArrivalWaiter(Airplane.priorityOf(a), waitStart, null, plane, false);
+                granted = enqueueArrival(w);
+            }
+        }
+        grantRunways(granted);
+        if (w != null && !awaitHandOff(w, timed, waitStart + nanos)) return null;
+        //Pick the runway; telemetry: accumulate runway wait time.
+        return onRunwayAcquired(waitStart, true, plane);
+    }
+
+    // Queue an arrival (or a reservation); serve the queues at once in case a runway is free after all. Lock must be held.
+    private List<RunwayGrant> enqueueArrival(ArrivalWaiter w) {
+        if (w.reservation) {
+            reservationQueue.add(w);
+        } else {
+            arrivalQueue.add(w);
+            arrivalsSince.add(w.waitStartNanos);
+        }
+        return dispatchRunways();
+    }
+
+    // Park on the waiter's own node until a release hands it a runway. On timeout or interrupt the plane
+    // leaves the queue, unless the runway was handed over meanwhile: then it keeps it (interrupt re-asserted).
+    private boolean awaitHandOff(ArrivalWaiter w, boolean timed, long deadline) throws InterruptedException {
+        try {
+            synchronized (w) {
+                while (!w.handedOff) {
+                    long left = timed ? deadline - System.nanoTime() : 0L;
+                    if (timed && left <= 0) break;
+                    if (telemetry != null && PlaneLauncher.isVirtual(Thread.currentThread())) telemetry.incPinnedWait();
+                    if (timed) TimeUnit.NANOSECONDS.timedWait(w, left);
+                    else w.wait();
                 }
+                if (w.handedOff) return true;
+            }
+        } catch (InterruptedException ie) {
+            if (leaveArrivalQueue(w)) throw ie;
+            Thread.currentThread().interrupt();
+            return true;
+        }
+        return !leaveArrivalQueue(w);
+    }
+
+    // Take a waiting arrival out of the queue; false if a release already granted it a runway.
+    private boolean leaveArrivalQueue(ArrivalWaiter w) {
+        List<RunwayGrant> granted;
+        synchronized (lock) {
+            if (w.reservation) {
+                if (!reservationQueue.remove(w)) return false;
+            } else {
+                if (!arrivalQueue.remove(w)) return false;
+                arrivalsSince.remove(w.waitStartNanos);
             }
+            //give departures a chance to proceed (last arrival gone, or the policy turned to them).
+            granted = dispatchRunways();
         }
+        grantRunways(granted);
+        return true;
+    }
+
+    //Runway and gate in one step under the monitor: nothing is held while waiting, so no hold-and-wait cycle.
+    //Queued by priority like an arrival; a release hands both over once a gate is free too.
+    @Override
+    public LandingClearance acquireLandingClearance(Airplane a) throws InterruptedException {
+        final long waitStart = System.nanoTime();
+        final int plane = Airplane.traceIdOf(a);
+        if (trace != null) trace.record(EventTrace.Event.ARRIVAL_REQUEST, plane, -1);
+        ArrivalWaiter w = null;
+        List<RunwayGrant> granted = null;
+        synchronized (lock) {
+            if (!arrivalsFirst() && runwaysForArrivals() > 0 && availableGates > 0) {
+                availableRunways--;
+                availableGates--;
+                runwayPolicy.granted(true);
+            } else {
+                w = new ArrivalWaiter(Airplane.priorityOf(a), waitStart, null, plane, true);
+                granted = enqueueArrival(w);
+            }
+        }
+        grantRunways(granted);
+        if (w != null) awaitHandOff(w, false, 0L);
+        Lease runway = onRunwayAcquired(waitStart, true, plane);
+        //the gate is taken before landing: no taxiway queueing, gate wait 0
+        Lease gate = onGateAcquired(System.nanoTime(), plane);
+        if (telemetry != null) telemetry.incGateReservation();
+        return new LandingClearance(runway, gate);
     }
 
     // Block until a runway is free for takeoff, but only when no arrivals are waiting.
     @Override
-    public void requestRunwayForDeparture(Airplane a) throws InterruptedException {
-        final long waitStart = System.currentTimeMillis();
+    public Lease acquireRunwayForDeparture(Airplane a) throws InterruptedException {
+        return awaitDepartureRunway(a, false, 0L);
+    }
+
+    @Override
+    public Lease tryAcquireRunwayForDeparture(Airplane a, long timeout, TimeUnit unit) throws InterruptedException {
+        Lease lease = awaitDepartureRunway(a, true, unit.toNanos(timeout));
+        if (lease == null && trace != null) trace.record(EventTrace.Event.DEPARTURE_TIMEOUT, Airplane.traceIdOf(a), -1);
+        return lease;
+    }
+
+    private Lease awaitDepartureRunway(Airplane a, boolean timed, long nanos) throws InterruptedException {
+        AsyncWaitQueue.Request ticket = new AsyncWaitQueue.Request(Thread.currentThread().getName(), Airplane.traceIdOf(a));
+        if (trace != null) trace.record(EventTrace.Event.DEPARTURE_REQUEST, ticket.plane, -1);
+        boolean free;
         synchronized (lock) {
-            waitingDepartures++;
-            try {
-            	//Departures wait When: “ no runway is available” or when “there are arrivals ”.
-                while (availableRunways == 0 || waitingArrivals > 0) {
-                    lock.wait();
-                }
-                // else resource(Runway) is acquired,
+            //Departures wait When: “ no runway is available” or when “there are arrivals ” (unless the policy says it is their turn).
+            free = departureTickets.isEmpty() && departureMayGo();
+            if (free) {
+                // resource(Runway) is acquired,
                 availableRunways--;
-                //Telemetry: incRunwayOccupied(), record hold start, accumulate runway wait time.
-                if (telemetry != null) {
-                    telemetry.incRunwayOccupied();
-                    runwayHoldStart.put(Thread.currentThread().getId(), System.currentTimeMillis());
-                    telemetry.addRunwayWait(System.currentTimeMillis() - waitStart);
-                }
-            } finally {
-                waitingDepartures--;
+                runwayPolicy.granted(false);
+            } else if (timed && nanos <= 0) {
+                return null;
+            } else {
+                // behind the departures already queued; a release hands the runway over (dispatchRunways)
+                departureTickets.add(ticket);
+                departuresSince.add(ticket.waitStartNanos);
             }
         }
+        //Pick the runway; telemetry: runwayTaken(), accumulate runway wait time.
+        return free ? onRunwayAcquired(ticket.waitStartNanos, false, ticket.plane) : awaitTicket(ticket, true, timed, nanos);
     }
 
     //Block until a gate is free for parking (after landing).
     @Override
-    public void requestGate(Airplane a) throws InterruptedException {
-        final String planeId = Thread.currentThread().getName(); // e.g., GUIAirplane-P1
-        final long waitStart = System.currentTimeMillis();
+    public Lease acquireGate(Airplane a) throws InterruptedException {
+        return awaitGate(a, false, 0L);
+    }
+
+    @Override
+    public Lease tryAcquireGate(Airplane a, long timeout, TimeUnit unit) throws InterruptedException {
+        Lease lease = awaitGate(a, true, unit.toNanos(timeout));
+        if (lease == null && trace != null) trace.record(EventTrace.Event.GATE_TIMEOUT, Airplane.traceIdOf(a), -1);
+        return lease;
+    }
+
+    private Lease awaitGate(Airplane a, boolean timed, long nanos) throws InterruptedException {
+        AsyncWaitQueue.Request ticket = new AsyncWaitQueue.Request(Thread.currentThread().getName(), Airplane.traceIdOf(a)); // e.g., GUIAirplane-P1
+        if (trace != null) trace.record(EventTrace.Event.GATE_REQUEST, ticket.plane, -1);
+        boolean free;
         synchronized (lock) {
-            // Landed—now possibly waiting on taxiway(file d'attente)
-            while (availableGates == 0) {
-            	//Adds the plane to taxiway queue for GUI while waiting.
-                if (telemetry != null) telemetry.addTaxi(planeId);
-                lock.wait();
-            }
-            //else : Remove the plane from taxi queue when a gate becomes available.
-            if (telemetry != null) telemetry.removeTaxi(planeId);
-            // resource(Gate) is acquired,
-            availableGates--;
-            //Telemetry: incGateOccupied(), accumulate gate wait time.
-            if (telemetry != null) {
-                telemetry.incGateOccupied();
-                telemetry.addGateWait(System.currentTimeMillis() - waitStart);
+            free = gateTickets.isEmpty() && availableGates > 0;
+            if (free) {
+                // resource(Gate) is acquired,
+                availableGates--;
+            } else if (timed && nanos <= 0) {
+                return null;
+            } else {
+                // Landed—now waiting on taxiway(file d'attente), behind the planes already there
+                gateTickets.add(ticket);
+                if (telemetry != null) telemetry.addTaxi(ticket.planeId);
             }
         }
+        return free ? onGateAcquired(ticket.waitStartNanos, ticket.plane) : awaitTicket(ticket, false, timed, nanos);
+    }
+
+    // Wait until a release serves the ticket (completes its future with the runway or gate). On timeout or
+    // interrupt the ticket is cancelled, unless it was served meanwhile: then the plane keeps it (interrupt re-asserted).
+    private Lease awaitTicket(AsyncWaitQueue.Request ticket, boolean runway, boolean timed, long nanos) throws InterruptedException {
+        try {
+            return timed ? ticket.future.get(nanos, TimeUnit.NANOSECONDS) : ticket.future.get();
+        } catch (TimeoutException e) {
+            return cancelTicket(ticket, runway) ? null : ticket.future.join();
+        } catch (InterruptedException ie) {
+            if (cancelTicket(ticket, runway)) throw ie;
+            Thread.currentThread().interrupt();
+            return ticket.future.join();
+        } catch (ExecutionException e) {
+            // only the waiter itself cancels its ticket
+            throw new IllegalStateException(e.getCause());
+        }
     }
 
-    //Mark runway as free after landing/takeoff.
     @Override
-    public void releaseRunway(Airplane a) {
+    public void release(Lease lease) {
+        if (lease.kind() == Lease.Kind.RUNWAY) releaseRunway(lease);
+        else releaseGate(lease);
+    }
+
+    //Mark runway as free after landing/takeoff.
+    private void releaseRunway(Lease lease) {
+        lease.checkOwner(this, Lease.Kind.RUNWAY);
+        //Telemetry: runwayFreed() (released, hold time).
+        if (telemetry != null) telemetry.runwayFreed(lease.index(), lease.heldNanos());
+        if (trace != null) trace.record(EventTrace.Event.RUNWAY_RELEASE, lease.plane(), lease.index());
+        //free the slot before the count, so the next admitted plane finds it
+        runwaySlots.free(lease.index());
+        List<RunwayGrant> granted = null;
         synchronized (lock) {
-        	// resource(Runway) is released
-            availableRunways++;
-            //Telemetry: decRunwayOccupied() (released.), compute occupied duration from runwayHoldStart, increment notifyAll counter.
-            if (telemetry != null) {
-                telemetry.decRunwayOccupied();
-                Long start = runwayHoldStart.remove(Thread.currentThread().getId());
-                if (start != null) telemetry.addRunwayOccupiedDuration(System.currentTimeMillis() - start);
-                telemetry.incNotifyAll();
+            if (!absorbClosure(pendingRunwayClosures, runwaySlots)) {
+                // resource(Runway) is released: straight to the plane whose turn it is, nobody else woken
+                availableRunways++;
+                granted = dispatchRunways();
             }
-            // wake any waiters (arrivals or departures).
-            lock.notifyAll();
         }
+        grantRunways(granted);
+        reportRecovery();
+    }
+
+    // A unit given back (release or reopening) goes to a pending closure first. Lock must be held.
+    private static boolean absorbClosure(ArrayDeque<Integer> pending, ResourceSlots slots) {
+        Integer closing = pending.poll();
+        if (closing == null) return false;
+        slots.close(closing);
+        return true;
     }
 
     //Mark gate as free after parking phase.
+    private void releaseGate(Lease lease) {
+        lease.checkOwner(this, Lease.Kind.GATE);
+        //Telemetry: gateFreed() (released, busy time).
+        if (telemetry != null) telemetry.gateFreed(lease.index(), lease.heldNanos());
+        if (trace != null) trace.record(EventTrace.Event.GATE_RELEASE, lease.plane(), lease.index());
+        gateSlots.free(lease.index());
+        AsyncWaitQueue.Request next = null;
+        List<RunwayGrant> granted = null;
+        synchronized (lock) {
+            if (!absorbClosure(pendingGateClosures, gateSlots)) {
+                //first taxiing plane gets it directly: one ticket served, nobody else woken
+                next = gateTickets.poll();
+                if (next == null) {
+                    // resource(gate) is released: a reservation may land now if a runway is free
+                    availableGates++;
+                    granted = dispatchRunways();
+                }
+            }
+        }
+        if (next != null) grantGate(next);
+        grantRunways(granted);
+        reportRecovery();
+    }
+
+    // --- Closures ---
+
+    @Override
+    public boolean close(Lease.Kind kind, int index) {
+        return close(kind, index, true);
+    }
+
+    // report false: not a closure telemetry should see (the adaptive controller hands units between its delegates)
+    public boolean close(Lease.Kind kind, int index, boolean report) {
+        boolean runway = kind == Lease.Kind.RUNWAY;
+        boolean[] closed = runway ? runwayClosed : gateClosed;
+        Objects.checkIndex(index, closed.length);
+        int depth;
+        synchronized (lock) {
+            if (closed[index]) return false;
+            closed[index] = true;
+            if (runway && availableRunways > 0) {
+                availableRunways--;
+                runwaySlots.close(index);
+            } else if (!runway && availableGates > 0) {
+                availableGates--;
+                gateSlots.close(index);
+            } else {
+                (runway ? pendingRunwayClosures : pendingGateClosures).add(index);
+            }
+            depth = queuedPlanesLocked();
+        }
+        if (report && telemetry != null) telemetry.capacityChanged(kind, index, true, depth);
+        return true;
+    }
+
     @Override
-    public void releaseGate(Airplane a) {
+    public boolean reopen(Lease.Kind kind, int index) {
+        return reopen(kind, index, true);
+    }
+
+    public boolean reopen(Lease.Kind kind, int index, boolean report) {
+        boolean runway = kind == Lease.Kind.RUNWAY;
+        boolean[] closed = runway ? runwayClosed : gateClosed;
+        Objects.checkIndex(index, closed.length);
+        List<RunwayGrant> granted = null;
+        AsyncWaitQueue.Request next = null;
+        int depth;
         synchronized (lock) {
-        	// resource(gate) is released
-            availableGates++;
-            //Telemetry: decGateOccupied() (released.), increment notifyAll counter.
-            if (telemetry != null) {
-                telemetry.decGateOccupied();
-                telemetry.incNotifyAll();
+            if (!closed[index]) return false;
+            closed[index] = false;
+            //still waiting for its unit: nothing was taken
+            if (!(runway ? pendingRunwayClosures : pendingGateClosures).remove(index)) {
+                //back in the slots before its unit is handed out, so the plane admitted with it finds one
+                if (runway) {
+                    runwaySlots.reopen(index);
+                    if (!absorbClosure(pendingRunwayClosures, runwaySlots)) {
+                        availableRunways++;
+                        granted = dispatchRunways();
+                    }
+                } else {
+                    gateSlots.reopen(index);
+                    if (!absorbClosure(pendingGateClosures, gateSlots)) {
+                        next = gateTickets.poll();
+                        if (next == null) {
+                            availableGates++;
+                            granted = dispatchRunways();
+                        }
+                    }
+                }
             }
-            //wake any arrivals waiting for gates.
-            lock.notifyAll();
+            depth = queuedPlanesLocked();
+        }
+        grantRunways(granted);
+        if (next != null) grantGate(next);
+        if (report && telemetry != null) telemetry.capacityChanged(kind, index, false, depth);
+        return true;
+    }
+
+    @Override
+    public boolean isClosed(Lease.Kind kind, int index) {
+        synchronized (lock) {
+            return (kind == Lease.Kind.RUNWAY ? runwayClosed : gateClosed)[index];
+        }
+    }
+
+    @Override
+    public int queuedPlanes() {
+        synchronized (lock) {
+            return queuedPlanesLocked();
+        }
+    }
+
+    private static int countClosed(boolean[] closed) {
+        int n = 0;
+        for (boolean c : closed) if (c) n++;
+        return n;
+    }
+
+    private int queuedPlanesLocked() {
+        return arrivalQueue.size() + departureTickets.size() + reservationQueue.size() + gateTickets.size();
+    }
+
+    // After a disruption, telemetry needs the queue depth at releases until it is back to normal.
+    private void reportRecovery() {
+        if (telemetry != null && telemetry.isRecovering()) telemetry.queueDepth(queuedPlanes());
+    }
+
+    //Async arrival: granted at once if a runway is free, else queued by priority with the blocking ones.
+    @Override
+    public CompletableFuture<Lease> acquireRunwayForArrivalAsync(Airplane a) {
+        AsyncWaitQueue.Request req = new AsyncWaitQueue.Request(a);
+        if (trace != null) trace.record(EventTrace.Event.ARRIVAL_REQUEST, req.plane, -1);
+        List<RunwayGrant> granted = null;
+        boolean queued = false;
+        synchronized (lock) {
+            if (!arrivalsFirst() && runwaysForArrivals() > 0) {
+                availableRunways--;
+                runwayPolicy.granted(true);
+            } else {
+                ArrivalWaiter w = new ArrivalWaiter(Airplane.priorityOf(a), req.waitStartNanos, req, req.plane, false);
+                req.future.whenComplete((l, ex) -> { if (ex != null) leaveArrivalQueue(w); });
+                granted = enqueueArrival(w);
+                queued = true;
+            }
+        }
+        if (!queued) return CompletableFuture.completedFuture(onRunwayAcquired(req.waitStartNanos, true, req.plane));
+        grantRunways(granted);
+        return req.future;
+    }
+
+    //Async departure: same rule as the blocking one, no runway while arrivals wait.
+    @Override
+    public CompletableFuture<Lease> acquireRunwayForDepartureAsync(Airplane a) {
+        AsyncWaitQueue.Request req = new AsyncWaitQueue.Request(a);
+        if (trace != null) trace.record(EventTrace.Event.DEPARTURE_REQUEST, req.plane, -1);
+        synchronized (lock) {
+            if (departureTickets.isEmpty() && departureMayGo()) {
+                availableRunways--;
+                runwayPolicy.granted(false);
+            } else {
+                departureTickets.add(req);
+                departuresSince.add(req.waitStartNanos);
+                req.future.whenComplete((l, ex) -> { if (ex != null) cancelRunwayRequest(req); });
+                return req.future;
+            }
+        }
+        return CompletableFuture.completedFuture(onRunwayAcquired(req.waitStartNanos, false, req.plane));
+    }
+
+    //Async gate: a ticket in the same FIFO as the blocking ones, shown on the taxiway.
+    @Override
+    public CompletableFuture<Lease> acquireGateAsync(Airplane a) {
+        AsyncWaitQueue.Request req = new AsyncWaitQueue.Request(a);
+        if (trace != null) trace.record(EventTrace.Event.GATE_REQUEST, req.plane, -1);
+        synchronized (lock) {
+            if (gateTickets.isEmpty() && availableGates > 0) {
+                availableGates--;
+            } else {
+                gateTickets.add(req);
+                if (telemetry != null) telemetry.addTaxi(req.planeId);
+                req.future.whenComplete((l, ex) -> { if (ex != null) cancelGateRequest(req); });
+                return req.future;
+            }
+        }
+        return CompletableFuture.completedFuture(onGateAcquired(req.waitStartNanos, req.plane));
+    }
+
+    private boolean cancelTicket(AsyncWaitQueue.Request req, boolean runway) {
+        return runway ? cancelRunwayRequest(req) : cancelGateRequest(req);
+    }
+
+    //Cancelled or timed out: drop a departure still waiting (false if a release already served it); a vanished
+    //departure may hand its turn back to arrivals.
+    private boolean cancelRunwayRequest(AsyncWaitQueue.Request req) {
+        List<RunwayGrant> granted = null;
+        synchronized (lock) {
+            if (!departureTickets.cancel(req)) return false;
+            departuresSince.remove(req.waitStartNanos);
+            if (availableRunways > 0) granted = dispatchRunways();
+        }
+        grantRunways(granted);
+        return true;
+    }
+
+    //Drop a gate ticket still waiting; false if a release already served it.
+    private boolean cancelGateRequest(AsyncWaitQueue.Request req) {
+        boolean cancelled;
+        synchronized (lock) {
+            cancelled = gateTickets.cancel(req);
+        }
+        if (cancelled && telemetry != null) telemetry.removeTaxi(req.planeId);
+        return cancelled;
+    }
+
+    // Arrival priority: a waiting arrival, or a reservation that a free gate would let land. Lock must be held.
+    private boolean arrivalsFirst() {
+        return !arrivalQueue.isEmpty() || (!reservationQueue.isEmpty() && availableGates > 0);
+    }
+
+    // The policy hands the next free runway to a waiting departure although arrivals come first. Lock must be held.
+    private boolean departureTurn() {
+        if (departureTickets.isEmpty() || !arrivalsFirst()) return false;
+        long now = System.nanoTime();
+        return runwayPolicy.departureTurn(arrivalsSince.oldestWaitNanos(now), departuresSince.oldestWaitNanos(now));
+    }
+
+    // Free runways an arrival may take: one stays back for a departure whose turn it is. Lock must be held.
+    private int runwaysForArrivals() {
+        return departureTurn() ? availableRunways - 1 : availableRunways;
+    }
+
+    private boolean departureMayGo() {
+        return availableRunways > 0 && (!arrivalsFirst() || departureTurn());
+    }
+
+    // Hand free runways to the arrival and reservation queues and to the departure tickets, in the order
+    // the admission rules above say. Lock must be held.
+    private List<RunwayGrant> dispatchRunways() {
+        List<RunwayGrant> granted = null;
+        while (availableRunways > 0) {
+            AsyncWaitQueue.Request next = departureTurn() ? departureTickets.poll() : null;
+            ArrivalWaiter w = null;
+            if (next == null && runwaysForArrivals() > 0) w = pollArrival();
+            if (next == null && w == null && departureMayGo()) next = departureTickets.poll();
+            if (next == null && w == null) break;
+            if (w == null) departuresSince.remove(next.waitStartNanos);
+            else if (w.reservation) availableGates--;
+            else arrivalsSince.remove(w.waitStartNanos);
+            availableRunways--;
+            runwayPolicy.granted(w != null);
+            if (granted == null) granted = new ArrayList<>(2);
+            granted.add(w != null ? new RunwayGrant(w, w.req) : new RunwayGrant(null, next));
+        }
+        return granted;
+    }
+
+    // The most urgent arrival that can land now: the arrivalQueue head, or the reservation head while a gate
+    // is free. Lock must be held.
+    private ArrivalWaiter pollArrival() {
+        ArrivalWaiter arrival = arrivalQueue.peek();
+        ArrivalWaiter reservation = availableGates > 0 ? reservationQueue.peek() : null;
+        if (reservation != null && (arrival == null || PriorityWaitQueue.before(reservation, arrival))) {
+            return reservationQueue.poll();
+        }
+        return arrivalQueue.poll();
+    }
+
+    // A queued arrival: a blocking plane parked on its own node, or an async request (req).
+    private static final class ArrivalWaiter extends PriorityWaitQueue.Node {
+        final AsyncWaitQueue.Request req;
+        final int plane;
+        final boolean reservation;         // landing clearance: granted a gate with the runway
+        private boolean handedOff = false; // guarded by the node
+
+        ArrivalWaiter(Airplane.Priority priority, long waitStart, AsyncWaitQueue.Request req, int plane, boolean reservation) {
+            super(priority, waitStart);
+            this.req = req;
+            this.plane = plane;
+            this.reservation = reservation;
+        }
+    }
+
+    // A runway granted under the lock, handed over after it: to a parked arrival or an async request.
+    private static final class RunwayGrant {
+        final ArrivalWaiter arrival;   // null for a departure
+        final AsyncWaitQueue.Request req; // null for a blocking arrival
+
+        RunwayGrant(ArrivalWaiter arrival, AsyncWaitQueue.Request req) { this.arrival = arrival; this.req = req; }
+    }
+
+    // Wake the parked arrivals and complete the futures outside the lock; a request cancelled meanwhile
+    // gives its runway back.
+    private void grantRunways(List<RunwayGrant> granted) {
+        if (granted == null) return;
+        for (RunwayGrant g : granted) {
+            if (g.req == null) {
+                //one specific notify per freed runway
+                synchronized (g.arrival) {
+                    g.arrival.handedOff = true;
+                    g.arrival.notify();
+                }
+                if (trace != null) trace.record(EventTrace.Event.WAKEUP, g.arrival.plane, -1);
+                continue;
+            }
+            Lease lease = onRunwayAcquired(g.req.waitStartNanos, g.arrival != null, g.req.plane);
+            if (!g.req.future.complete(lease)) releaseRunway(lease);
+        }
+    }
+
+    // Serve a ticket outside the lock: off the taxiway, then the gate; a request cancelled meanwhile gives it back.
+    private void grantGate(AsyncWaitQueue.Request req) {
+        if (telemetry != null) telemetry.removeTaxi(req.planeId);
+        Lease lease = onGateAcquired(req.waitStartNanos, req.plane);
+        if (!req.future.complete(lease)) releaseGate(lease);
+    }
+
+    private Lease onRunwayAcquired(long waitStart, boolean arrival, int plane) {
+        Lease lease = new Lease(this, Lease.Kind.RUNWAY, runwaySlots.claim(), System.nanoTime(), plane);
+        if (trace != null) trace.record(EventTrace.Event.RUNWAY_GRANT, plane, lease.index());
+        if (telemetry != null) {
+            telemetry.runwayTaken(lease.index());
+            telemetry.recordRunwayWaitNanos(lease.acquiredAtNanos() - waitStart, arrival);
+        }
+        return lease;
+    }
+
+    private Lease onGateAcquired(long waitStart, int plane) {
+        Lease lease = new Lease(this, Lease.Kind.GATE, gateSlots.claim(), System.nanoTime(), plane);
+        if (trace != null) trace.record(EventTrace.Event.GATE_GRANT, plane, lease.index());
+        //Telemetry: gateTaken(), accumulate gate wait time.
+        if (telemetry != null) {
+            telemetry.gateTaken(lease.index());
+            telemetry.recordGateWaitNanos(lease.acquiredAtNanos() - waitStart);
         }
+        return lease;
     }
 
     //Returns a readable snapshot
     @Override
     public String getStatus() {
         synchronized (lock) {
-            return String.format("[Monitor] runways=%d, gates=%d, waitingArrivals=%d, waitingDepartures=%d",
-                    availableRunways, availableGates, waitingArrivals, waitingDepartures);
+            return String.format("[Monitor] runways=%d, gates=%d, waitingArrivals=%d (emergency %d, low fuel %d), waitingDepartures=%d, waitingReservations=%d, taxiing=%d, closed(runway/gate)=%d/%d, policy=%s",
+                    availableRunways, availableGates, arrivalQueue.size(), arrivalQueue.size(Airplane.Priority.EMERGENCY),
+                    arrivalQueue.size(Airplane.Priority.LOW_FUEL), departureTickets.size(), reservationQueue.size(),
+                    gateTickets.size(), countClosed(runwayClosed), countClosed(gateClosed), runwayPolicy);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,275 @@
+package ReentrantLockVersion.src;
+
+import Shared.src.Airplane;
+import Shared.src.Airport;
+import Shared.src.AirportTelemetry;
+import Shared.src.Lease;
+import Shared.src.ResourceSlots;
+import Shared.src.SupportsTelemetry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class AirportReentrantLock implements Airport, SupportsTelemetry {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    //One condition per kind of waiter, so a release only wakes a thread that can use the freed resource.
+    private final Condition arrivalsCond   = lock.newCondition();
+    private final Condition departuresCond = lock.newCondition();
+    private final Condition gatesCond      = lock.newCondition();
+
+    private int availableRunways;
+    private int availableGates;
+    // Logical queues (counts) used for priority decisions and to decide which condition to signal.
+    private int waitingArrivals = 0;
+    private int waitingDepartures = 0;
+    private int waitingGates = 0;
+    // Which runway/gate each admitted plane holds (claimed after unlock)
+    private final ResourceSlots runwaySlots;
+    private final ResourceSlots gateSlots;
+
+    private AirportTelemetry telemetry;
+
+    public AirportReentrantLock(int runways, int gates) {
+        this(runways, gates, ResourceSlots.Policy.LOWEST_FREE);
+    }
+
+    // policy: which free runway/gate an admitted plane gets
+    public AirportReentrantLock(int runways, int gates, ResourceSlots.Policy policy) {
+        this.availableRunways = runways;
+        this.availableGates = gates;
+        this.runwaySlots = new ResourceSlots(runways, policy);
+        this.gateSlots = new ResourceSlots(gates, policy);
+    }
+
+    @Override
+    public void setTelemetry(AirportTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    //Block until a runway is free for landing.
+    @Override
+    public Lease acquireRunwayForArrival(Airplane a) throws InterruptedException {
+        return awaitArrivalRunway(false, 0L);
+    }
+
+    //Same, but give up after the timeout (null).
+    @Override
+    public Lease tryAcquireRunwayForArrival(Airplane a, long timeout, TimeUnit unit) throws InterruptedException {
+        return awaitArrivalRunway(true, unit.toNanos(timeout));
+    }
+
+    private Lease awaitArrivalRunway(boolean timed, long nanos) throws InterruptedException {
+        final long waitStart = System.nanoTime();
+        int futile = 0;
+        lock.lock();
+        try {
+            waitingArrivals++;
+            try {
+                while (availableRunways == 0 && (!timed || nanos > 0)) {
+                    nanos = await(arrivalsCond, timed, nanos);
+                    //woken but the runway was taken by someone else in between
+                    if (availableRunways == 0 && (!timed || nanos > 0)) futile++;
+                }
+            } catch (InterruptedException ie) {
+                waitingArrivals--;
+                //we may have consumed a signal meant for a runway: pass it on.
+                signalRunwayWaiters();
+                throw ie;
+            }
+            waitingArrivals--;
+            if (availableRunways == 0) {
+                //timed out: if we were the last arrival, departures may use whatever frees up next.
+                if (waitingArrivals == 0) signalDepartures();
+                return null;
+            }
+            availableRunways--;
+            //last arrival served: departures held back by priority may now use the remaining runways.
+            if (waitingArrivals == 0) signalDepartures();
+        } finally {
+            lock.unlock();
+            if (telemetry != null) telemetry.addFutileWakeups(futile);
+        }
+        return onRunwayAcquired(waitStart, true);
+    }
+
+    // Block until a runway is free for takeoff, but only when no arrivals are waiting.
+    @Override
+    public Lease acquireRunwayForDeparture(Airplane a) throws InterruptedException {
+        return awaitDepartureRunway(false, 0L);
+    }
+
+    @Override
+    public Lease tryAcquireRunwayForDeparture(Airplane a, long timeout, TimeUnit unit) throws InterruptedException {
+        return awaitDepartureRunway(true, unit.toNanos(timeout));
+    }
+
+    private Lease awaitDepartureRunway(boolean timed, long nanos) throws InterruptedException {
+        final long waitStart = System.nanoTime();
+        int futile = 0;
+        lock.lock();
+        try {
+            waitingDepartures++;
+            try {
+                while ((availableRunways == 0 || waitingArrivals > 0) && (!timed || nanos > 0)) {
+                    nanos = await(departuresCond, timed, nanos);
+                    if ((availableRunways == 0 || waitingArrivals > 0) && (!timed || nanos > 0)) futile++;
+                }
+            } catch (InterruptedException ie) {
+                waitingDepartures--;
+                signalRunwayWaiters();
+                throw ie;
+            }
+            waitingDepartures--;
+            if (availableRunways == 0 || waitingArrivals > 0) return null;
+            availableRunways--;
+        } finally {
+            lock.unlock();
+            if (telemetry != null) telemetry.addFutileWakeups(futile);
+        }
+        return onRunwayAcquired(waitStart, false);
+    }
+
+    //Block until a gate is free for parking (after landing).
+    @Override
+    public Lease acquireGate(Airplane a) throws InterruptedException {
+        return awaitGate(false, 0L);
+    }
+
+    @Override
+    public Lease tryAcquireGate(Airplane a, long timeout, TimeUnit unit) throws InterruptedException {
+        return awaitGate(true, unit.toNanos(timeout));
+    }
+
+    private Lease awaitGate(boolean timed, long nanos) throws InterruptedException {
+        final String planeId = Thread.currentThread().getName();
+        final long waitStart = System.nanoTime();
+        int futile = 0;
+        boolean taxiing = false;
+        lock.lock();
+        try {
+            if (availableGates == 0) {
+                //Registered once on the taxiway, removed when the gate is granted (or on interrupt / timeout).
+                waitingGates++;
+                taxiing = true;
+                if (telemetry != null) telemetry.addTaxi(planeId);
+                try {
+                    while (availableGates == 0 && (!timed || nanos > 0)) {
+                        nanos = await(gatesCond, timed, nanos);
+                        if (availableGates == 0 && (!timed || nanos > 0)) futile++;
+                    }
+                } catch (InterruptedException ie) {
+                    waitingGates--;
+                    if (availableGates > 0 && waitingGates > 0) signal(gatesCond);
+                    throw ie;
+                }
+                waitingGates--;
+                if (availableGates == 0) return null;
+            }
+            availableGates--;
+        } finally {
+            lock.unlock();
+            if (telemetry != null) {
+                if (taxiing) telemetry.removeTaxi(planeId);
+                telemetry.addFutileWakeups(futile);
+            }
+        }
+        return onGateAcquired(waitStart);
+    }
+
+    private Lease onGateAcquired(long waitStart) {
+        Lease lease = new Lease(this, Lease.Kind.GATE, gateSlots.claim(), System.nanoTime());
+        if (telemetry != null) {
+            telemetry.gateTaken(lease.index());
+            telemetry.recordGateWaitNanos(lease.acquiredAtNanos() - waitStart);
+        }
+        return lease;
+    }
+
+    // Untimed await, or awaitNanos returning the time left (<= 0 once timed out). Lock must be held.
+    private static long await(Condition c, boolean timed, long nanos) throws InterruptedException {
+        if (!timed) {
+            c.await();
+            return nanos;
+        }
+        return c.awaitNanos(nanos);
+    }
+
+    @Override
+    public void release(Lease lease) {
+        if (lease.kind() == Lease.Kind.RUNWAY) releaseRunway(lease);
+        else releaseGate(lease);
+    }
+
+    //Mark runway as free after landing/takeoff and wake exactly one eligible waiter.
+    private void releaseRunway(Lease lease) {
+        lease.checkOwner(this, Lease.Kind.RUNWAY);
+        if (telemetry != null) {
+            telemetry.runwayFreed(lease.index(), lease.heldNanos());
+        }
+        //free the slot before the count, so the next admitted plane finds it
+        runwaySlots.free(lease.index());
+        lock.lock();
+        try {
+            availableRunways++;
+            signalRunwayWaiters();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Mark gate as free after parking phase and wake one taxiing plane.
+    private void releaseGate(Lease lease) {
+        lease.checkOwner(this, Lease.Kind.GATE);
+        if (telemetry != null) telemetry.gateFreed(lease.index(), lease.heldNanos());
+        gateSlots.free(lease.index());
+        lock.lock();
+        try {
+            availableGates++;
+            if (waitingGates > 0) signal(gatesCond);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Runway pick and metrics happen after unlock, outside the critical section.
+    private Lease onRunwayAcquired(long waitStart, boolean arrival) {
+        Lease lease = new Lease(this, Lease.Kind.RUNWAY, runwaySlots.claim(), System.nanoTime());
+        if (telemetry != null) {
+            telemetry.runwayTaken(lease.index());
+            telemetry.recordRunwayWaitNanos(lease.acquiredAtNanos() - waitStart, arrival);
+        }
+        return lease;
+    }
+
+    // Arrivals first; departures only when no arrival is waiting. Lock must be held.
+    private void signalRunwayWaiters() {
+        if (availableRunways == 0) return;
+        if (waitingArrivals > 0) signal(arrivalsCond);
+        else signalDepartures();
+    }
+
+    // Wake as many departures as there are free runways. Lock must be held.
+    private void signalDepartures() {
+        int n = Math.min(availableRunways, waitingDepartures);
+        for (int i = 0; i < n; i++) signal(departuresCond);
+    }
+
+    private void signal(Condition c) {
+        if (telemetry != null) telemetry.incSignal();
+        c.signal();
+    }
+
+    //Returns a readable snapshot
+    @Override
+    public String getStatus() {
+        lock.lock();
+        try {
+            return String.format("[ReentrantLock] runways=%d, gates=%d, waitingArrivals=%d, waitingDepartures=%d, waitingGates=%d",
+                    availableRunways, availableGates, waitingArrivals, waitingDepartures, waitingGates);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,129 +1,770 @@
 
 package SemaphoreVersion.src;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.ConcurrentHashMap;
 
 import Shared.src.Airplane;
 import Shared.src.Airport;
 import Shared.src.AirportTelemetry;
+import Shared.src.AsyncAirport;
+import Shared.src.AsyncWaitQueue;
+import Shared.src.EventTrace;
+import Shared.src.GateReservingAirport;
+import Shared.src.LandingClearance;
+import Shared.src.Lease;
+import Shared.src.PriorityWaitQueue;
+import Shared.src.ResourceSlots;
+import Shared.src.RunwayPolicy;
+import Shared.src.SupportsClosures;
+import Shared.src.SupportsRunwayPolicy;
 import Shared.src.SupportsTelemetry;
+import Shared.src.SupportsTracing;
+import Shared.src.WaitingSince;
 
-public class AirportSemaphore implements Airport, SupportsTelemetry {
+public class AirportSemaphore implements GateReservingAirport, AsyncAirport, SupportsTelemetry, SupportsRunwayPolicy, SupportsClosures, SupportsTracing {
 
 	//Split runway capacity for strong priority.:
-    private final Semaphore arrivalRunways;    // starts with all runway permits
-    private final Semaphore departureRunways;  // starts with 0
-    //Gate capacity
-    private final Semaphore gates;
+    //Free permits sit in departureRunways while no arrival waits, and move to the arrival pool while arrivals wait.
+    private final Semaphore departureRunways;  // starts with all runway permits
+    //Arrival pool: free count and queue of waiting arrivals (most urgent first), both guarded by the binary
+    //arrivalMutex. As for gates, a release passes the permit straight to the head of the queue.
+    private final Semaphore arrivalMutex = new Semaphore(1);
+    private int freeArrivalRunways = 0;
+    private final PriorityWaitQueue<RunwayWaiter> arrivalQueue = new PriorityWaitQueue<>();
+    //Gate capacity: free count and FIFO of taxiing planes, both guarded by the binary gateMutex.
+    //Each waiting plane blocks on its own semaphore, and a release passes the gate straight to the head (passing the baton).
+    private final Semaphore gateMutex = new Semaphore(1);
+    private int freeGates;
+    private final ArrayDeque<GateWaiter> gateQueue = new ArrayDeque<>();
+    private int cancelledGateWaiters = 0;   // async entries dropped in place, skipped by handOffGate
+    //Async departures (futures) guarded by the binary asyncMutex. They take permits with tryAcquire,
+    //so a release only has to "pump" them when asyncRunwayRequests > 0. Async arrivals join arrivalQueue.
+    private final Semaphore asyncMutex = new Semaphore(1);
+    private final AsyncWaitQueue asyncDepartures = new AsyncWaitQueue();
+    private final AtomicInteger asyncRunwayRequests = new AtomicInteger(0);
     //Tracks arrivals waiting : used to decide where releases go and for status/UI
     private final AtomicInteger waitingArrivals = new AtomicInteger(0);
-    //runwayHoldStart: Per-thread timestamp to compute runway occupied durations for utilization.
-    private final ConcurrentHashMap<Long, Long> runwayHoldStart = new ConcurrentHashMap<>();
+    //Departures waiting (blocking and async): a release only gives a departure its turn if one is there to take it.
+    private final AtomicInteger waitingDepartures = new AtomicInteger(0);
+    //While arrivals wait, the policy may route a released permit to departureRunways instead.
+    private volatile RunwayPolicy runwayPolicy = RunwayPolicy.strictPriority();
+    private final WaitingSince arrivalsSince = new WaitingSince();
+    private final WaitingSince departuresSince = new WaitingSince();
+    //Which runway/gate each admitted plane holds; a slot is freed before its permit is released.
+    private final ResourceSlots runwaySlots;
+    private final ResourceSlots gateSlots;
+    //Closures, guarded by the binary closureMutex (taken before arrivalMutex/gateMutex). A closure keeps one
+    //permit for itself: a free one at once, else it waits in pending and the next release gives it its permit
+    //instead of routing it. The counters let releases skip the mutex while nothing is pending.
+    private final Semaphore closureMutex = new Semaphore(1);
+    private final boolean[] runwayClosed;
+    private final boolean[] gateClosed;
+    private int closedRunways = 0, closedGates = 0;
+    private final ArrayDeque<Integer> pendingRunwayClosures = new ArrayDeque<>();
+    private final ArrayDeque<Integer> pendingGateClosures = new ArrayDeque<>();
+    private final AtomicInteger pendingRunwayCount = new AtomicInteger(0);
+    private final AtomicInteger pendingGateCount = new AtomicInteger(0);
     //Fixed capacities (used for status/metrics).
     private final int totalRunways;
     private final int totalGates;
     //Optional unified metrics sink.
     private AirportTelemetry telemetry;
+    //Optional per-event trace (wait-free, no allocation): requests, grants, releases, timeouts, hand-offs.
+    private EventTrace trace;
 
     public AirportSemaphore(int runways, int gatesCount) {
+        this(runways, gatesCount, ResourceSlots.Policy.LOWEST_FREE);
+    }
+
+    // policy: which free runway/gate an admitted plane gets
+    public AirportSemaphore(int runways, int gatesCount, ResourceSlots.Policy policy) {
         this.totalRunways = runways;
         this.totalGates   = gatesCount;
-        this.arrivalRunways   = new Semaphore(runways, true);
-        this.departureRunways = new Semaphore(0, true);
-        this.gates = new Semaphore(gatesCount, true);
+        this.departureRunways = new Semaphore(runways, true);
+        this.freeGates = gatesCount;
+        this.runwaySlots = new ResourceSlots(runways, policy);
+        this.gateSlots = new ResourceSlots(gatesCount, policy);
+        this.runwayClosed = new boolean[runways];
+        this.gateClosed = new boolean[gatesCount];
     }
 
     @Override
     public void setTelemetry(AirportTelemetry telemetry) { this.telemetry = telemetry; }
 
+    @Override
+    public void setTrace(EventTrace trace) { this.trace = trace; }
+
+    @Override
+    public void setRunwayPolicy(RunwayPolicy policy) { this.runwayPolicy = policy; }
+
     //Block until a runway is available for landing (arrival)
     @Override
-    public void requestRunwayForArrival(Airplane a) throws InterruptedException {
-        long waitStart = System.currentTimeMillis();
-        //Increment waitingArrivals
+    public Lease acquireRunwayForArrival(Airplane a) throws InterruptedException {
+        long waitStart = System.nanoTime();
+        int plane = Airplane.traceIdOf(a);
+        if (trace != null) trace.record(EventTrace.Event.ARRIVAL_REQUEST, plane, -1);
+        arrivalWaitStarted(waitStart);
+        try {
+        	//blocks until an arrival permit is available.
+            admitArrival(a, false, 0L, waitStart);
+            return onRunwayAcquired(waitStart, true, plane);
+        } finally {
+            arrivalWaitDone(waitStart);
+        }
+    }
+
+    //Same, but give up after the timeout (null); arrivalWaitDone hands the pool back if nobody else waits.
+    @Override
+    public Lease tryAcquireRunwayForArrival(Airplane a, long timeout, TimeUnit unit) throws InterruptedException {
+        long waitStart = System.nanoTime();
+        int plane = Airplane.traceIdOf(a);
+        if (trace != null) trace.record(EventTrace.Event.ARRIVAL_REQUEST, plane, -1);
+        arrivalWaitStarted(waitStart);
+        try {
+            if (admitArrival(a, true, unit.toNanos(timeout), waitStart)) return onRunwayAcquired(waitStart, true, plane);
+            if (trace != null) trace.record(EventTrace.Event.ARRIVAL_TIMEOUT, plane, -1);
+            return null;
+        } finally {
+            arrivalWaitDone(waitStart);
+        }
+    }
+
+    //Increment waitingArrivals; the first one drains any free departure permits into arrival permits.
+    private void arrivalWaitStarted(long waitStart) {
+        arrivalsSince.add(waitStart);
         if (waitingArrivals.incrementAndGet() == 1) {
-        	//drain any free departure permits and return them to arrival permits:
             int freeDep = departureRunways.drainPermits();
-            if (freeDep > 0) arrivalRunways.release(freeDep);
+            if (freeDep > 0) releaseArrivalRunways(freeDep);
         }
-        try {
-        	//blocks until an arrival permit is available.
-            arrivalRunways.acquire();
-            if (telemetry != null) {
-                telemetry.incRunwayOccupied();
-                runwayHoldStart.put(Thread.currentThread().getId(), System.currentTimeMillis());
-                telemetry.addRunwayWait(System.currentTimeMillis() - waitStart);
+    }
+
+    //decrement waitingArrivals; the last one hands any free arrival permits back to departures.
+    //Re-check after releasing, as returnRunway does: a new arrival may have counted itself and found the
+    //departure pool still empty before our permits landed there, then parked on an empty arrival pool.
+    private void arrivalWaitDone(long waitStart) {
+        arrivalsSince.remove(waitStart);
+        if (waitingArrivals.decrementAndGet() == 0) {
+            int freeArr = drainArrivalRunways();
+            if (freeArr > 0) {
+                departureRunways.release(freeArr);
+                if (waitingArrivals.get() > 0) {
+                    int freeDep = departureRunways.drainPermits();
+                    if (freeDep > 0) releaseArrivalRunways(freeDep);
+                }
             }
-        } finally {
-        	//decrement waitingArrivals.
-            waitingArrivals.decrementAndGet();
+            pumpIfAsync();
+        }
+    }
+
+    //Arrival permit: a free one, or a turn in the priority queue; false if timed out.
+    //The caller counts itself in waitingArrivals around it.
+    private boolean admitArrival(Airplane a, boolean timed, long nanos, long waitStart) throws InterruptedException {
+        RunwayWaiter w = null;
+        arrivalMutex.acquire();
+        if (freeArrivalRunways > 0) {
+            freeArrivalRunways--;
+        } else {
+            w = new RunwayWaiter(Airplane.priorityOf(a), waitStart, Airplane.traceIdOf(a));
+            arrivalQueue.add(w);
+        }
+        arrivalMutex.release();
+
+        if (w != null) {
+            try {
+                if (!timed) w.granted.acquire();
+                //Timed out, unless the permit was handed over meanwhile: then keep it.
+                else if (!w.granted.tryAcquire(nanos, TimeUnit.NANOSECONDS) && leaveArrivalQueue(w)) return false;
+            } catch (InterruptedException ie) {
+                //Permit handed over just before the interrupt: pass it on instead of leaking it.
+                if (!leaveArrivalQueue(w)) releaseArrivalRunways(1);
+                throw ie;
+            }
+        }
+        return true;
+    }
+
+    //Stop waiting for an arrival permit: true if still queued (now removed), false if one was already handed over.
+    private boolean leaveArrivalQueue(RunwayWaiter w) {
+        arrivalMutex.acquireUninterruptibly();
+        boolean stillQueued = arrivalQueue.remove(w);
+        arrivalMutex.release();
+        return stillQueued;
+    }
+
+    //Add arrival permits: each goes to the most urgent queued arrival (passing the baton), the rest stay free.
+    private void releaseArrivalRunways(int permits) {
+        List<RunwayWaiter> async = null;
+        arrivalMutex.acquireUninterruptibly();
+        for (; permits > 0; permits--) {
+            RunwayWaiter next = arrivalQueue.poll();
+            if (next == null) break;
+            if (next.granted != null) {
+                next.granted.release();
+                if (trace != null) trace.record(EventTrace.Event.WAKEUP, next.plane, -1);
+            } else {
+                if (async == null) async = new ArrayList<>(2);
+                async.add(next);
+            }
+        }
+        freeArrivalRunways += permits;
+        arrivalMutex.release();
+        //complete outside the mutex: dependent stages run here
+        if (async != null) {
+            for (RunwayWaiter w : async) {
+                arrivalWaitDone(w.waitStartNanos);
+                grantRunway(w.request, true);
+            }
+        }
+    }
+
+    private int drainArrivalRunways() {
+        arrivalMutex.acquireUninterruptibly();
+        int free = freeArrivalRunways;
+        freeArrivalRunways = 0;
+        arrivalMutex.release();
+        return free;
+    }
+
+    // A queued arrival, released exactly once by the permit hand-off, like a GateWaiter.
+    private static final class RunwayWaiter extends PriorityWaitQueue.Node {
+        final Semaphore granted;
+        final AsyncWaitQueue.Request request;
+        final int plane;
+        RunwayWaiter(Airplane.Priority priority, long waitStart, int plane) {
+            super(priority, waitStart); this.granted = new Semaphore(0); this.request = null; this.plane = plane;
+        }
+        RunwayWaiter(Airplane.Priority priority, AsyncWaitQueue.Request request) {
+            super(priority, request.waitStartNanos); this.granted = null; this.request = request; this.plane = request.plane;
         }
     }
 
     // Block until a runway is available for takeoff (departure).
     @Override
-    public void requestRunwayForDeparture(Airplane a) throws InterruptedException {
-        long waitStart = System.currentTimeMillis();
-        //blocks until a departure permit is available
-        //When arrivals are waiting, releases go to arrivalRunways, so departures wait
-        //When arrivals clear, releases feed the departureRunways pool.
-        departureRunways.acquire();
+    public Lease acquireRunwayForDeparture(Airplane a) throws InterruptedException {
+        long waitStart = System.nanoTime();
+        int plane = Airplane.traceIdOf(a);
+        if (trace != null) trace.record(EventTrace.Event.DEPARTURE_REQUEST, plane, -1);
+        departureWaitStarted(waitStart);
+        try {
+            //blocks until a departure permit is available
+            //When arrivals are waiting, releases go to the arrival pool (unless it is the departures' turn), so departures wait
+            //When arrivals clear, releases feed the departureRunways pool.
+            departureRunways.acquire();
+            pumpIfAsync();   //async departures queued behind us may take a permit left over now that we are served
+            return onRunwayAcquired(waitStart, false, plane);
+        } finally {
+            departureWaitDone(waitStart);
+        }
+    }
+
+    @Override
+    public Lease tryAcquireRunwayForDeparture(Airplane a, long timeout, TimeUnit unit) throws InterruptedException {
+        long waitStart = System.nanoTime();
+        int plane = Airplane.traceIdOf(a);
+        if (trace != null) trace.record(EventTrace.Event.DEPARTURE_REQUEST, plane, -1);
+        departureWaitStarted(waitStart);
+        try {
+            if (departureRunways.tryAcquire(timeout, unit)) {
+                pumpIfAsync();
+                return onRunwayAcquired(waitStart, false, plane);
+            }
+            if (trace != null) trace.record(EventTrace.Event.DEPARTURE_TIMEOUT, plane, -1);
+            return null;
+        } finally {
+            departureWaitDone(waitStart);
+        }
+    }
+
+    private void departureWaitStarted(long waitStart) {
+        departuresSince.add(waitStart);
+        waitingDepartures.incrementAndGet();
+    }
+
+    //The last departure gone while arrivals wait: a permit routed to it on its turn must not sit in the departure pool.
+    private void departureWaitDone(long waitStart) {
+        departuresSince.remove(waitStart);
+        if (waitingDepartures.decrementAndGet() == 0 && waitingArrivals.get() > 0) {
+            int freeDep = departureRunways.drainPermits();
+            if (freeDep > 0) releaseArrivalRunways(freeDep);
+        }
+    }
+
+    //The policy gives a waiting departure the next runway although arrivals wait.
+    private boolean departureTurn() {
+        if (waitingDepartures.get() == 0 || waitingArrivals.get() == 0) return false;
+        long now = System.nanoTime();
+        return runwayPolicy.departureTurn(arrivalsSince.oldestWaitNanos(now), departuresSince.oldestWaitNanos(now));
+    }
+
+    private Lease onRunwayAcquired(long waitStart, boolean arrival, int plane) {
+        runwayPolicy.granted(arrival);
+        Lease lease = new Lease(this, Lease.Kind.RUNWAY, runwaySlots.claim(), System.nanoTime(), plane);
+        if (trace != null) trace.record(EventTrace.Event.RUNWAY_GRANT, plane, lease.index());
         if (telemetry != null) {
-            telemetry.incRunwayOccupied();
-            runwayHoldStart.put(Thread.currentThread().getId(), System.currentTimeMillis());
-            telemetry.addRunwayWait(System.currentTimeMillis() - waitStart);
+            telemetry.runwayTaken(lease.index());
+            telemetry.recordRunwayWaitNanos(lease.acquiredAtNanos() - waitStart, arrival);
+        }
+        return lease;
+    }
+
+    // A taxiing plane: released exactly once, by the releaseGate that hands it the gate.
+    // Blocking waiters park on their own semaphore; async ones carry the request to complete instead.
+    // Planes reserving a gate before landing wait in the same FIFO but are not on the taxiway.
+    private static final class GateWaiter {
+        final String planeId;
+        final int plane;
+        final boolean onTaxiway;
+        final Semaphore granted;
+        final AsyncWaitQueue.Request request;
+        GateWaiter(String planeId, int plane, boolean onTaxiway) {
+            this.planeId = planeId; this.plane = plane; this.onTaxiway = onTaxiway; this.granted = new Semaphore(0); this.request = null;
+        }
+        GateWaiter(AsyncWaitQueue.Request request) {
+            this.planeId = request.planeId; this.plane = request.plane; this.onTaxiway = true; this.granted = null; this.request = request;
         }
     }
 
     //Block until a gate is available (post-landing).
     //While waiting for a gate, the plane is on taxiway. (file d'attente)
     @Override
-    public void requestGate(Airplane a) throws InterruptedException {
+    public Lease acquireGate(Airplane a) throws InterruptedException {
+        return awaitGate(Airplane.traceIdOf(a), false, 0L);
+    }
+
+    @Override
+    public Lease tryAcquireGate(Airplane a, long timeout, TimeUnit unit) throws InterruptedException {
+        return awaitGate(Airplane.traceIdOf(a), true, unit.toNanos(timeout));
+    }
+
+    private Lease awaitGate(int plane, boolean timed, long nanos) throws InterruptedException {
+        long waitStart = System.nanoTime();
+        if (trace != null) trace.record(EventTrace.Event.GATE_REQUEST, plane, -1);
+        if (admitGate(plane, timed, nanos, true)) return onGateAcquired(waitStart, plane);
+        if (trace != null) trace.record(EventTrace.Event.GATE_TIMEOUT, plane, -1);
+        return null;
+    }
+
+    //Gate admission: a free gate or a turn in the FIFO; false if timed out.
+    private boolean admitGate(int plane, boolean timed, long nanos, boolean onTaxiway) throws InterruptedException {
         String planeId = Thread.currentThread().getName();
-        long waitStart = System.currentTimeMillis();
-        // No direct way to observe "waiting" before acquire, so we add to taxiQueue first if needed
-        //If not acquired, add planeId to the telemetry taxi queue (addTaxi()),
-        while (!gates.tryAcquire()) {
-            if (telemetry != null) telemetry.addTaxi(planeId);
-            Thread.sleep(20); // small backoff; avoids busy spin at 100% CPU
-        }
-        //else :Once acquired, remove planeId from taxi queue, update telemetry
+        GateWaiter w = null;
+        gateMutex.acquire();
+        if (freeGates > 0) {
+            freeGates--;
+        } else {
+            //Register once on the taxiway; releaseGate removes it when handing over the gate.
+            w = new GateWaiter(planeId, plane, onTaxiway);
+            gateQueue.add(w);
+            if (onTaxiway && telemetry != null) telemetry.addTaxi(planeId);
+        }
+        gateMutex.release();
+
+        if (w != null) {
+            try {
+                if (!timed) w.granted.acquire();
+                //Timed out, unless the gate was handed over meanwhile: then keep it.
+                else if (!w.granted.tryAcquire(nanos, TimeUnit.NANOSECONDS) && leaveTaxiway(w)) return false;
+            } catch (InterruptedException ie) {
+                //Gate handed over just before the interrupt: pass it on instead of leaking it.
+                if (!leaveTaxiway(w)) returnGate();
+                throw ie;
+            }
+        }
+        return true;
+    }
+
+    //Gate first (reserved while still in the air, FIFO with taxiing planes), then an arrival runway.
+    //Nobody waits for a gate while holding a runway, so the two waits cannot form a cycle.
+    @Override
+    public LandingClearance acquireLandingClearance(Airplane a) throws InterruptedException {
+        long waitStart = System.nanoTime();
+        int plane = Airplane.traceIdOf(a);
+        if (trace != null) trace.record(EventTrace.Event.ARRIVAL_REQUEST, plane, -1);
+        admitGate(plane, false, 0L, false);
+        boolean cleared = false;
+        try {
+            arrivalWaitStarted(waitStart);
+            try {
+                admitArrival(a, false, 0L, waitStart);
+            } finally {
+                arrivalWaitDone(waitStart);
+            }
+            cleared = true;
+        } finally {
+            //interrupted while waiting for the runway: the reserved gate goes to the next plane
+            if (!cleared) returnGate();
+        }
+        Lease runway = onRunwayAcquired(waitStart, true, plane);
+        //the gate is taken before landing: no taxiway queueing, gate wait 0
+        Lease gate = onGateAcquired(System.nanoTime(), plane);
+        if (telemetry != null) telemetry.incGateReservation();
+        return new LandingClearance(runway, gate);
+    }
+
+    //Stop waiting for a gate: true if the plane was still queued (now removed), false if it was already handed one.
+    private boolean leaveTaxiway(GateWaiter w) {
+        gateMutex.acquireUninterruptibly();
+        boolean stillQueued = gateQueue.remove(w);
+        if (stillQueued && w.onTaxiway && telemetry != null) telemetry.removeTaxi(w.planeId);
+        gateMutex.release();
+        return stillQueued;
+    }
+
+    private Lease onGateAcquired(long waitStart, int plane) {
+        Lease lease = new Lease(this, Lease.Kind.GATE, gateSlots.claim(), System.nanoTime(), plane);
+        if (trace != null) trace.record(EventTrace.Event.GATE_GRANT, plane, lease.index());
         if (telemetry != null) {
-            telemetry.removeTaxi(planeId);
-            telemetry.incGateOccupied();
-            telemetry.addGateWait(System.currentTimeMillis() - waitStart);
+            telemetry.gateTaken(lease.index());
+            telemetry.recordGateWaitNanos(lease.acquiredAtNanos() - waitStart);
         }
-        /*
-         * Note:
-         * Semaphore.acquire() blocks but doesn’t 
-         * provide a hook to mark “waiting” beforehand. 
-         * The tryAcquire() loop with tiny sleeps makes 
-         * the GUI taxiway queue visible without pegging CPU.
-         */
+        return lease;
     }
 
-    //Free a runway after landing/takeoff and route capacity based on arrival priority
     @Override
-    public void releaseRunway(Airplane a) {
-        // If arrivals waiting, give capacity to arrivals; else to departures
-        if (waitingArrivals.get() > 0) {
-            arrivalRunways.release();
+    public void release(Lease lease) {
+        if (lease.kind() == Lease.Kind.RUNWAY) releaseRunway(lease);
+        else releaseGate(lease);
+    }
+
+    //Free a runway after landing/takeoff and route capacity based on arrival priority
+    private void releaseRunway(Lease lease) {
+        lease.checkOwner(this, Lease.Kind.RUNWAY);
+        //Telemetry first: once the slot is free, the next plane may already mark it taken.
+        if (telemetry != null) telemetry.runwayFreed(lease.index(), lease.heldNanos());
+        if (trace != null) trace.record(EventTrace.Event.RUNWAY_RELEASE, lease.plane(), lease.index());
+        runwaySlots.free(lease.index());
+        returnRunway();
+        reportRecovery();
+    }
+
+    //Route a runway permit given back (release or reopening): to a pending closure first, else by arrival priority.
+    private void returnRunway() {
+        if (pendingRunwayCount.get() > 0 && absorbClosure(pendingRunwayClosures, pendingRunwayCount, runwaySlots)) return;
+        // If arrivals waiting, give capacity to arrivals (unless the policy says it is a departure's turn); else to departures
+        // Re-check after releasing: if waitingArrivals flipped meanwhile, the permit may have landed in the
+        // pool nobody drains any more, so move it over ourselves.
+        if (departureTurn()) {
+            departureRunways.release();
+            if (waitingDepartures.get() == 0 && waitingArrivals.get() > 0) {
+                int freeDep = departureRunways.drainPermits();
+                if (freeDep > 0) releaseArrivalRunways(freeDep);
+            }
+        } else if (waitingArrivals.get() > 0) {
+            releaseArrivalRunways(1);
+            if (waitingArrivals.get() == 0) {
+                int freeArr = drainArrivalRunways();
+                if (freeArr > 0) departureRunways.release(freeArr);
+            }
         } else {
             departureRunways.release();
+            if (waitingArrivals.get() > 0) {
+                int freeDep = departureRunways.drainPermits();
+                if (freeDep > 0) releaseArrivalRunways(freeDep);
+            }
         }
-        if (telemetry != null) {
-            telemetry.decRunwayOccupied();
-            Long start = runwayHoldStart.remove(Thread.currentThread().getId());
-            if (start != null) telemetry.addRunwayOccupiedDuration(System.currentTimeMillis() - start);
-        }
+        pumpIfAsync();
     }
     //Free a gate after the parking phase.
+    private void releaseGate(Lease lease) {
+        lease.checkOwner(this, Lease.Kind.GATE);
+        if (telemetry != null) telemetry.gateFreed(lease.index(), lease.heldNanos());
+        if (trace != null) trace.record(EventTrace.Event.GATE_RELEASE, lease.plane(), lease.index());
+        gateSlots.free(lease.index());
+        returnGate();
+        reportRecovery();
+    }
+
+    //A gate given back goes to a pending closure first, else to the taxiway.
+    private void returnGate() {
+        if (pendingGateCount.get() > 0 && absorbClosure(pendingGateClosures, pendingGateCount, gateSlots)) return;
+        handOffGate();
+    }
+
+    //Give the permit in hand to the oldest pending closure; false if another release got there first.
+    private boolean absorbClosure(ArrayDeque<Integer> pending, AtomicInteger count, ResourceSlots slots) {
+        closureMutex.acquireUninterruptibly();
+        Integer closing = pending.poll();
+        if (closing != null) {
+            count.decrementAndGet();
+            slots.close(closing);
+        }
+        closureMutex.release();
+        return closing != null;
+    }
+
+    // --- Closures ---
+
+    @Override
+    public boolean close(Lease.Kind kind, int index) {
+        return close(kind, index, true);
+    }
+
+    // report false: not a closure telemetry should see (the adaptive controller hands units between its delegates)
+    public boolean close(Lease.Kind kind, int index, boolean report) {
+        boolean runway = kind == Lease.Kind.RUNWAY;
+        boolean[] closed = runway ? runwayClosed : gateClosed;
+        Objects.checkIndex(index, closed.length);
+        closureMutex.acquireUninterruptibly();
+        if (closed[index]) {
+            closureMutex.release();
+            return false;
+        }
+        closed[index] = true;
+        if (runway) closedRunways++; else closedGates++;
+        ResourceSlots slots = runway ? runwaySlots : gateSlots;
+        if (runway ? takeRunwayPermit() : takeGatePermit()) {
+            slots.close(index);
+        } else {
+            //published before the second try: a permit released in between is either taken here or absorbed by its release
+            ArrayDeque<Integer> pending = runway ? pendingRunwayClosures : pendingGateClosures;
+            AtomicInteger count = runway ? pendingRunwayCount : pendingGateCount;
+            pending.add(index);
+            count.incrementAndGet();
+            if ((runway ? takeRunwayPermit() : takeGatePermit()) && pending.remove(index)) {
+                count.decrementAndGet();
+                slots.close(index);
+            }
+        }
+        closureMutex.release();
+        if (report && telemetry != null) telemetry.capacityChanged(kind, index, true, queuedPlanes());
+        return true;
+    }
+
     @Override
-    public void releaseGate(Airplane a) {
-        gates.release();
-        if (telemetry != null) telemetry.decGateOccupied();
+    public boolean reopen(Lease.Kind kind, int index) {
+        return reopen(kind, index, true);
+    }
+
+    public boolean reopen(Lease.Kind kind, int index, boolean report) {
+        boolean runway = kind == Lease.Kind.RUNWAY;
+        boolean[] closed = runway ? runwayClosed : gateClosed;
+        Objects.checkIndex(index, closed.length);
+        closureMutex.acquireUninterruptibly();
+        if (!closed[index]) {
+            closureMutex.release();
+            return false;
+        }
+        closed[index] = false;
+        if (runway) closedRunways--; else closedGates--;
+        //still waiting for its permit: nothing to give back
+        boolean held = !(runway ? pendingRunwayClosures : pendingGateClosures).remove(index);
+        if (!held) (runway ? pendingRunwayCount : pendingGateCount).decrementAndGet();
+        //back in the slots before its permit is handed out, so the plane admitted with it finds one
+        else (runway ? runwaySlots : gateSlots).reopen(index);
+        closureMutex.release();
+        if (held) {
+            if (runway) returnRunway();
+            else returnGate();
+        }
+        if (report && telemetry != null) telemetry.capacityChanged(kind, index, false, queuedPlanes());
+        return true;
+    }
+
+    //A free runway permit from either pool, without waiting.
+    private boolean takeRunwayPermit() {
+        if (departureRunways.tryAcquire()) return true;
+        arrivalMutex.acquireUninterruptibly();
+        boolean free = freeArrivalRunways > 0;
+        if (free) freeArrivalRunways--;
+        arrivalMutex.release();
+        return free;
+    }
+
+    private boolean takeGatePermit() {
+        gateMutex.acquireUninterruptibly();
+        boolean free = freeGates > 0;
+        if (free) freeGates--;
+        gateMutex.release();
+        return free;
+    }
+
+    @Override
+    public boolean isClosed(Lease.Kind kind, int index) {
+        closureMutex.acquireUninterruptibly();
+        try {
+            return (kind == Lease.Kind.RUNWAY ? runwayClosed : gateClosed)[index];
+        } finally {
+            closureMutex.release();
+        }
+    }
+
+    @Override
+    public int queuedPlanes() {
+        gateMutex.acquireUninterruptibly();
+        int taxiing = gateQueue.size() - cancelledGateWaiters;
+        gateMutex.release();
+        return waitingArrivals.get() + waitingDepartures.get() + taxiing;
+    }
+
+    //After a disruption, telemetry needs the queue depth at releases until it is back to normal.
+    private void reportRecovery() {
+        if (telemetry != null && telemetry.isRecovering()) telemetry.queueDepth(queuedPlanes());
+    }
+
+    //Give the gate to the first taxiing plane (leaving the taxi queue in the same step), else mark it free.
+    private void handOffGate() {
+        gateMutex.acquireUninterruptibly();
+        GateWaiter next;
+        while ((next = gateQueue.poll()) != null && next.request != null && !next.request.finish()) {
+            cancelledGateWaiters--;   // async request cancelled in place: skip it
+        }
+        if (next != null) {
+            if (next.onTaxiway && telemetry != null) telemetry.removeTaxi(next.planeId);
+            if (next.granted != null) {
+                next.granted.release();
+                if (trace != null) trace.record(EventTrace.Event.WAKEUP, next.plane, -1);
+            }
+        } else {
+            freeGates++;
+        }
+        gateMutex.release();
+        //complete outside the mutex: dependent stages run here
+        if (next != null && next.request != null) {
+            Lease lease = onGateAcquired(next.request.waitStartNanos, next.plane);
+            if (!next.request.future.complete(lease)) releaseGate(lease);
+        }
+    }
+
+    //Async arrival: counted as a waiting arrival (so permits move to the arrival pool), then a free permit
+    //or a place in the priority queue next to the blocking ones.
+    @Override
+    public CompletableFuture<Lease> acquireRunwayForArrivalAsync(Airplane a) {
+        AsyncWaitQueue.Request req = new AsyncWaitQueue.Request(a);
+        if (trace != null) trace.record(EventTrace.Event.ARRIVAL_REQUEST, req.plane, -1);
+        arrivalWaitStarted(req.waitStartNanos);
+        RunwayWaiter w = null;
+        arrivalMutex.acquireUninterruptibly();
+        if (freeArrivalRunways > 0) {
+            freeArrivalRunways--;
+        } else {
+            w = new RunwayWaiter(Airplane.priorityOf(a), req);
+            arrivalQueue.add(w);
+        }
+        arrivalMutex.release();
+        if (w == null) {
+            arrivalWaitDone(req.waitStartNanos);
+            return CompletableFuture.completedFuture(onRunwayAcquired(req.waitStartNanos, true, req.plane));
+        }
+        RunwayWaiter queued = w;
+        req.future.whenComplete((l, ex) -> {
+            if (ex != null && leaveArrivalQueue(queued)) arrivalWaitDone(req.waitStartNanos);
+        });
+        return req.future;
+    }
+
+    @Override
+    public CompletableFuture<Lease> acquireRunwayForDepartureAsync(Airplane a) {
+        AsyncWaitQueue.Request req = new AsyncWaitQueue.Request(a);
+        if (trace != null) trace.record(EventTrace.Event.DEPARTURE_REQUEST, req.plane, -1);
+        departureWaitStarted(req.waitStartNanos);
+        enqueueRunwayRequest(req);
+        req.future.whenComplete((l, ex) -> { if (ex != null) cancelRunwayRequest(req); });
+        return req.future;
+    }
+
+    //Async gate: free gate at once, else a GateWaiter on the same FIFO as blocking planes.
+    @Override
+    public CompletableFuture<Lease> acquireGateAsync(Airplane a) {
+        AsyncWaitQueue.Request req = new AsyncWaitQueue.Request(a);
+        if (trace != null) trace.record(EventTrace.Event.GATE_REQUEST, req.plane, -1);
+        gateMutex.acquireUninterruptibly();
+        boolean free = freeGates > 0;
+        if (free) {
+            freeGates--;
+        } else {
+            gateQueue.add(new GateWaiter(req));
+            if (telemetry != null) telemetry.addTaxi(req.planeId);
+        }
+        gateMutex.release();
+        if (free) return CompletableFuture.completedFuture(onGateAcquired(req.waitStartNanos, req.plane));
+        req.future.whenComplete((l, ex) -> { if (ex != null) cancelGateRequest(req); });
+        return req.future;
+    }
+
+    //Publish the request (count first), then try to serve it from the pools right away.
+    private void enqueueRunwayRequest(AsyncWaitQueue.Request req) {
+        asyncMutex.acquireUninterruptibly();
+        asyncDepartures.add(req);
+        asyncRunwayRequests.incrementAndGet();
+        asyncMutex.release();
+        pumpRunways();
+    }
+
+    //Cancelled or timed out: drop the request; a vanished departure may hand its turn back to arrivals.
+    private void cancelRunwayRequest(AsyncWaitQueue.Request req) {
+        asyncMutex.acquireUninterruptibly();
+        boolean cancelled = asyncDepartures.cancel(req);
+        if (cancelled) asyncRunwayRequests.decrementAndGet();
+        asyncMutex.release();
+        if (cancelled) departureWaitDone(req.waitStartNanos);
+    }
+
+    private void cancelGateRequest(AsyncWaitQueue.Request req) {
+        gateMutex.acquireUninterruptibly();
+        if (req.finish()) {
+            if (telemetry != null) telemetry.removeTaxi(req.planeId);
+            //drop marked entries once they outnumber the live ones
+            if (++cancelledGateWaiters > 64 && cancelledGateWaiters > gateQueue.size() / 2) {
+                gateQueue.removeIf(w -> w.request != null && !w.request.isPending());
+                cancelledGateWaiters = 0;
+            }
+        }
+        gateMutex.release();
+    }
+
+    //A release publishes its permit before reading the counter, a request publishes itself before trying
+    //the pools: whichever comes second sees the other, so no request is left behind a free permit.
+    private void pumpIfAsync() {
+        if (asyncRunwayRequests.get() > 0) pumpRunways();
+    }
+
+    //Serve queued async departures from the departure pool, once no arrival waits (or on their turn), behind
+    //any thread already blocked in acquire(): the pool is fair and both kinds of departure keep FIFO order.
+    private void pumpRunways() {
+        List<AsyncWaitQueue.Request> departures = null;
+        asyncMutex.acquireUninterruptibly();
+        while (!asyncDepartures.isEmpty() && (waitingArrivals.get() == 0 || departureTurn()) && tryAcquireFair(departureRunways)) {
+            if (departures == null) departures = new ArrayList<>(2);
+            departures.add(asyncDepartures.poll());
+            asyncRunwayRequests.decrementAndGet();
+        }
+        asyncMutex.release();
+        if (departures != null) {
+            for (AsyncWaitQueue.Request req : departures) {
+                departureWaitDone(req.waitStartNanos);
+                grantRunway(req, false);
+            }
+        }
+    }
+
+    //Untimed tryAcquire() barges ahead of the threads queued on a fair semaphore; the timed form with 0 does not.
+    //It never parks, so an interrupt (a plane releasing on its way out) is only deferred to after the call.
+    private static boolean tryAcquireFair(Semaphore s) {
+        boolean interrupted = false;
+        try {
+            for (;;) {
+                try {
+                    return s.tryAcquire(0, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    //Complete outside the mutex; a request cancelled meanwhile gives its runway back.
+    private void grantRunway(AsyncWaitQueue.Request req, boolean arrival) {
+        Lease lease = onRunwayAcquired(req.waitStartNanos, arrival, req.plane);
+        if (!req.future.complete(lease)) releaseRunway(lease);
     }
 
     /*
@@ -134,11 +775,21 @@ public class AirportSemaphore implements Airport, SupportsTelemetry {
      */
     @Override
     public String getStatus() {
-        int freeArrival = arrivalRunways.availablePermits();
+        arrivalMutex.acquireUninterruptibly();
+        int freeArrival = freeArrivalRunways;
+        int emergencies = arrivalQueue.size(Airplane.Priority.EMERGENCY);
+        int lowFuel = arrivalQueue.size(Airplane.Priority.LOW_FUEL);
+        arrivalMutex.release();
         int freeDeparture = departureRunways.availablePermits();
-        int freeGates = gates.availablePermits();
+        gateMutex.acquireUninterruptibly();
+        int freeGates = this.freeGates;
+        gateMutex.release();
+        closureMutex.acquireUninterruptibly();
+        int closedRunways = this.closedRunways, closedGates = this.closedGates;
+        closureMutex.release();
         int occRunways = totalRunways - (freeArrival + freeDeparture);
-       return String.format("[Semaphore] runwaysOcc=%d/%d, gatesFree=%d/%d, arrivalsWaiting=%d",
-                occRunways, totalRunways, freeGates, totalGates, waitingArrivals.get());
+       return String.format("[Semaphore] runwaysOcc=%d/%d, gatesFree=%d/%d, arrivalsWaiting=%d (emergency %d, low fuel %d), departuresWaiting=%d, asyncRunwayRequests=%d, closed(runway/gate)=%d/%d, policy=%s",
+                occRunways, totalRunways, freeGates, totalGates, waitingArrivals.get(), emergencies, lowFuel,
+                waitingDepartures.get(), asyncRunwayRequests.get(), closedRunways, closedGates, runwayPolicy);
     }
 }
\ No newline at end of file
@@ -1,93 +1,207 @@
 
 package Shared.src;
 
+import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class Airplane extends Thread {
+// Plane lifecycle as a Runnable body; start it with a PlaneLauncher (platform or virtual thread).
+public class Airplane implements Runnable {
     public enum Stage { INBOUND, PARKED, OUTBOUND }
+    // Landing priority: arrival queues serve emergencies first, then low fuel (see PriorityWaitQueue).
+    public enum Priority { EMERGENCY, LOW_FUEL, NORMAL }
+
+    private static final AtomicInteger TRACE_IDS = new AtomicInteger();
 
     private final String id;
+    private final int traceId = TRACE_IDS.incrementAndGet(); // numeric id for EventTrace records
     private final Airport airport;
     private final boolean isArrivalFirst; // if true start as arrival, else as departure
     private final Random rng = new Random();
+    private final FlightPlan plan;             // hold times; drawn at random unless given
+    private final AirportTelemetry telemetry; // optional: turnaround time of the whole cycle
+    private final HoldingPolicy holding;       // timed requests: holding patterns, diversions, back to the gate
+    private volatile boolean completed = false;
+    private volatile boolean diverted = false;
+    private volatile boolean reserveGate = false;
+    private volatile Priority priority = Priority.NORMAL;
+    // Per-plane waits in ns, for replay comparisons (-1: the step was not reached)
+    private volatile long landingWaitNanos = -1;
+    private volatile long gateWaitNanos = -1;
+    private volatile long takeoffWaitNanos = -1;
+    private volatile long turnaroundNanos = -1;
+    // Open-loop injection: when the plane was due (System.nanoTime()); waits count from there, not from run()
+    private volatile long intendedStart = Long.MIN_VALUE;
+    private volatile long startLagNanos = -1;
+
+    // Per-step console logging; batch runs switch it off.
+    private static volatile boolean verbose = true;
+    public static void setVerbose(boolean v) { verbose = v; }
 
     public Airplane(String id, Airport airport, boolean isArrivalFirst) {
-        this.id = id;
+        this(id, airport, isArrivalFirst, null);
+    }
+
+    public Airplane(String id, Airport airport, boolean isArrivalFirst, AirportTelemetry telemetry) {
+        this(id, airport, isArrivalFirst, telemetry, HoldingPolicy.BLOCKING);
+    }
+
+    public Airplane(String id, Airport airport, boolean isArrivalFirst, AirportTelemetry telemetry, HoldingPolicy holding) {
+        this(FlightPlan.random(id, 0L, isArrivalFirst, Priority.NORMAL, new Random()), airport, telemetry, holding, false);
+    }
+
+    // A plane that flies the given plan: id, type, priority and hold times, nothing drawn at random.
+    public Airplane(FlightPlan plan, Airport airport, AirportTelemetry telemetry, HoldingPolicy holding) {
+        this(plan, airport, telemetry, holding, true);
+    }
+
+    private Airplane(FlightPlan plan, Airport airport, AirportTelemetry telemetry, HoldingPolicy holding, boolean planned) {
+        this.id = plan.id;
         this.airport = airport;
-        this.isArrivalFirst = isArrivalFirst;
-        setName("Airplane-" + id);
+        this.isArrivalFirst = plan.arrivalFirst;
+        this.telemetry = telemetry;
+        this.holding = holding;
+        this.plan = plan;
+        if (planned) this.priority = plan.priority;
+        rng.setSeed(plan.seed);
     }
 
+    // Thread name used by controllers as the plane id (taxi queue, logs).
+    public String getName() { return "Airplane-" + id; }
+
+    // Process-unique number (from 1) identifying this plane in an EventTrace; 0 stands for "no plane".
+    public int traceId() { return traceId; }
+    public static int traceIdOf(Airplane a) { return a != null ? a.traceId : 0; }
+
+    // Ask for landing clearance with a reserved gate (GateReservingAirport only; set before start()).
+    public void setReserveGate(boolean reserve) { this.reserveGate = reserve; }
+
+    public void setPriority(Priority priority) { this.priority = Objects.requireNonNull(priority); }
+    public Priority getPriority() { return priority; }
+
+    // Priority of a requesting plane; anonymous requests (null) are normal traffic.
+    public static Priority priorityOf(Airplane a) { return a != null ? a.priority : Priority.NORMAL; }
+
+    public FlightPlan getPlan() { return plan; }
+
+    public long getLandingWaitNanos() { return landingWaitNanos; }
+    public long getGateWaitNanos() { return gateWaitNanos; }
+    public long getTakeoffWaitNanos() { return takeoffWaitNanos; }
+    public long getTurnaroundNanos() { return turnaroundNanos; }
+
+    // Schedule time of an open-loop run (set before start()): the first request and the turnaround are
+    // timed from it, so a late thread start or a busy injector shows up as latency instead of vanishing.
+    public void setIntendedStart(long nanoTime) { this.intendedStart = nanoTime; }
+    // How long after its intended start the plane actually started (0 without one, -1 before run()).
+    public long getStartLagNanos() { return startLagNanos; }
+
+    public Thread start(PlaneLauncher launcher) { return launcher.start(getName(), this); }
+
+    // True once the plane went through its whole cycle (not interrupted).
+    public boolean isCompleted() { return completed; }
+    // True if the plane gave up on landing here (HoldingPolicy.maxHolds exceeded).
+    public boolean isDiverted() { return diverted; }
+
     private void log(String msg) {
-        System.out.printf("[%s] %s%n", id, msg);
+        if (verbose) System.out.printf("[%s] %s%n", id, msg);
     }
 
     @Override
     public void run() {
+        final long now = System.nanoTime();
+        final boolean scheduled = intendedStart != Long.MIN_VALUE;
+        final long cycleStart = scheduled ? Math.min(intendedStart, now) : now;
+        startLagNanos = now - cycleStart;
         try {
             if (isArrivalFirst) {
-                boolean runwayHeld = false;
-                boolean gateHeld = false;
+                Lease runway = null;
+                Lease gate = null;
                 try {
                     log("wants to ARRIVE");
-                    airport.requestRunwayForArrival(this);
-                    runwayHeld = true;
+                    final long landingStart = scheduled ? cycleStart : System.nanoTime();
+                    if (reserveGate && airport instanceof GateReservingAirport reserving) {
+                        LandingClearance clearance = reserving.acquireLandingClearance(this);
+                        runway = clearance.runway();
+                        gate = clearance.gate();
+                    } else {
+                        runway = land();
+                        if (runway == null) return;   // diverted
+                    }
+                    //per-class latency: from the first request to the runway, holding patterns included
+                    landingWaitNanos = System.nanoTime() - landingStart;
+                    if (telemetry != null) telemetry.recordLandingWaitNanos(priority, landingWaitNanos);
+                    if (gate != null) gateWaitNanos = 0;
 
-                    log("using runway to land");
-                    Thread.sleep(200 + rng.nextInt(300));
+                    log("using runway " + (runway.index() + 1) + " to land");
+                    hold(plan.landNanos);
 
-                    airport.releaseRunway(this);
-                    runwayHeld = false;
+                    airport.release(runway);
+                    runway = null;
 
-                    log("wants a GATE to park");
-                    airport.requestGate(this);
-                    gateHeld = true;
+                    if (gate == null) {
+                        log("wants a GATE to park");
+                        final long gateStart = System.nanoTime();
+                        gate = airport.acquireGate(this);
+                        gateWaitNanos = System.nanoTime() - gateStart;
+                    } else if (telemetry != null) {
+                        //reserved gate: empty since clearance, now occupied without queueing
+                        telemetry.recordReservedGateIdleNanos(gate.heldNanos());
+                    }
 
-                    log("parked at gate");
-                    Thread.sleep(400 + rng.nextInt(800));
+                    log("parked at gate " + (gate.index() + 1));
+                    hold(plan.gateNanos);
 
-                    airport.releaseGate(this);
-                    gateHeld = false;
+                    airport.release(gate);
+                    gate = null;
 
                     log("preparing for DEPARTURE");
-                    Thread.sleep(200 + rng.nextInt(300));
+                    hold(plan.prepNanos);
 
                     log("wants to DEPART");
-                    airport.requestRunwayForDeparture(this);
-                    runwayHeld = true;
+                    final long takeoffStart = System.nanoTime();
+                    runway = takeOff(true);
+                    takeoffWaitNanos = System.nanoTime() - takeoffStart;
 
-                    log("using runway to takeoff");
-                    Thread.sleep(200 + rng.nextInt(300));
+                    log("using runway " + (runway.index() + 1) + " to takeoff");
+                    hold(plan.takeoffNanos);
 
-                    airport.releaseRunway(this);
-                    runwayHeld = false;
+                    airport.release(runway);
+                    runway = null;
 
+                    completed = true;
+                    turnaroundNanos = System.nanoTime() - cycleStart;
+                    if (telemetry != null) telemetry.recordTurnaroundNanos(turnaroundNanos);
                     log("completed cycle");
                 } catch (InterruptedException e) {
                     log("interrupted");
-                    if (gateHeld) try { airport.releaseGate(this); } catch (Throwable ignored) {}
-                    if (runwayHeld) try { airport.releaseRunway(this); } catch (Throwable ignored) {}
+                    if (gate != null) try { airport.release(gate); } catch (Throwable ignored) {}
+                    if (runway != null) try { airport.release(runway); } catch (Throwable ignored) {}
                     Thread.currentThread().interrupt();
                 }
             } else {
-                boolean runwayHeld = false;
+                Lease runway = null;
                 try {
                     log("wants to DEPART");
-                    airport.requestRunwayForDeparture(this);
-                    runwayHeld = true;
+                    final long takeoffStart = scheduled ? cycleStart : System.nanoTime();
+                    runway = takeOff(false);
+                    takeoffWaitNanos = System.nanoTime() - takeoffStart;
 
-                    log("using runway to takeoff");
-                    Thread.sleep(200 + rng.nextInt(300));
+                    log("using runway " + (runway.index() + 1) + " to takeoff");
+                    hold(plan.takeoffNanos);
 
-                    airport.releaseRunway(this);
-                    runwayHeld = false;
+                    airport.release(runway);
+                    runway = null;
+                    completed = true;
+                    turnaroundNanos = System.nanoTime() - cycleStart;
+                    if (telemetry != null) telemetry.recordTurnaroundNanos(turnaroundNanos);
                     log("departed");
                 } catch (InterruptedException e) {
                     log("interrupted");
-                    if (runwayHeld) 
+                    if (runway != null) 
                     {
                     	try { 
-                    		airport.releaseRunway(this); 
+                    		airport.release(runway); 
                     		} catch (Throwable ignored) {
                     		}
                     }
@@ -98,4 +212,66 @@ public class Airplane extends Thread {
             log("fatal error: " + t.getMessage());
         }
     }
+
+    private static void hold(long nanos) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+
+    // Runway to land; under a timed HoldingPolicy, hold and retry on timeout. null if the plane diverted.
+    private Lease land() throws InterruptedException {
+        if (!holding.isTimed()) return airport.acquireRunwayForArrival(this);
+        long holdingNs = 0;
+        try {
+            for (int holds = 0; ; holds++) {
+                Lease runway = airport.tryAcquireRunwayForArrival(this, holding.runwayTimeoutMs, TimeUnit.MILLISECONDS);
+                if (runway != null) return runway;
+                if (telemetry != null) telemetry.incArrivalTimeout();
+                if (holds >= holding.maxHolds) {
+                    diverted = true;
+                    if (telemetry != null) telemetry.incDiversion();
+                    log("DIVERTED after " + holds + " holding patterns");
+                    return null;
+                }
+                long holdMs = holding.holdMs(holds, rng);
+                log("no runway, holding for " + holdMs + " ms");
+                long t0 = System.nanoTime();
+                try {
+                    hold(plan.scaledNanos(holdMs));
+                } finally {
+                    holdingNs += System.nanoTime() - t0;
+                }
+            }
+        } finally {
+            if (holdingNs > 0 && telemetry != null) telemetry.recordHoldingNanos(holdingNs);
+        }
+    }
+
+    // Runway to take off; under a timed HoldingPolicy, a timed-out departure that came from a gate goes
+    // back to the gate queue first, a departure-only plane asks for the runway again.
+    private Lease takeOff(boolean fromGate) throws InterruptedException {
+        if (!holding.isTimed()) return airport.acquireRunwayForDeparture(this);
+        for (;;) {
+            Lease runway = airport.tryAcquireRunwayForDeparture(this, holding.runwayTimeoutMs, TimeUnit.MILLISECONDS);
+            if (runway != null) return runway;
+            if (telemetry != null) telemetry.incDepartureTimeout();
+            if (!fromGate) {
+                log("no runway to depart, asking again");
+                continue;
+            }
+            log("no runway to depart, back to the gate queue");
+            Lease gate = holding.gateTimeoutMs > 0
+                    ? airport.tryAcquireGate(this, holding.gateTimeoutMs, TimeUnit.MILLISECONDS)
+                    : airport.acquireGate(this);
+            if (gate == null) {
+                if (telemetry != null) telemetry.incGateTimeout();
+                continue;
+            }
+            try {
+                log("back at gate " + (gate.index() + 1));
+                hold(plan.scaledNanos(holding.gatePauseMs(rng)));
+            } finally {
+                airport.release(gate);
+            }
+        }
+    }
 }
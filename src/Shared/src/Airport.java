@@ -1,18 +1,32 @@
 package Shared.src;
+
+import java.util.concurrent.TimeUnit;
+
 public interface Airport {
-        // Request a runway for arrival (blocks until available or interrupted)
-        void requestRunwayForArrival(Airplane a) throws InterruptedException;
+        // Acquire a runway for arrival (blocks until available or interrupted)
+        Lease acquireRunwayForArrival(Airplane a) throws InterruptedException;
 
-        // Request a runway for departure (blocks until available or interrupted)
-        void requestRunwayForDeparture(Airplane a) throws InterruptedException;
+        // Acquire a runway for departure (blocks until available or interrupted)
+        Lease acquireRunwayForDeparture(Airplane a) throws InterruptedException;
 
-        // Request a gate for parking (arrival -> gate)
-        void requestGate(Airplane a) throws InterruptedException;
+        // Acquire a gate for parking (arrival -> gate)
+        Lease acquireGate(Airplane a) throws InterruptedException;
 
-        // Release resources
-        void releaseRunway(Airplane a);
-        void releaseGate(Airplane a);
+        // Timed variants: null if nothing was granted within the timeout (the waiter is removed from the queue)
+        Lease tryAcquireRunwayForArrival(Airplane a, long timeout, TimeUnit unit) throws InterruptedException;
+        Lease tryAcquireRunwayForDeparture(Airplane a, long timeout, TimeUnit unit) throws InterruptedException;
+        Lease tryAcquireGate(Airplane a, long timeout, TimeUnit unit) throws InterruptedException;
+
+        // Give back a runway or gate lease (from any thread)
+        void release(Lease lease);
 
         // For status/debug
         String getStatus();
-    }
\ No newline at end of file
+
+        // Legacy API: the lease is kept for the calling thread, so release must happen on the acquiring thread.
+        default void requestRunwayForArrival(Airplane a) throws InterruptedException { LegacyLeases.hold(acquireRunwayForArrival(a)); }
+        default void requestRunwayForDeparture(Airplane a) throws InterruptedException { LegacyLeases.hold(acquireRunwayForDeparture(a)); }
+        default void requestGate(Airplane a) throws InterruptedException { LegacyLeases.hold(acquireGate(a)); }
+        default void releaseRunway(Airplane a) { release(LegacyLeases.take(this, Lease.Kind.RUNWAY)); }
+        default void releaseGate(Airplane a) { release(LegacyLeases.take(this, Lease.Kind.GATE)); }
+    }
@@ -1,116 +1,569 @@
 
 package Shared.src;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
 
+/*
+ * Metrics sink shared by all controllers. Every counter written on an acquire/release path is a
+ * LongAdder (striped cells, padded against false sharing), so concurrent planes do not fight over
+ * one cache line. Reads go through snapshot(): each counter is summed once and summary()/csvRow()
+ * format from that single snapshot.
+ */
 public class AirportTelemetry {
     // Configuration
     private final int totalRunways;
     private final int totalGates;
-    private final long simStartMs = System.currentTimeMillis();
+    private final SimClock clock;
+    private final long simStartMs;
 
     // Live occupancy (increment/decrement by controllers)
-    private final AtomicInteger occupiedRunways = new AtomicInteger(0);
-    private final AtomicInteger occupiedGates   = new AtomicInteger(0);
+    private final LongAdder occupiedRunways = new LongAdder();
+    private final LongAdder occupiedGates   = new LongAdder();
+    // Per-resource state, indexed like the leases: who is busy now and total busy time (ns)
+    private final AtomicIntegerArray runwayInUse;
+    private final AtomicIntegerArray gateInUse;
+    private final AtomicLongArray runwayBusyNs;
+    private final AtomicLongArray gateBusyNs;
 
     // Taxiway queue: planes that finished landing but are waiting for a gate
-    private final CopyOnWriteArrayList<String> taxiQueue = new CopyOnWriteArrayList<>();
+    private final TaxiQueue taxiQueue = new TaxiQueue();
+    private final AtomicInteger peakTaxiQueue = new AtomicInteger();
+    // Entries listed in summary(); the rest is only counted
+    private static final int SUMMARY_TAXI_ENTRIES = 10;
 
-    // Wait time metrics
-    private final AtomicLong runwayWaitTotalMs = new AtomicLong(0);
-    private final AtomicLong runwayWaitCount   = new AtomicLong(0);
-    private final AtomicLong gateWaitTotalMs   = new AtomicLong(0);
-    private final AtomicLong gateWaitCount     = new AtomicLong(0);
+    // Wait time metrics (totals in ns; averages reported in ms)
+    private final LongAdder runwayWaitTotalNs = new LongAdder();
+    private final LongAdder runwayWaitCount   = new LongAdder();
+    private final LongAdder gateWaitTotalNs   = new LongAdder();
+    private final LongAdder gateWaitCount     = new LongAdder();
 
     // Runway utilization: sum of all "runway occupied durations"
-    private final AtomicLong runwayOccupiedTotalMs = new AtomicLong(0);
+    private final LongAdder runwayOccupiedTotalNs = new LongAdder();
+
+    // Latency distributions (tail latency the averages hide)
+    private final LatencyHistogram runwayWaitHist = new LatencyHistogram();
+    // Runway wait per class, to tune a RunwayPolicy (arrival tail vs departure starvation)
+    private final LatencyHistogram arrivalWaitHist   = new LatencyHistogram();
+    private final LatencyHistogram departureWaitHist = new LatencyHistogram();
+    private final LatencyHistogram gateWaitHist   = new LatencyHistogram();
+    private final LatencyHistogram runwayHoldHist = new LatencyHistogram();
+    private final LatencyHistogram turnaroundHist = new LatencyHistogram();
+    // Total time an arrival spent in holding patterns (planes that held at least once)
+    private final LatencyHistogram holdingHist    = new LatencyHistogram();
+    // Landing wait per Airplane.Priority, first request to runway (holding included): emergencies first,
+    // without starving normal traffic
+    private final LatencyHistogram emergencyLandingHist = new LatencyHistogram();
+    private final LatencyHistogram lowFuelLandingHist   = new LatencyHistogram();
+    private final LatencyHistogram normalLandingHist    = new LatencyHistogram();
+
+    // Overload: timed requests that gave up, and arrivals sent elsewhere after too many holds
+    private final LongAdder arrivalTimeouts   = new LongAdder();
+    private final LongAdder departureTimeouts = new LongAdder();
+    private final LongAdder gateTimeouts      = new LongAdder();
+    private final LongAdder diversions        = new LongAdder();
+
+    // Gate pre-reservation: landings cleared with a gate, and how long each reserved gate sat empty
+    // until its plane parked (landing + taxi-in), the price of never queueing on the taxiway
+    private final LongAdder gateReservations = new LongAdder();
+    private final LatencyHistogram reservedGateIdleHist = new LatencyHistogram();
 
     // Wake-ups/Signals (for comparative report)
-    private final AtomicLong notifyAllCount = new AtomicLong(0);
-    
+    private final LongAdder notifyAllCount = new LongAdder();
+    // Targeted Condition.signal() calls and wake-ups that found the resource already taken
+    private final LongAdder signalCount = new LongAdder();
+    private final LongAdder futileWakeupCount = new LongAdder();
+
+    // Plane thread mode (PLATFORM/VIRTUAL) and monitor waits that pin a virtual thread to its carrier
+    private volatile String executionMode = PlaneLauncher.Mode.PLATFORM.toString();
+    private final LongAdder pinnedWaitCount = new LongAdder();
+
+    // Adaptive controller: strategy in use and every switch (rare, so a copy-on-write list)
+    private volatile String strategy = "";
+    private final List<StrategySwitch> strategySwitches = new CopyOnWriteArrayList<>();
+
+    // Closures (SupportsClosures): which runways/gates are out of service, every change, and recovery time:
+    // from the last reopening until the queue is back to its depth when the first closure began.
+    private final AtomicIntegerArray runwayClosed;
+    private final AtomicIntegerArray gateClosed;
+    private final AtomicInteger runwaysInService;
+    private final AtomicInteger gatesInService;
+    private final List<CapacityChange> capacityChanges = new CopyOnWriteArrayList<>();
+    private final LatencyHistogram recoveryHist = new LatencyHistogram();
+    private int closedNow = 0;          // guarded by capacityChanges
+    private int baselineDepth = 0;      // guarded by capacityChanges
+    private long restoredAtMs = 0;      // guarded by capacityChanges
+    private volatile boolean recovering = false;
 
     public AirportTelemetry(int totalRunways, int totalGates) {
+        this(totalRunways, totalGates, SimClock.SYSTEM);
+    }
+
+    // Use a virtual clock (discrete-event engine) so utilization is relative to simulated time.
+    public AirportTelemetry(int totalRunways, int totalGates, SimClock clock) {
         this.totalRunways = Math.max(1, totalRunways);
         this.totalGates   = Math.max(1, totalGates);
+        this.clock = clock;
+        this.simStartMs = clock.nowMs();
+        this.runwayInUse = new AtomicIntegerArray(this.totalRunways);
+        this.gateInUse = new AtomicIntegerArray(this.totalGates);
+        this.runwayBusyNs = new AtomicLongArray(this.totalRunways);
+        this.gateBusyNs = new AtomicLongArray(this.totalGates);
+        this.runwayClosed = new AtomicIntegerArray(this.totalRunways);
+        this.gateClosed = new AtomicIntegerArray(this.totalGates);
+        this.runwaysInService = new AtomicInteger(this.totalRunways);
+        this.gatesInService = new AtomicInteger(this.totalGates);
     }
 
+    public long nowMs() { return clock.nowMs(); }
+
     // --- Occupancy updates ---
-    public void incRunwayOccupied() { occupiedRunways.incrementAndGet(); }
-    public void decRunwayOccupied() { occupiedRunways.decrementAndGet(); }
-    public void incGateOccupied()   { occupiedGates.incrementAndGet(); }
-    public void decGateOccupied()   { occupiedGates.decrementAndGet(); }
+    public void incRunwayOccupied() { occupiedRunways.increment(); }
+    public void decRunwayOccupied() { occupiedRunways.decrement(); }
+    public void incGateOccupied()   { occupiedGates.increment(); }
+    public void decGateOccupied()   { occupiedGates.decrement(); }
+
+    // Index-aware variants used by the controllers (lease index): occupancy count, per-resource state and busy time.
+    public void runwayTaken(int index) {
+        incRunwayOccupied();
+        if (index < runwayInUse.length()) runwayInUse.set(index, 1);
+    }
+    public void runwayFreed(int index, long heldNs) {
+        if (index < runwayInUse.length()) {
+            runwayInUse.set(index, 0);
+            runwayBusyNs.addAndGet(index, heldNs);
+        }
+        decRunwayOccupied();
+        recordRunwayHoldNanos(heldNs);
+    }
+    public void gateTaken(int index) {
+        incGateOccupied();
+        if (index < gateInUse.length()) gateInUse.set(index, 1);
+    }
+    public void gateFreed(int index, long heldNs) {
+        if (index < gateInUse.length()) {
+            gateInUse.set(index, 0);
+            gateBusyNs.addAndGet(index, heldNs);
+        }
+        decGateOccupied();
+    }
+
+    public boolean isRunwayOccupied(int index) { return index < runwayInUse.length() && runwayInUse.get(index) != 0; }
+    public boolean isGateOccupied(int index)   { return index < gateInUse.length() && gateInUse.get(index) != 0; }
+    // Share of elapsed (clock) time each runway/gate was held, completed holds only.
+    public double[] runwayUtilizations() { return utilizations(runwayBusyNs, clock.nowMs()); }
+    public double[] gateUtilizations()   { return utilizations(gateBusyNs, clock.nowMs()); }
+
+    private double[] utilizations(AtomicLongArray busyNs, long nowMs) {
+        double elapsedNs = Math.max(1, nowMs - simStartMs) * 1e6;
+        double[] out = new double[busyNs.length()];
+        for (int i = 0; i < out.length; i++) out[i] = Math.min(1.0, busyNs.get(i) / elapsedNs);
+        return out;
+    }
+
+    // "#" busy, "." free, in index order (e.g. "#.#" = runways 1 and 3 in use).
+    private static String occupancyMap(AtomicIntegerArray inUse, AtomicIntegerArray closed) {
+        char[] c = new char[inUse.length()];
+        for (int i = 0; i < c.length; i++) c[i] = inUse.get(i) != 0 ? '#' : closed.get(i) != 0 ? 'x' : '.';
+        return new String(c);
+    }
 
     // --- Taxiway queue ---
     public void addTaxi(String planeId) {
-        if (planeId != null && !taxiQueue.contains(planeId)) taxiQueue.add(planeId);
+        if (!taxiQueue.add(planeId)) return;
+        int n = taxiQueue.size(), p;
+        while (n > (p = peakTaxiQueue.get()) && !peakTaxiQueue.compareAndSet(p, n)) { /* retry */ }
     }
     public void removeTaxi(String planeId) { taxiQueue.remove(planeId); }
-    public List<String> taxiQueueSnapshot() { return List.copyOf(taxiQueue); }
-
-    // --- Wait time accumulation ---
-    public void addRunwayWait(long ms) { runwayWaitTotalMs.addAndGet(ms); runwayWaitCount.incrementAndGet(); }
-    public void addGateWait(long ms)   { gateWaitTotalMs.addAndGet(ms);   gateWaitCount.incrementAndGet(); }
+    public int taxiQueueSize() { return taxiQueue.size(); }
+    public long taxiQueueVersion() { return taxiQueue.version(); }
+    // Longest the taxiway queue has been (what gate pre-reservation is meant to keep at 0).
+    public int peakTaxiQueueSize() { return peakTaxiQueue.get(); }
+    // First max planes in taxiway order (what the map can actually show).
+    public List<String> taxiQueueSnapshot(int max) { return taxiQueue.snapshot(max); }
+    public List<String> taxiQueueSnapshot() { return taxiQueue.snapshot(Integer.MAX_VALUE); }
 
-    public double avgRunwayWaitMs() {
-        long c = runwayWaitCount.get();
-        return c == 0 ? 0.0 : ((double) runwayWaitTotalMs.get() / c);
+    // --- Wait time accumulation --- (controllers measure with System.nanoTime(); the ms variants are for the virtual clock)
+    public void recordRunwayWaitNanos(long ns) {
+        runwayWaitTotalNs.add(ns); runwayWaitCount.increment(); runwayWaitHist.record(ns);
+    }
+    public void recordRunwayWaitNanos(long ns, boolean arrival) {
+        recordRunwayWaitNanos(ns);
+        (arrival ? arrivalWaitHist : departureWaitHist).record(ns);
     }
-    public double avgGateWaitMs() {
-        long c = gateWaitCount.get();
-        return c == 0 ? 0.0 : ((double) gateWaitTotalMs.get() / c);
+    public void recordGateWaitNanos(long ns) {
+        gateWaitTotalNs.add(ns); gateWaitCount.increment(); gateWaitHist.record(ns);
     }
+    public void addRunwayWait(long ms) { recordRunwayWaitNanos(ms * 1_000_000); }
+    public void addRunwayWait(long ms, boolean arrival) { recordRunwayWaitNanos(ms * 1_000_000, arrival); }
+    public void addGateWait(long ms)   { recordGateWaitNanos(ms * 1_000_000); }
+
+    public double avgRunwayWaitMs() { return average(runwayWaitTotalNs.sum(), runwayWaitCount.sum()); }
+    public double avgGateWaitMs()   { return average(gateWaitTotalNs.sum(), gateWaitCount.sum()); }
+    private static double average(long totalNs, long count) { return count == 0 ? 0.0 : totalNs / 1e6 / count; }
 
     // --- Runway utilization --- : Measures how busy runways are relative to total simulation time and capacity.
-    public void addRunwayOccupiedDuration(long ms) { runwayOccupiedTotalMs.addAndGet(ms); }
-    public double runwayUtilization() {
-        long elapsed = Math.max(1, System.currentTimeMillis() - simStartMs);
+    public void recordRunwayHoldNanos(long ns) { runwayOccupiedTotalNs.add(ns); runwayHoldHist.record(ns); }
+    public void addRunwayOccupiedDuration(long ms) { recordRunwayHoldNanos(ms * 1_000_000); }
+    public double runwayUtilization() { return utilization(runwayOccupiedTotalNs.sum(), clock.nowMs()); }
+    private double utilization(long occupiedNs, long nowMs) {
+        long elapsed = Math.max(1, nowMs - simStartMs);
         // Sum of per-runway occupied time divided by total capacity*time
-        return Math.min(1.0, (double) runwayOccupiedTotalMs.get() / (totalRunways * (double) elapsed));
+        return Math.min(1.0, occupiedNs / 1e6 / (totalRunways * (double) elapsed));
     }
 
+    // --- Turnaround --- : whole plane cycle, recorded by the plane itself (first request to last release).
+    public void recordTurnaroundNanos(long ns) { turnaroundHist.record(ns); }
+    public void addTurnaround(long ms) { recordTurnaroundNanos(ms * 1_000_000); }
+
+    // --- Holding patterns / diversions --- : recorded by planes using timed requests (HoldingPolicy).
+    public void incArrivalTimeout()   { arrivalTimeouts.increment(); }
+    public void incDepartureTimeout() { departureTimeouts.increment(); }
+    public void incGateTimeout()      { gateTimeouts.increment(); }
+    public void incDiversion()        { diversions.increment(); }
+    public void recordHoldingNanos(long ns) { holdingHist.record(ns); }
+
+    // --- Landing priority --- : recorded by the plane, so every controller reports it.
+    public void recordLandingWaitNanos(Airplane.Priority priority, long ns) { landingHist(priority).record(ns); }
+    private LatencyHistogram landingHist(Airplane.Priority priority) {
+        return switch (priority) {
+            case EMERGENCY -> emergencyLandingHist;
+            case LOW_FUEL -> lowFuelLandingHist;
+            case NORMAL -> normalLandingHist;
+        };
+    }
+
+    public long getArrivalTimeouts()   { return arrivalTimeouts.sum(); }
+    public long getDepartureTimeouts() { return departureTimeouts.sum(); }
+    public long getGateTimeouts()      { return gateTimeouts.sum(); }
+    public long getDiversions()        { return diversions.sum(); }
+
+    // --- Gate pre-reservation --- : the controller counts the clearance, the plane records the idle time when it parks.
+    public void incGateReservation() { gateReservations.increment(); }
+    public void recordReservedGateIdleNanos(long ns) { reservedGateIdleHist.record(ns); }
+    public long getGateReservations() { return gateReservations.sum(); }
+
+    // --- Latency histograms ---
+    public LatencyHistogram.Snapshot runwayWaitHistogram() { return runwayWaitHist.snapshot(); }
+    public LatencyHistogram.Snapshot gateWaitHistogram()   { return gateWaitHist.snapshot(); }
+    public LatencyHistogram.Snapshot arrivalWaitHistogram()   { return arrivalWaitHist.snapshot(); }
+    public LatencyHistogram.Snapshot departureWaitHistogram() { return departureWaitHist.snapshot(); }
+    public LatencyHistogram.Snapshot runwayHoldHistogram() { return runwayHoldHist.snapshot(); }
+    public LatencyHistogram.Snapshot turnaroundHistogram() { return turnaroundHist.snapshot(); }
+    public LatencyHistogram.Snapshot holdingHistogram()    { return holdingHist.snapshot(); }
+    public LatencyHistogram.Snapshot reservedGateIdleHistogram() { return reservedGateIdleHist.snapshot(); }
+    public LatencyHistogram.Snapshot landingWaitHistogram(Airplane.Priority priority) { return landingHist(priority).snapshot(); }
+
     // --- Wake-ups Counters---
-    public void incNotifyAll() { notifyAllCount.incrementAndGet(); }
-    
+    public void incNotifyAll() { notifyAllCount.increment(); }
+    public void incSignal() { signalCount.increment(); }
+    public void incFutileWakeup() { futileWakeupCount.increment(); }
+    public void addFutileWakeups(int n) { if (n > 0) futileWakeupCount.add(n); }
+
+    public long getNotifyAllCount() { return notifyAllCount.sum(); }
+    public long getSignalCount() { return signalCount.sum(); }
+    public long getFutileWakeupCount() { return futileWakeupCount.sum(); }
+
+    // --- Execution mode ---
+    public void setExecutionMode(String mode) { this.executionMode = mode; }
+    public String getExecutionMode() { return executionMode; }
+    public void incPinnedWait() { pinnedWaitCount.increment(); }
+    public long getPinnedWaitCount() { return pinnedWaitCount.sum(); }
+
+    // --- Adaptive strategy ---
+    // One switch: when (telemetry clock), from/to strategy, why, and how long the switch itself took.
+    public static final class StrategySwitch {
+        public final long atMs;
+        public final String from, to, reason;
+        public final long switchNanos;
 
-    public long getNotifyAllCount() { return notifyAllCount.get(); }
-    
+        StrategySwitch(long atMs, String from, String to, String reason, long switchNanos) {
+            this.atMs = atMs; this.from = from; this.to = to; this.reason = reason; this.switchNanos = switchNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s -> %s at %d ms (%s, took %.2f ms)", from, to, atMs, reason, switchNanos / 1e6);
+        }
+    }
+
+    public void setStrategy(String strategy) { this.strategy = strategy; }
+    public String getStrategy() { return strategy; }
+    public void recordStrategySwitch(String from, String to, String reason, long switchNanos) {
+        strategySwitches.add(new StrategySwitch(clock.nowMs() - simStartMs, from, to, reason, switchNanos));
+        strategy = to;
+    }
+    public List<StrategySwitch> strategySwitches() { return List.copyOf(strategySwitches); }
+
+    // --- Closures ---
+    // One closure or reopening: when (telemetry clock), which resource, and the queue depth at that moment.
+    public static final class CapacityChange {
+        public final long atMs;
+        public final Lease.Kind kind;
+        public final int index;
+        public final boolean closed;
+        public final int queuedPlanes;
+
+        CapacityChange(long atMs, Lease.Kind kind, int index, boolean closed, int queuedPlanes) {
+            this.atMs = atMs; this.kind = kind; this.index = index; this.closed = closed; this.queuedPlanes = queuedPlanes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s %s %d at %d ms (queue %d)",
+                    closed ? "close" : "reopen", kind == Lease.Kind.RUNWAY ? "runway" : "gate", index + 1, atMs, queuedPlanes);
+        }
+    }
+
+    // Reported by the controller after each closure/reopening it accepted, with its queue depth. A repeat of
+    // the current state is ignored (the adaptive controller closes the runway in both of its delegates).
+    public void capacityChanged(Lease.Kind kind, int index, boolean closed, int queuedPlanes) {
+        boolean runway = kind == Lease.Kind.RUNWAY;
+        AtomicIntegerArray flags = runway ? runwayClosed : gateClosed;
+        if (index >= flags.length() || flags.getAndSet(index, closed ? 1 : 0) == (closed ? 1 : 0)) return;
+        (runway ? runwaysInService : gatesInService).addAndGet(closed ? -1 : 1);
+        synchronized (capacityChanges) {
+            capacityChanges.add(new CapacityChange(clock.nowMs() - simStartMs, kind, index, closed, queuedPlanes));
+            if (closed) {
+                //a closure during recovery extends the same disruption: keep its baseline
+                if (closedNow++ == 0 && !recovering) baselineDepth = queuedPlanes;
+                recovering = false;
+            } else if (--closedNow == 0) {
+                restoredAtMs = clock.nowMs();
+                recovering = true;
+            }
+        }
+        if (!closed) queueDepth(queuedPlanes);
+    }
+
+    // Controllers report their queue depth on releases while this is true (after a disruption).
+    public boolean isRecovering() { return recovering; }
+
+    public void queueDepth(int queuedPlanes) {
+        if (!recovering) return;
+        synchronized (capacityChanges) {
+            if (!recovering || queuedPlanes > baselineDepth) return;
+            recovering = false;
+            recoveryHist.record((clock.nowMs() - restoredAtMs) * 1_000_000);
+        }
+    }
+
+    public boolean isRunwayClosed(int index) { return index < runwayClosed.length() && runwayClosed.get(index) != 0; }
+    public boolean isGateClosed(int index)   { return index < gateClosed.length() && gateClosed.get(index) != 0; }
+    public int getRunwaysInService() { return runwaysInService.get(); }
+    public int getGatesInService()   { return gatesInService.get(); }
+    public List<CapacityChange> capacityChanges() { return List.copyOf(capacityChanges); }
+    public LatencyHistogram.Snapshot recoveryHistogram() { return recoveryHist.snapshot(); }
 
 
     // --- Snapshots for GUI ---
     public int getTotalRunways() { return totalRunways; }
     public int getTotalGates()   { return totalGates; }
-    public int getOccupiedRunways() { return Math.max(0, Math.min(totalRunways, occupiedRunways.get())); }
-    public int getOccupiedGates()   { return Math.max(0, Math.min(totalGates, occupiedGates.get())); }
-
-    public String summary() {
-    
-     // Build the values first to avoid evaluation order confusion
-     int occRunways = getOccupiedRunways();
-     int totRunways = getTotalRunways();
-     int occGates = getOccupiedGates();
-     int totGates = getTotalGates();
-     List<String> taxi = taxiQueueSnapshot();
-     double avgRunway = avgRunwayWaitMs();
-     double avgGate = avgGateWaitMs();
-     double util = runwayUtilization();
-     long nAll = notifyAllCount.get();
-     
+    public int getOccupiedRunways() { return clamp(occupiedRunways.sum(), totalRunways); }
+    public int getOccupiedGates()   { return clamp(occupiedGates.sum(), totalGates); }
+    private static int clamp(long v, int max) { return (int) Math.max(0, Math.min(max, v)); }
+
+    // Every metric read once, so all values printed on one line come from the same pass.
+    public static final class Snapshot {
+        public final int occupiedRunways, occupiedGates, taxiQueueSize, peakTaxiQueueSize;
+        public final List<String> taxiHead;
+        public final double avgRunwayWaitMs, avgGateWaitMs, runwayUtilization;
+        public final long notifyAllCount, signalCount, futileWakeups, pinnedWaits;
+        public final long arrivalTimeouts, departureTimeouts, gateTimeouts, diversions, gateReservations;
+        public final String strategy;
+        public final int strategySwitches;
+        public final LatencyHistogram.Snapshot runwayWait, arrivalWait, departureWait, gateWait, runwayHold, turnaround, holding, reservedGateIdle;
+        public final LatencyHistogram.Snapshot emergencyLanding, lowFuelLanding, normalLanding;
+        public final int runwaysInService, gatesInService, capacityChanges;
+        public final LatencyHistogram.Snapshot recovery;
+        private final LatencyHistogram.Snapshot[] hists;
+        public final String runwayMap, gateMap;
+        public final double[] runwayUtilizations, gateUtilizations;
+
+        private Snapshot(AirportTelemetry t) {
+            long nowMs = t.clock.nowMs();
+            occupiedRunways = t.getOccupiedRunways();
+            occupiedGates = t.getOccupiedGates();
+            taxiQueueSize = t.taxiQueueSize();
+            peakTaxiQueueSize = t.peakTaxiQueueSize();
+            taxiHead = t.taxiQueueSnapshot(SUMMARY_TAXI_ENTRIES);
+            avgRunwayWaitMs = average(t.runwayWaitTotalNs.sum(), t.runwayWaitCount.sum());
+            avgGateWaitMs = average(t.gateWaitTotalNs.sum(), t.gateWaitCount.sum());
+            runwayUtilization = t.utilization(t.runwayOccupiedTotalNs.sum(), nowMs);
+            notifyAllCount = t.notifyAllCount.sum();
+            signalCount = t.signalCount.sum();
+            futileWakeups = t.futileWakeupCount.sum();
+            pinnedWaits = t.pinnedWaitCount.sum();
+            arrivalTimeouts = t.arrivalTimeouts.sum();
+            departureTimeouts = t.departureTimeouts.sum();
+            gateTimeouts = t.gateTimeouts.sum();
+            diversions = t.diversions.sum();
+            gateReservations = t.gateReservations.sum();
+            strategy = t.strategy;
+            strategySwitches = t.strategySwitches.size();
+            runwayWait = t.runwayWaitHist.snapshot();
+            arrivalWait = t.arrivalWaitHist.snapshot();
+            departureWait = t.departureWaitHist.snapshot();
+            gateWait = t.gateWaitHist.snapshot();
+            runwayHold = t.runwayHoldHist.snapshot();
+            turnaround = t.turnaroundHist.snapshot();
+            holding = t.holdingHist.snapshot();
+            reservedGateIdle = t.reservedGateIdleHist.snapshot();
+            emergencyLanding = t.emergencyLandingHist.snapshot();
+            lowFuelLanding = t.lowFuelLandingHist.snapshot();
+            normalLanding = t.normalLandingHist.snapshot();
+            runwayMap = occupancyMap(t.runwayInUse, t.runwayClosed);
+            gateMap = occupancyMap(t.gateInUse, t.gateClosed);
+            runwaysInService = t.runwaysInService.get();
+            gatesInService = t.gatesInService.get();
+            capacityChanges = t.capacityChanges.size();
+            recovery = t.recoveryHist.snapshot();
+            hists = new LatencyHistogram.Snapshot[] { runwayWait, arrivalWait, departureWait, gateWait, runwayHold, turnaround, holding, reservedGateIdle,
+                    emergencyLanding, lowFuelLanding, normalLanding, recovery };
+            runwayUtilizations = t.utilizations(t.runwayBusyNs, nowMs);
+            gateUtilizations = t.utilizations(t.gateBusyNs, nowMs);
+        }
+
+        // Busiest and idlest gate: hot spots the averages hide.
+        public double minGateUtilization() { double m = 1.0; for (double u : gateUtilizations) m = Math.min(m, u); return m; }
+        public double maxGateUtilization() { double m = 0.0; for (double u : gateUtilizations) m = Math.max(m, u); return m; }
+
+        // In HIST_NAMES order
+        LatencyHistogram.Snapshot[] histograms() { return hists; }
+    }
+
+    public Snapshot snapshot() { return new Snapshot(this); }
+
+    // --- CSV export (schema read by generate_charts.py) ---
+    private static final String[] HIST_NAMES = {"runwayWait", "arrivalWait", "departureWait", "gateWait", "runwayHold", "turnaround", "holding", "reservedGateIdle",
+            "emergencyLanding", "lowFuelLanding", "normalLanding", "recovery"};
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"P50", "P90", "P99", "P999"};
+
+    // One CSV column after `time`: a number with its format ("%d" or "%.Nf"), or text of a fixed width
+    // (the occupancy maps, the strategy name). csvRow() and TelemetryRecorder share this table.
+    static final class Column {
+        final String name;
+        final String format;
+        final ToDoubleFunction<Snapshot> number;   // null for text
+        final Function<Snapshot, String> text;
+        final ToIntFunction<AirportTelemetry> width;
+
+        private Column(String name, String format, ToDoubleFunction<Snapshot> number, Function<Snapshot, String> text, ToIntFunction<AirportTelemetry> width) {
+            this.name = name; this.format = format; this.number = number; this.text = text; this.width = width;
+        }
+
+        static Column count(String name, ToDoubleFunction<Snapshot> v) { return new Column(name, "%d", v, null, null); }
+        static Column real(String name, String format, ToDoubleFunction<Snapshot> v) { return new Column(name, format, v, null, null); }
+        static Column text(String name, Function<Snapshot, String> v, ToIntFunction<AirportTelemetry> width) { return new Column(name, null, null, v, width); }
+
+        boolean isText() { return number == null; }
+
+        String format(double v) {
+            return format.equals("%d") ? Long.toString((long) v) : String.format(Locale.US, format, v);
+        }
+    }
+
+    static final List<Column> COLUMNS = columns();
+
+    private static List<Column> columns() {
+        List<Column> c = new ArrayList<>();
+        c.add(Column.count("occupiedRunways", t -> t.occupiedRunways));
+        c.add(Column.count("occupiedGates", t -> t.occupiedGates));
+        c.add(Column.count("taxiQueueSize", t -> t.taxiQueueSize));
+        c.add(Column.real("avgRunwayWait", "%.1f", t -> t.avgRunwayWaitMs));
+        c.add(Column.real("avgGateWait", "%.1f", t -> t.avgGateWaitMs));
+        c.add(Column.real("utilization", "%.2f", t -> t.runwayUtilization));
+        c.add(Column.count("notifyAllCount", t -> t.notifyAllCount));
+        c.add(Column.count("signalCount", t -> t.signalCount));
+        c.add(Column.count("futileWakeups", t -> t.futileWakeups));
+        for (int h = 0; h < HIST_NAMES.length; h++) {
+            final int hist = h;
+            for (int p = 0; p < PERCENTILES.length; p++) {
+                final double pct = PERCENTILES[p];
+                c.add(Column.real(HIST_NAMES[h] + PERCENTILE_NAMES[p], "%.3f", t -> t.histograms()[hist].percentileMs(pct)));
+            }
+            c.add(Column.real(HIST_NAMES[h] + "Max", "%.3f", t -> t.histograms()[hist].maxMs()));
+        }
+        c.add(Column.text("runwayMap", t -> t.runwayMap, t -> t.totalRunways));
+        c.add(Column.text("gateMap", t -> t.gateMap, t -> t.totalGates));
+        c.add(Column.real("gateUtilMin", "%.3f", Snapshot::minGateUtilization));
+        c.add(Column.real("gateUtilMax", "%.3f", Snapshot::maxGateUtilization));
+        c.add(Column.count("arrivalTimeouts", t -> t.arrivalTimeouts));
+        c.add(Column.count("departureTimeouts", t -> t.departureTimeouts));
+        c.add(Column.count("gateTimeouts", t -> t.gateTimeouts));
+        c.add(Column.count("diversions", t -> t.diversions));
+        c.add(Column.count("gateReservations", t -> t.gateReservations));
+        c.add(Column.text("strategy", t -> t.strategy, t -> 16));
+        c.add(Column.count("strategySwitches", t -> t.strategySwitches));
+        c.add(Column.count("runwaysInService", t -> t.runwaysInService));
+        c.add(Column.count("gatesInService", t -> t.gatesInService));
+        return List.copyOf(c);
+    }
+
+    public static String csvHeader() {
+        StringBuilder sb = new StringBuilder("time");
+        for (Column c : COLUMNS) sb.append(',').append(c.name);
+        return sb.toString();
+    }
+
+    public String csvRow(long elapsedSec) { return csvRow(elapsedSec, snapshot()); }
+
+    public static String csvRow(long elapsedSec, Snapshot t) {
+        StringBuilder sb = new StringBuilder(1024).append(elapsedSec);
+        for (Column c : COLUMNS) sb.append(',').append(c.isText() ? c.text.apply(t) : c.format(c.number.applyAsDouble(t)));
+        return sb.toString();
+    }
+
+    // e.g. "runwayWait[p50=1.2 p90=3.4 p99=8.0 p999=9.1 max=9.3 ms]"
+    private static String percentiles(String name, LatencyHistogram.Snapshot h) {
+        return String.format(Locale.US, "%s[p50=%.1f p90=%.1f p99=%.1f p999=%.1f max=%.1f ms]",
+                name, h.percentileMs(50), h.percentileMs(90), h.percentileMs(99), h.percentileMs(99.9), h.maxMs());
+    }
+
+    public String summary() { return summary(snapshot()); }
+
+    public String summary(Snapshot t) {
+     String taxi = t.taxiHead.toString();
+     if (t.taxiQueueSize > t.taxiHead.size()) taxi += "+" + (t.taxiQueueSize - t.taxiHead.size());
+     LatencyHistogram.Snapshot[] hists = t.histograms();
+     StringBuilder latency = new StringBuilder();
+     for (int i = 0; i < hists.length; i++) latency.append(", ").append(percentiles(HIST_NAMES[i], hists[i]));
+     // Only the adaptive controller sets a strategy
+     String adaptive = t.strategy.isEmpty() ? "" : String.format(Locale.US, ", strategy=%s (switches %d)", t.strategy, t.strategySwitches);
+     if (t.capacityChanges > 0) adaptive += String.format(Locale.US, ", inService(runway/gate)=%d/%d (changes %d)",
+             t.runwaysInService, t.gatesInService, t.capacityChanges);
 
      // Use Locale.US to ensure '.' decimal and prevent locale issues
      return String.format(
              Locale.US,
-             "Telemetry: runways=%d/%d, gates=%d/%d, taxi=%s, avgWait(runway)=%.1f ms, avgWait(gate)=%.1f ms, util(runway)=%.2f, notifyAll=%d",
-             occRunways, totRunways,
-             occGates,   totGates,
-             taxi,                 // <-- %s for List is fine
-             avgRunway,            // <-- %.1f needs a double
-             avgGate,              // <-- %.1f needs a double
-             util,                 // <-- %.2f needs a double 
-             nAll      // <-- %d is longs (OK)
+             "Telemetry: runways=%d/%d, gates=%d/%d, taxi=%s (peak %d), avgWait(runway)=%.1f ms, avgWait(gate)=%.1f ms, util(runway)=%.2f, notifyAll=%d, signal=%d, futileWakeups=%d, threads=%s, pinnedWaits=%d, timeouts(arr/dep/gate)=%d/%d/%d, diversions=%d, gateReservations=%d%s%s",
+             t.occupiedRunways, totalRunways,
+             t.occupiedGates,   totalGates,
+             taxi,                 // <-- first entries, "+n" when longer
+             t.peakTaxiQueueSize,
+             t.avgRunwayWaitMs,    // <-- %.1f needs a double
+             t.avgGateWaitMs,      // <-- %.1f needs a double
+             t.runwayUtilization,  // <-- %.2f needs a double
+             t.notifyAllCount,     // <-- %d is longs (OK)
+             t.signalCount,
+             t.futileWakeups,
+             executionMode,
+             t.pinnedWaits,
+             t.arrivalTimeouts, t.departureTimeouts, t.gateTimeouts,
+             t.diversions,
+             t.gateReservations,
+             adaptive,
+             latency
      );
  }
 }
@@ -0,0 +1,19 @@
+package Shared.src;
+
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * Non-blocking variant of Airport: each request returns a future completed with the lease once the
+ * resource is granted. Pending requests are queue nodes, not parked threads.
+ * Give up on a request with future.cancel(..) or set a deadline with future.orTimeout(..): either way
+ * the waiter is dropped and never granted. Dependent stages run on the thread that grants the resource
+ * (usually the one releasing it), so keep them short or use the *Async stage methods.
+ */
+public interface AsyncAirport {
+    CompletableFuture<Lease> acquireRunwayForArrivalAsync(Airplane a);
+    CompletableFuture<Lease> acquireRunwayForDepartureAsync(Airplane a);
+    CompletableFuture<Lease> acquireGateAsync(Airplane a);
+
+    // Same as Airport.release: may be called from any thread.
+    void release(Lease lease);
+}
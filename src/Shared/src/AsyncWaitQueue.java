@@ -0,0 +1,81 @@
+package Shared.src;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * FIFO of pending async requests for one kind of resource. Not thread-safe: the controller guards it
+ * with the same lock as its resource counts. A cancelled request is only marked and skipped later, so
+ * cancel() is O(1) even with 100k waiters; the deque is compacted once marked nodes outnumber live ones.
+ */
+public final class AsyncWaitQueue {
+    private static final AtomicLong ANONYMOUS = new AtomicLong();
+
+    public static final class Request {
+        public final CompletableFuture<Lease> future = new CompletableFuture<>();
+        public final String planeId;
+        public final int plane;   // Airplane.traceId(), 0 if anonymous
+        public final long waitStartNanos = System.nanoTime();
+        private boolean pending = true;
+
+        public Request(Airplane a) {
+            this(a != null ? a.getName() : "Request-" + ANONYMOUS.incrementAndGet(), Airplane.traceIdOf(a));
+        }
+
+        // A blocking caller queued as a ticket, under its own id (e.g. the thread name the taxiway shows).
+        public Request(String planeId) {
+            this(planeId, 0);
+        }
+
+        public Request(String planeId, int plane) {
+            this.planeId = planeId;
+            this.plane = plane;
+        }
+
+        public boolean isPending() { return pending; }
+
+        // Take the request out of the pending state (granted or cancelled); false if it already was.
+        public boolean finish() {
+            if (!pending) return false;
+            pending = false;
+            return true;
+        }
+    }
+
+    private final ArrayDeque<Request> queue = new ArrayDeque<>();
+    private int live = 0;
+    private int dead = 0;
+
+    public void add(Request r) {
+        queue.add(r);
+        live++;
+    }
+
+    // Next pending request, marked as granted; null if none.
+    public Request poll() {
+        Request r;
+        while ((r = queue.poll()) != null) {
+            if (r.finish()) {
+                live--;
+                return r;
+            }
+            dead--;
+        }
+        return null;
+    }
+
+    // Drop a request that is still pending; false if it was already granted or cancelled.
+    public boolean cancel(Request r) {
+        if (!r.finish()) return false;
+        live--;
+        if (++dead > 64 && dead > live) {
+            queue.removeIf(q -> !q.isPending());
+            dead = 0;
+        }
+        return true;
+    }
+
+    public int size() { return live; }
+    public boolean isEmpty() { return live == 0; }
+}
@@ -0,0 +1,202 @@
+package Shared.src;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Per-event trace of the controllers (request, grant, release, timeout, wake-up) in a preallocated ring
+ * that any number of threads write and one drain thread empties to disk. Recording allocates nothing and
+ * never waits: one getAndIncrement claims a sequence number, then three plain long writes fill its slot.
+ *
+ * Each slot is three longs of one array: sequence, nanoTime, and plane/event/index packed. The slot is
+ * published like a seqlock: marked busy (-1), filled, then its sequence stored with release semantics. The
+ * drain reads the sequence, the fields, the sequence again, and keeps the event only if both match the one
+ * it expects. When the drain falls a whole ring behind, producers overwrite the oldest slots instead of
+ * waiting; those events are counted in dropped(), never blocked on. (Two producers a full ring apart writing
+ * the same slot at once could still tear it; the ring is sized so that needs a drain stalled for 64k events.)
+ *
+ * File format (big-endian): MAGIC, then 16 bytes per event: nanoTime, plane (int), event (byte), index
+ * (3 bytes, -1 = none), in the order the sequence numbers were claimed: a thread descheduled between reading
+ * the clock and claiming its slot lands after later events. toCsv() converts it to nanos,plane,event,index,
+ * time relative to the first record (so slightly negative now and then).
+ */
+public final class EventTrace implements AutoCloseable {
+    public enum Event {
+        ARRIVAL_REQUEST, DEPARTURE_REQUEST, GATE_REQUEST,
+        RUNWAY_GRANT, GATE_GRANT, RUNWAY_RELEASE, GATE_RELEASE,
+        ARRIVAL_TIMEOUT, DEPARTURE_TIMEOUT, GATE_TIMEOUT,
+        WAKEUP,          // one waiter handed its runway/gate directly (plane = the waiter)
+        NOTIFY_ALL,      // broadcast wake-up of the monitor's lock waiters
+        FUTILE_WAKEUP    // woken waiters that found nothing and waited again (index = how many)
+    }
+
+    private static final Event[] EVENTS = Event.values();
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int MAGIC = 0x4154524B;   // "ATRK"
+    private static final int STRIDE = 3;
+    private static final long BUSY = -1L;
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final long[] slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private long tail = 0;                      // drain thread only
+    private final AtomicLong dropped = new AtomicLong();
+
+    private Thread drainer;
+    private volatile boolean closing = false;
+
+    public EventTrace() { this(DEFAULT_CAPACITY); }
+
+    // capacity: events the drain may fall behind before the oldest are dropped; a power of two.
+    public EventTrace(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("capacity must be a power of two >= 2");
+        this.slots = new long[capacity * STRIDE];
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) slots[i * STRIDE] = i - (long) capacity;   // nothing published yet
+    }
+
+    // --- Producers (any thread) ---
+
+    // index: runway/gate number, a count (FUTILE_WAKEUP), or -1. plane: Airplane.traceId(), 0 if unknown.
+    public void record(Event event, int plane, int index) {
+        long nanos = System.nanoTime();
+        long seq = head.getAndIncrement();
+        int at = (int) (seq & mask) * STRIDE;
+        SLOTS.setOpaque(slots, at, BUSY);
+        VarHandle.storeStoreFence();
+        slots[at + 1] = nanos;
+        slots[at + 2] = ((long) plane << 32) | ((long) event.ordinal() << 24) | (index & 0xFFFFFFL);
+        SLOTS.setRelease(slots, at, seq);
+    }
+
+    public long recorded() { return head.get(); }
+    public long dropped() { return dropped.get(); }
+
+    // --- Consumer (one thread) ---
+
+    @FunctionalInterface
+    public interface Sink {
+        void accept(long nanos, int plane, Event event, int index);
+    }
+
+    // Hand up to max published events, in order, to the sink; returns how many. Single consumer only.
+    public int drain(Sink sink, int max) {
+        int n = 0;
+        while (n < max) {
+            int at = (int) (tail & mask) * STRIDE;
+            long seq = (long) SLOTS.getAcquire(slots, at);
+            if (seq == tail) {
+                long nanos = slots[at + 1];
+                long packed = slots[at + 2];
+                VarHandle.loadLoadFence();
+                if ((long) SLOTS.getOpaque(slots, at) == seq) {
+                    int index = (int) (packed << 40 >> 40);   // sign-extend 24 bits
+                    sink.accept(nanos, (int) (packed >>> 32), EVENTS[(int) (packed >>> 24) & 0xFF], index);
+                    n++;
+                } else {
+                    dropped.incrementAndGet();   // overwritten while we read it
+                }
+            } else if (seq > tail) {
+                dropped.incrementAndGet();       // lapped: this event was overwritten
+            } else {
+                break;                           // not published yet (or being written)
+            }
+            tail++;
+        }
+        return n;
+    }
+
+    // Start the drain thread writing to file. Call once.
+    public void start(Path file) throws IOException {
+        FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        ByteBuffer buf = ByteBuffer.allocateDirect(64 * 1024);
+        buf.putInt(MAGIC);
+        Sink toBuffer = (nanos, plane, event, index) -> buf.putLong(nanos).putInt(plane).putInt((event.ordinal() << 24) | (index & 0xFFFFFF));
+        drainer = new Thread(() -> {
+            try (out) {
+                for (;;) {
+                    boolean last = closing;
+                    int n = drain(toBuffer, buf.remaining() / 16);
+                    if (buf.remaining() < 16 || (n == 0 && buf.position() > 0)) {
+                        buf.flip();
+                        while (buf.hasRemaining()) out.write(buf);
+                        buf.clear();
+                    }
+                    if (n == 0) {
+                        if (last) return;
+                        LockSupport.parkNanos(1_000_000L);
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, "event-trace");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    // Drain what was recorded so far, then stop. Events recorded after this are not written.
+    @Override
+    public void close() {
+        closing = true;
+        if (drainer == null) return;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Reading back ---
+
+    public static void toCsv(Path trace, Path csv) throws IOException {
+        try (Writer out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            toCsv(trace, out);
+        }
+    }
+
+    public static void toCsv(Path trace, Writer out) throws IOException {
+        try (FileChannel in = FileChannel.open(trace, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+            in.read(buf);
+            buf.flip();
+            if (buf.remaining() < 4 || buf.getInt() != MAGIC) throw new IOException(trace + " is not an event trace");
+            out.write("nanos,plane,event,index\n");
+            long first = Long.MIN_VALUE;
+            for (;;) {
+                if (buf.remaining() < 16) {
+                    buf.compact();
+                    if (in.read(buf) < 0 && buf.position() < 16) return;
+                    buf.flip();
+                    continue;
+                }
+                long nanos = buf.getLong();
+                int plane = buf.getInt();
+                int word = buf.getInt();
+                if (first == Long.MIN_VALUE) first = nanos;
+                out.write((nanos - first) + "," + plane + "," + EVENTS[word >>> 24] + "," + (word << 8 >> 8) + "\n");
+            }
+        }
+    }
+
+    // java Shared.src.EventTrace trace.bin trace.csv
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: EventTrace <trace.bin> <out.csv>");
+            System.exit(2);
+        }
+        toCsv(Path.of(args[0]), Path.of(args[1]));
+    }
+}
@@ -0,0 +1,131 @@
+package Shared.src;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/*
+ * One plane of a workload, fixed before it flies: when it shows up, whether it arrives or only departs, its
+ * priority, and how long it holds each resource. An Airplane built from a plan (Airplane(FlightPlan, ...))
+ * draws nothing itself, so replaying the same plans against two controllers (Headless.src.TraceReplay) gives
+ * both the very same traffic and the per-plane latencies can be compared one to one.
+ *
+ * Workload file: one CSV line per plane, in injection order, times in ms:
+ *   id,atMs,type,priority,landMs,gateMs,prepMs,takeoffMs,seed
+ * type is ARRIVAL (land, park, take off) or DEPARTURE (take off only; land/gate/prep are 0). seed feeds what
+ * still depends on the controller: holding-pattern jitter and the stay at the gate after a timed-out departure.
+ */
+public final class FlightPlan {
+    public static final String CSV_HEADER = "id,atMs,type,priority,landMs,gateMs,prepMs,takeoffMs,seed";
+
+    public final String id;
+    public final long atNanos;        // from the start of injection
+    public final boolean arrivalFirst;
+    public final Airplane.Priority priority;
+    public final long landNanos;      // on the runway after landing
+    public final long gateNanos;      // parked
+    public final long prepNanos;      // between leaving the gate and asking for the runway
+    public final long takeoffNanos;   // on the runway to take off
+    public final long seed;
+    public final double speed;        // clock the times above were scaled by; the plane scales its own waits too
+
+    public FlightPlan(String id, long atNanos, boolean arrivalFirst, Airplane.Priority priority,
+                      long landNanos, long gateNanos, long prepNanos, long takeoffNanos, long seed) {
+        this(id, atNanos, arrivalFirst, priority, landNanos, gateNanos, prepNanos, takeoffNanos, seed, 1);
+    }
+
+    private FlightPlan(String id, long atNanos, boolean arrivalFirst, Airplane.Priority priority,
+                       long landNanos, long gateNanos, long prepNanos, long takeoffNanos, long seed, double speed) {
+        if (atNanos < 0 || landNanos < 0 || gateNanos < 0 || prepNanos < 0 || takeoffNanos < 0) {
+            throw new IllegalArgumentException("plan times must be >= 0: " + id);
+        }
+        this.id = id;
+        this.atNanos = atNanos;
+        this.arrivalFirst = arrivalFirst;
+        this.priority = priority;
+        this.landNanos = landNanos;
+        this.gateNanos = gateNanos;
+        this.prepNanos = prepNanos;
+        this.takeoffNanos = takeoffNanos;
+        this.seed = seed;
+        this.speed = speed;
+    }
+
+    // The hold times Airplane always used (landing 200-500 ms, parked 400-1200, preparing 200-500,
+    // takeoff 200-500), drawn from rng so a seeded generator gives the same workload every run.
+    public static FlightPlan random(String id, long atNanos, boolean arrivalFirst, Airplane.Priority priority, Random rng) {
+        long land = arrivalFirst ? ms(200 + rng.nextInt(300)) : 0;
+        long gate = arrivalFirst ? ms(400 + rng.nextInt(800)) : 0;
+        long prep = arrivalFirst ? ms(200 + rng.nextInt(300)) : 0;
+        long takeoff = ms(200 + rng.nextInt(300));
+        return new FlightPlan(id, atNanos, arrivalFirst, priority, land, gate, prep, takeoff, rng.nextLong());
+    }
+
+    // Same plane on a clock running speed times faster; infinite speed: injected at once, no holds.
+    public FlightPlan scaled(double speed) {
+        if (speed <= 0) throw new IllegalArgumentException("speed must be > 0");
+        if (speed == 1) return this;
+        return new FlightPlan(id, scale(atNanos, speed), arrivalFirst, priority, scale(landNanos, speed),
+                scale(gateNanos, speed), scale(prepNanos, speed), scale(takeoffNanos, speed), seed, this.speed * speed);
+    }
+
+    // A wait of ms on this plan's clock (holding patterns, the stay at the gate after a timed-out departure).
+    public long scaledNanos(long ms) {
+        return scale(ms * 1_000_000L, speed);
+    }
+
+    private static long scale(long nanos, double speed) {
+        return Double.isInfinite(speed) ? 0 : Math.round(nanos / speed);
+    }
+
+    private static long ms(long ms) { return ms * 1_000_000L; }
+
+    public String toCsv() {
+        return String.format(Locale.US, "%s,%.3f,%s,%s,%.3f,%.3f,%.3f,%.3f,%d", id, atNanos / 1e6,
+                arrivalFirst ? "ARRIVAL" : "DEPARTURE", priority, landNanos / 1e6, gateNanos / 1e6,
+                prepNanos / 1e6, takeoffNanos / 1e6, seed);
+    }
+
+    public static FlightPlan parse(String line) {
+        String[] f = line.split(",");
+        if (f.length != 9) throw new IllegalArgumentException("expected " + CSV_HEADER + ", got: " + line);
+        boolean arrival = switch (f[2].trim()) {
+            case "ARRIVAL" -> true;
+            case "DEPARTURE" -> false;
+            default -> throw new IllegalArgumentException("type must be ARRIVAL or DEPARTURE, got: " + f[2]);
+        };
+        return new FlightPlan(f[0].trim(), nanos(f[1]), arrival, Airplane.Priority.valueOf(f[3].trim()),
+                nanos(f[4]), nanos(f[5]), nanos(f[6]), nanos(f[7]), Long.parseLong(f[8].trim()));
+    }
+
+    private static long nanos(String ms) { return Math.round(Double.parseDouble(ms.trim()) * 1e6); }
+
+    public static List<FlightPlan> read(Path file) throws IOException {
+        List<FlightPlan> plans = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#") || line.equals(CSV_HEADER)) continue;
+                plans.add(parse(line));
+            }
+        }
+        return plans;
+    }
+
+    public static void write(Path file, List<FlightPlan> plans) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(CSV_HEADER + "\n");
+            for (FlightPlan p : plans) out.write(p.toCsv() + "\n");
+        }
+    }
+
+    @Override
+    public String toString() { return toCsv(); }
+}
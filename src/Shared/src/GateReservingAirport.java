@@ -0,0 +1,11 @@
+package Shared.src;
+
+/*
+ * Arrival mode that pipelines the turnaround: landing clearance is only given together with a gate,
+ * so a plane never lands into a full apron and never waits on the taxiway.
+ * The reserved gate is idle while the plane lands and taxis (AirportTelemetry records that cost).
+ */
+public interface GateReservingAirport extends Airport {
+    // Block until a runway and a gate are both granted to this arrival (or interrupted: nothing held).
+    LandingClearance acquireLandingClearance(Airplane a) throws InterruptedException;
+}
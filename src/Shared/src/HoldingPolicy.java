@@ -0,0 +1,55 @@
+package Shared.src;
+
+import java.util.Random;
+
+/*
+ * How a plane copes with a saturated airport, through the timed Airport requests:
+ *   - an arrival that gets no runway within runwayTimeoutMs flies a holding pattern and asks again;
+ *     patterns grow exponentially from holdBaseMs up to holdMaxMs (with jitter, so holding planes
+ *     do not all come back at once). After maxHolds patterns it diverts to another airport.
+ *   - a departure that gets no runway within runwayTimeoutMs goes back to the gate queue, waits at a
+ *     gate again (gatePauseMs) and retries; if no gate frees up within gateTimeoutMs it tries the runway
+ *     again instead. A departure-only plane never had a gate: it just asks for the runway again.
+ *   - a plane that just landed has nowhere else to go: it keeps waiting for its gate.
+ * BLOCKING waits forever, as before.
+ */
+public final class HoldingPolicy {
+    public static final HoldingPolicy BLOCKING = new HoldingPolicy(0, 0, 0, 0, 0);
+
+    public final long runwayTimeoutMs;  // 0 = wait forever
+    public final long gateTimeoutMs;    // 0 = wait forever (returning departures only)
+    public final long holdBaseMs;
+    public final long holdMaxMs;
+    public final int maxHolds;
+
+    public HoldingPolicy(long runwayTimeoutMs, long gateTimeoutMs, long holdBaseMs, long holdMaxMs, int maxHolds) {
+        if (runwayTimeoutMs < 0 || gateTimeoutMs < 0 || holdBaseMs < 0 || holdMaxMs < holdBaseMs || maxHolds < 0) {
+            throw new IllegalArgumentException("invalid holding policy");
+        }
+        this.runwayTimeoutMs = runwayTimeoutMs;
+        this.gateTimeoutMs = gateTimeoutMs;
+        this.holdBaseMs = holdBaseMs;
+        this.holdMaxMs = holdMaxMs;
+        this.maxHolds = maxHolds;
+    }
+
+    public boolean isTimed() { return runwayTimeoutMs > 0; }
+
+    // Length of holding pattern n (from 0): between half and all of min(holdMax, holdBase * 2^n).
+    public long holdMs(int n, Random rng) {
+        long cap = Math.min(holdMaxMs, holdBaseMs << Math.min(n, 30));
+        return cap / 2 + (cap > 1 ? rng.nextInt((int) Math.min(Integer.MAX_VALUE, cap / 2 + 1)) : 0);
+    }
+
+    // Stay at the gate after a timed-out departure, before asking for the runway again: 200-500 ms.
+    public long gatePauseMs(Random rng) {
+        return 200 + rng.nextInt(300);
+    }
+
+    @Override
+    public String toString() {
+        if (!isTimed()) return "blocking";
+        return "runwayTimeout=" + runwayTimeoutMs + "ms gateTimeout=" + gateTimeoutMs + "ms hold="
+                + holdBaseMs + ".." + holdMaxMs + "ms maxHolds=" + maxHolds;
+    }
+}
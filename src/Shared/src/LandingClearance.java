@@ -0,0 +1,21 @@
+package Shared.src;
+
+/*
+ * Runway to land on plus the gate reserved for after taxi-in, granted together by a
+ * GateReservingAirport. Both leases are released separately (runway after landing, gate after parking).
+ */
+public final class LandingClearance {
+    private final Lease runway;
+    private final Lease gate;
+
+    public LandingClearance(Lease runway, Lease gate) {
+        this.runway = runway;
+        this.gate = gate;
+    }
+
+    public Lease runway() { return runway; }
+    public Lease gate() { return gate; }
+
+    @Override
+    public String toString() { return runway + "+" + gate; }
+}
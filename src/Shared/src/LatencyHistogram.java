@@ -0,0 +1,102 @@
+package Shared.src;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Fixed-memory latency histogram in nanoseconds, HDR-style log-linear buckets:
+ * values below 32 ns are exact, above that each power of two is split into 32 sub-buckets (~3% error).
+ * Values above ~18 minutes (2^40 ns) land in the last bucket; max is tracked exactly.
+ *
+ * record() is lock-free and allocation-free: one getAndIncrement on the caller's stripe
+ * (stripes picked by thread id, so recording threads rarely share a cache line).
+ * Reads merge the stripes into a Snapshot.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int MAX_EXP = 40;
+    private static final int BUCKETS = SUB + (MAX_EXP - SUB_BITS + 1) * SUB;
+    private static final long MAX_TRACKABLE = (1L << (MAX_EXP + 1)) - 1;
+
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+    private final AtomicLong max = new AtomicLong(0);
+
+    public LatencyHistogram() {
+        int n = Integer.highestOneBit(Math.max(1, Math.min(16, Runtime.getRuntime().availableProcessors())) * 2 - 1);
+        stripes = new AtomicLongArray[n];
+        for (int i = 0; i < n; i++) stripes[i] = new AtomicLongArray(BUCKETS);
+        stripeMask = n - 1;
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        stripes[stripeIndex()].getAndIncrement(bucketOf(Math.min(nanos, MAX_TRACKABLE)));
+        long m;
+        while (nanos > (m = max.get()) && !max.compareAndSet(m, nanos)) { /* retry */ }
+    }
+
+    private int stripeIndex() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 59) & stripeMask;
+    }
+
+    static int bucketOf(long v) {
+        if (v < SUB) return (int) v;
+        int shift = (63 - Long.numberOfLeadingZeros(v)) - SUB_BITS;
+        return SUB + shift * SUB + (int) ((v >>> shift) - SUB);
+    }
+
+    // Midpoint of the bucket's value range.
+    static long valueOf(int bucket) {
+        if (bucket < SUB) return bucket;
+        int shift = (bucket - SUB) / SUB;
+        long m = (bucket - SUB) % SUB + SUB;
+        return (m << shift) + ((1L << shift) >> 1);
+    }
+
+    public Snapshot snapshot() {
+        long[] merged = new long[BUCKETS];
+        long count = 0;
+        for (AtomicLongArray s : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long c = s.get(i);
+                merged[i] += c;
+                count += c;
+            }
+        }
+        return new Snapshot(merged, count, max.get());
+    }
+
+    // Point-in-time merged view; all percentiles come from the same counts.
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.max = max;
+        }
+
+        public long count() { return count; }
+        public long maxNanos() { return max; }
+
+        // Value at percentile p (0..100), in ns; 0 when empty.
+        public long valueAtPercentile(double p) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(p / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(valueOf(i), max);
+            }
+            return max;
+        }
+
+        public double percentileMs(double p) { return valueAtPercentile(p) / 1e6; }
+        public double maxMs() { return max / 1e6; }
+    }
+}
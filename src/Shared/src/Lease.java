@@ -0,0 +1,46 @@
+package Shared.src;
+
+/*
+ * Proof of holding one runway or gate, returned by the Airport acquire methods and handed back to
+ * Airport.release(). Carries the concrete resource index and the acquisition time, so a release
+ * needs no per-thread lookup and may happen on any thread. Release each lease exactly once.
+ */
+public final class Lease {
+    public enum Kind { RUNWAY, GATE }
+
+    private final Airport owner;
+    private final Kind kind;
+    private final int index;
+    private final long acquiredAtNanos;
+    private final int plane;
+
+    public Lease(Airport owner, Kind kind, int index, long acquiredAtNanos) {
+        this(owner, kind, index, acquiredAtNanos, 0);
+    }
+
+    // plane: Airplane.traceId() of the holder, so the release can be traced to it (0 if unknown)
+    public Lease(Airport owner, Kind kind, int index, long acquiredAtNanos, int plane) {
+        this.owner = owner;
+        this.kind = kind;
+        this.index = index;
+        this.acquiredAtNanos = acquiredAtNanos;
+        this.plane = plane;
+    }
+
+    public Airport owner() { return owner; }
+    public Kind kind() { return kind; }
+    // 0-based runway or gate number
+    public int index() { return index; }
+    public long acquiredAtNanos() { return acquiredAtNanos; }
+    public int plane() { return plane; }
+    public long heldNanos() { return System.nanoTime() - acquiredAtNanos; }
+
+    // Throws if this lease was not issued by the given airport for the given kind of resource.
+    public void checkOwner(Airport airport, Kind expected) {
+        if (owner != airport) throw new IllegalArgumentException(this + " was not issued by this airport");
+        if (kind != expected) throw new IllegalArgumentException(this + " is not a " + expected + " lease");
+    }
+
+    @Override
+    public String toString() { return kind + "#" + index; }
+}
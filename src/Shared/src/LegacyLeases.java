@@ -0,0 +1,22 @@
+package Shared.src;
+
+import java.util.ArrayList;
+
+// Leases held through the void request/release adapters of Airport, per thread.
+final class LegacyLeases {
+    private static final ThreadLocal<ArrayList<Lease>> HELD = ThreadLocal.withInitial(() -> new ArrayList<>(2));
+
+    private LegacyLeases() {}
+
+    static void hold(Lease lease) { HELD.get().add(lease); }
+
+    // Most recent lease of that kind taken by this thread from this airport.
+    static Lease take(Airport airport, Lease.Kind kind) {
+        ArrayList<Lease> held = HELD.get();
+        for (int i = held.size() - 1; i >= 0; i--) {
+            Lease l = held.get(i);
+            if (l.owner() == airport && l.kind() == kind) return held.remove(i);
+        }
+        throw new IllegalStateException("no " + kind + " held by " + Thread.currentThread().getName());
+    }
+}
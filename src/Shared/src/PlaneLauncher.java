@@ -0,0 +1,88 @@
+package Shared.src;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/*
+ * Starts plane bodies (Airplane, GUIAirplane) either on platform threads or on virtual threads.
+ * The project compiles against Java 17, so the Java 21 virtual-thread API is looked up reflectively;
+ * on an older runtime VIRTUAL silently falls back to PLATFORM (see getEffectiveMode()).
+ */
+public class PlaneLauncher {
+    public enum Mode { PLATFORM, VIRTUAL }
+
+    // Thread.ofVirtual(), Thread.Builder.name(String), Thread.Builder.unstarted(Runnable), Thread.isVirtual()
+    private static final MethodHandle OF_VIRTUAL;
+    private static final MethodHandle BUILDER_NAME;
+    private static final MethodHandle BUILDER_UNSTARTED;
+    private static final MethodHandle IS_VIRTUAL;
+
+    static {
+        MethodHandle ofVirtual = null, name = null, unstarted = null, isVirtual = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            Class<?> ofVirtualType = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualType));
+            name = lookup.findVirtual(builder, "name", MethodType.methodType(builder, String.class));
+            unstarted = lookup.findVirtual(builder, "unstarted", MethodType.methodType(Thread.class, Runnable.class));
+            isVirtual = lookup.findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            ofVirtual = null; // runtime older than Java 21
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_UNSTARTED = unstarted;
+        IS_VIRTUAL = isVirtual;
+    }
+
+    private final Mode requestedMode;
+    private final Mode effectiveMode;
+
+    public PlaneLauncher(Mode mode) {
+        this.requestedMode = mode;
+        this.effectiveMode = (mode == Mode.VIRTUAL && OF_VIRTUAL == null) ? Mode.PLATFORM : mode;
+    }
+
+    public static boolean virtualThreadsSupported() { return OF_VIRTUAL != null; }
+
+    // True when the given thread is a virtual thread (always false before Java 21).
+    public static boolean isVirtual(Thread t) {
+        if (IS_VIRTUAL == null) return false;
+        try {
+            return (boolean) IS_VIRTUAL.invoke(t);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    public Mode getRequestedMode() { return requestedMode; }
+    public Mode getEffectiveMode() { return effectiveMode; }
+
+    // Human-readable mode for telemetry, e.g. "VIRTUAL" or "PLATFORM (virtual unsupported)".
+    public String describe() {
+        if (requestedMode != effectiveMode) return effectiveMode + " (virtual unsupported)";
+        return effectiveMode.toString();
+    }
+
+    // Create and start a thread running the plane body. The name is what controllers see as the plane id.
+    public Thread start(String name, Runnable body) {
+        Thread t = newThread(name, body);
+        t.start();
+        return t;
+    }
+
+    public Thread newThread(String name, Runnable body) {
+        if (effectiveMode == Mode.VIRTUAL) {
+            try {
+                Object builder = OF_VIRTUAL.invoke();
+                builder = BUILDER_NAME.invoke(builder, name);
+                return (Thread) BUILDER_UNSTARTED.invoke(builder, body);
+            } catch (Throwable e) {
+                throw new IllegalStateException("cannot create virtual thread", e);
+            }
+        }
+        return new Thread(body, name);
+    }
+}
@@ -0,0 +1,133 @@
+package Shared.src;
+
+import java.util.Arrays;
+
+/*
+ * Arrival waiters as a binary min-heap, so a freed runway is handed straight to the most urgent plane
+ * (poll, O(log n)) instead of waking every waiter to race for it. Not thread-safe: the controller guards
+ * it with the lock of its runway count. Each node knows its heap slot, so a waiter that times out or is
+ * interrupted leaves in O(log n) as well.
+ *
+ * Order: the request time moved earlier by the class boost, then request order. A boost is a bounded head
+ * start, not absolute precedence: a normal plane is only passed by low-fuel planes that asked less than
+ * LOW_FUEL_BOOST after it, so normal traffic cannot starve, and each class stays FIFO.
+ */
+public final class PriorityWaitQueue<N extends PriorityWaitQueue.Node> {
+    static final long EMERGENCY_BOOST_NANOS = 3_600_000_000_000L; // 1 h: ahead of anything realistic
+    static final long LOW_FUEL_BOOST_NANOS = 10_000_000_000L;     // 10 s
+
+    public static class Node {
+        public final Airplane.Priority priority;
+        public final long waitStartNanos;
+        long seq;
+        int slot = -1;
+
+        public Node(Airplane.Priority priority, long waitStartNanos) {
+            this.priority = priority;
+            this.waitStartNanos = waitStartNanos;
+        }
+
+        // Still waiting in a queue; false once polled (granted) or removed.
+        public boolean isQueued() { return slot >= 0; }
+    }
+
+    public static long boostNanos(Airplane.Priority p) {
+        return switch (p) {
+            case EMERGENCY -> EMERGENCY_BOOST_NANOS;
+            case LOW_FUEL -> LOW_FUEL_BOOST_NANOS;
+            case NORMAL -> 0L;
+        };
+    }
+
+    private Node[] heap = new Node[16];
+    private int size = 0;
+    private long nextSeq = 0;
+    private final int[] perClass = new int[Airplane.Priority.values().length];
+
+    public void add(N n) {
+        if (n.isQueued()) throw new IllegalStateException("node already queued");
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        n.seq = nextSeq++;
+        heap[size] = n;
+        n.slot = size++;
+        perClass[n.priority.ordinal()]++;
+        siftUp(n.slot);
+    }
+
+    // Most urgent waiter, taken out of the queue; null if empty.
+    @SuppressWarnings("unchecked")
+    public N poll() {
+        if (size == 0) return null;
+        N top = (N) heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    @SuppressWarnings("unchecked")
+    public N peek() {
+        return size == 0 ? null : (N) heap[0];
+    }
+
+    // Take a waiter out (timeout, interrupt, cancel); false if it was already polled or removed.
+    public boolean remove(N n) {
+        int i = n.slot;
+        if (i < 0 || i >= size || heap[i] != n) return false;
+        removeAt(i);
+        return true;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public int size(Airplane.Priority p) { return perClass[p.ordinal()]; }
+
+    private void removeAt(int i) {
+        Node gone = heap[i];
+        gone.slot = -1;
+        perClass[gone.priority.ordinal()]--;
+        Node last = heap[--size];
+        heap[size] = null;
+        if (i == size) return;
+        heap[i] = last;
+        last.slot = i;
+        siftDown(i);
+        if (heap[i] == last) siftUp(i);
+    }
+
+    private void siftUp(int i) {
+        Node n = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            Node p = heap[parent];
+            if (before(p, n)) break;
+            heap[i] = p;
+            p.slot = i;
+            i = parent;
+        }
+        heap[i] = n;
+        n.slot = i;
+    }
+
+    private void siftDown(int i) {
+        Node n = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && before(heap[right], heap[child])) child = right;
+            Node c = heap[child];
+            if (before(n, c)) break;
+            heap[i] = c;
+            c.slot = i;
+            i = child;
+        }
+        heap[i] = n;
+        n.slot = i;
+    }
+
+    // a is served first. Differences of nanoTime values, so wrap-around safe. Also orders the heads of two
+    // queues, where request order only breaks ties approximately.
+    public static boolean before(Node a, Node b) {
+        long d = (a.waitStartNanos - b.waitStartNanos) - (boostNanos(a.priority) - boostNanos(b.priority));
+        return d != 0 ? d < 0 : a.seq < b.seq;
+    }
+}
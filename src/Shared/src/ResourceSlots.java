@@ -0,0 +1,169 @@
+package Shared.src;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Which concrete runways/gates are free, as a concurrent two-level bitset (bit set = free).
+ * Controllers keep doing admission (how many may hold a resource); once a plane is admitted,
+ * claim() picks an index according to the policy and free() gives it back.
+ *
+ *   words:   one bit per slot, 64 slots per word
+ *   summary: one bit per word, set when that word may still have a free slot
+ *
+ * claim() finds a candidate word through the summary and takes one bit with a CAS, so the cost
+ * stays O(1) per operation (a few word reads) even with hundreds or thousands of gates.
+ * Admission never lets more planes in than there are slots, so claim() always succeeds as long as
+ * a holder frees its slot before returning its admission permit.
+ *
+ * close()/reopen() take a slot out of service at runtime (SupportsClosures). A free slot is retired at
+ * once; a held one is CLOSING and retired by its holder's free(), so the plane on it finishes normally.
+ * The controller holds back one unit of admission for every closed slot before closing it, which keeps
+ * the guarantee above.
+ */
+public class ResourceSlots {
+    // LOWEST_FREE packs traffic on the first slots; ROUND_ROBIN spreads it evenly over all of them.
+    public enum Policy { LOWEST_FREE, ROUND_ROBIN }
+
+    private final int size;
+    private final Policy policy;
+    private final AtomicLongArray words;
+    private final AtomicLongArray summary;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private static final int IN_SERVICE = 0, CLOSING = 1, CLOSED = 2;
+    private final AtomicIntegerArray service;
+
+    public ResourceSlots(int count) { this(count, Policy.LOWEST_FREE); }
+
+    public ResourceSlots(int count, Policy policy) {
+        if (count < 0) throw new IllegalArgumentException("count out of range: " + count);
+        this.size = count;
+        this.policy = policy;
+        int nWords = (count + 63) >>> 6;
+        this.words = new AtomicLongArray(nWords);
+        this.summary = new AtomicLongArray((nWords + 63) >>> 6);
+        this.service = new AtomicIntegerArray(count);
+        for (int w = 0; w < nWords; w++) {
+            int bits = Math.min(64, count - (w << 6));
+            words.set(w, bits == 64 ? -1L : (1L << bits) - 1);
+            setSummary(w);
+        }
+    }
+
+    public int claim() {
+        int start = policy == Policy.ROUND_ROBIN && size > 0 ? Math.floorMod(cursor.getAndIncrement(), size) : 0;
+        int i = claimFrom(start);
+        if (i < 0 && start > 0) i = claimFrom(0);
+        if (i < 0) throw new IllegalStateException("admitted with all " + size + " slots taken");
+        return i;
+    }
+
+    public void free(int index) {
+        //closed while held: the slot stays taken, now by the closure
+        if (service.get(index) == CLOSING && service.compareAndSet(index, CLOSING, CLOSED)) return;
+        setFree(index);
+        //closed between the check and the free: take it back, unless a claim() was faster (its holder retires it)
+        if (service.get(index) == CLOSING && take(index) && !service.compareAndSet(index, CLOSING, CLOSED)) setFree(index);
+    }
+
+    // Take a slot out of service: retired now if free, else by its holder's free(). The caller serializes
+    // close/reopen and has already held back one unit of admission for it.
+    public void close(int index) {
+        if (!service.compareAndSet(index, IN_SERVICE, CLOSING)) throw new IllegalStateException("slot " + index + " is already closed");
+        if (take(index)) service.compareAndSet(index, CLOSING, CLOSED);
+    }
+
+    // Back in service: free again if it was retired, else the plane still on it just keeps it.
+    public void reopen(int index) {
+        for (;;) {
+            int s = service.get(index);
+            if (s == IN_SERVICE) throw new IllegalStateException("slot " + index + " is not closed");
+            if (service.compareAndSet(index, s, IN_SERVICE)) {
+                if (s == CLOSED) setFree(index);
+                return;
+            }
+        }
+    }
+
+    public boolean isClosed(int index) { return service.get(index) != IN_SERVICE; }
+    public boolean isTaken(int index) { return (words.get(index >>> 6) & (1L << index)) == 0; }
+    public int size() { return size; }
+    public Policy policy() { return policy; }
+
+    private void setFree(int index) {
+        int w = index >>> 6;
+        long bit = 1L << index;
+        for (;;) {
+            long cur = words.get(w);
+            if ((cur & bit) != 0) throw new IllegalStateException("slot " + index + " is not taken");
+            if (words.compareAndSet(w, cur, cur | bit)) break;
+        }
+        setSummary(w);
+    }
+
+    // Take one given slot if it is free.
+    private boolean take(int index) {
+        int w = index >>> 6;
+        long bit = 1L << index;
+        for (;;) {
+            long cur = words.get(w);
+            if ((cur & bit) == 0) return false;
+            if (words.compareAndSet(w, cur, cur & ~bit)) {
+                if (cur == bit) clearSummary(w);
+                return true;
+            }
+        }
+    }
+
+    // Lowest free slot >= start, or -1.
+    private int claimFrom(int start) {
+        int w = start >>> 6;
+        long mask = -1L << start;   // shift uses the low 6 bits: only slots >= start in the first word
+        while (w >= 0) {
+            long cur = words.get(w);
+            long bits = cur & mask;
+            if (bits != 0) {
+                long bit = bits & -bits;
+                if (words.compareAndSet(w, cur, cur & ~bit)) {
+                    if (cur == bit) clearSummary(w);
+                    return (w << 6) + Long.numberOfTrailingZeros(bit);
+                }
+                continue;   // lost the race on this word: reload it
+            }
+            if (cur == 0) clearSummary(w);
+            w = nextCandidate(w + 1);
+            mask = -1L;
+        }
+        return -1;
+    }
+
+    // First word >= from whose summary bit is set, or -1.
+    private int nextCandidate(int from) {
+        int nWords = words.length();
+        for (int s = from >>> 6; from < nWords && s < summary.length(); s++) {
+            long bits = summary.get(s) & (s == from >>> 6 ? -1L << from : -1L);
+            if (bits != 0) {
+                int w = (s << 6) + Long.numberOfTrailingZeros(bits);
+                return w < nWords ? w : -1;
+            }
+        }
+        return -1;
+    }
+
+    private void setSummary(int w) {
+        long bit = 1L << w;
+        int s = w >>> 6;
+        long cur;
+        while (((cur = summary.get(s)) & bit) == 0 && !summary.compareAndSet(s, cur, cur | bit)) { /* retry */ }
+    }
+
+    // Clear the hint for an empty word; a free() that raced in re-sets it.
+    private void clearSummary(int w) {
+        long bit = 1L << w;
+        int s = w >>> 6;
+        long cur;
+        while (((cur = summary.get(s)) & bit) != 0 && !summary.compareAndSet(s, cur, cur & ~bit)) { /* retry */ }
+        if (words.get(w) != 0) setSummary(w);
+    }
+}
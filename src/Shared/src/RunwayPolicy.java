@@ -0,0 +1,91 @@
+package Shared.src;
+
+/*
+ * Who gets a free runway when arrivals and departures are both waiting (SPI used by the controllers).
+ *   strict          arrivals always first: the original rule, departures starve under sustained arrivals
+ *   aging:ms        arrivals first, unless the oldest departure has waited longer than ms
+ *   weighted:a:d    a arrivals then d departures, as long as both classes wait
+ * One instance per controller (policies may keep state). Controllers may call it from several threads
+ * at once, so implementations must be thread-safe.
+ */
+public interface RunwayPolicy {
+
+    // true: the next free runway goes to a departure although arrivals are waiting.
+    // Wait times are for the oldest waiter of each class (0 when the class has nobody waiting).
+    boolean departureTurn(long oldestArrivalWaitNanos, long oldestDepartureWaitNanos);
+
+    // Told about every runway grant, contended or not.
+    default void granted(boolean arrival) {}
+
+    static RunwayPolicy strictPriority() { return new StrictPriority(); }
+    static RunwayPolicy aging(long thresholdMs) { return new Aging(thresholdMs); }
+    static RunwayPolicy weighted(int arrivals, int departures) { return new Weighted(arrivals, departures); }
+
+    // "strict", "aging:2000", "weighted:3:1"
+    static RunwayPolicy parse(String spec) {
+        String[] p = spec.split(":");
+        try {
+            if (p[0].equals("strict") && p.length == 1) return strictPriority();
+            if (p[0].equals("aging") && p.length == 2) return aging(Long.parseLong(p[1]));
+            if (p[0].equals("weighted") && p.length == 3) return weighted(Integer.parseInt(p[1]), Integer.parseInt(p[2]));
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("runway policy must be strict, aging:<ms> or weighted:<arrivals>:<departures>, got: " + spec);
+    }
+
+    final class StrictPriority implements RunwayPolicy {
+        @Override public boolean departureTurn(long oldestArrivalWaitNanos, long oldestDepartureWaitNanos) { return false; }
+        @Override public String toString() { return "strict"; }
+    }
+
+    final class Aging implements RunwayPolicy {
+        private final long thresholdNanos;
+        private final long thresholdMs;
+
+        Aging(long thresholdMs) {
+            if (thresholdMs < 0) throw new IllegalArgumentException("aging threshold must be >= 0");
+            this.thresholdMs = thresholdMs;
+            this.thresholdNanos = thresholdMs * 1_000_000L;
+        }
+
+        @Override
+        public boolean departureTurn(long oldestArrivalWaitNanos, long oldestDepartureWaitNanos) {
+            return oldestDepartureWaitNanos >= thresholdNanos;
+        }
+
+        @Override public String toString() { return "aging:" + thresholdMs; }
+    }
+
+    // Counts the current run of arrivals, then of departures; a departure run of d ends the turn.
+    final class Weighted implements RunwayPolicy {
+        private final int arrivals;
+        private final int departures;
+        private int arrivalRun = 0;
+        private int departureRun = 0;
+
+        Weighted(int arrivals, int departures) {
+            if (arrivals < 1 || departures < 1) throw new IllegalArgumentException("weights must be >= 1");
+            this.arrivals = arrivals;
+            this.departures = departures;
+        }
+
+        @Override
+        public synchronized boolean departureTurn(long oldestArrivalWaitNanos, long oldestDepartureWaitNanos) {
+            return arrivalRun >= arrivals;
+        }
+
+        @Override
+        public synchronized void granted(boolean arrival) {
+            if (arrival) {
+                arrivalRun++;
+                departureRun = 0;
+            } else if (++departureRun >= departures) {
+                arrivalRun = 0;
+                departureRun = 0;
+            }
+        }
+
+        @Override public String toString() { return "weighted:" + arrivals + ":" + departures; }
+    }
+}
@@ -0,0 +1,9 @@
+package Shared.src;
+
+// Time source for telemetry: wall clock for threaded runs, virtual clock for the discrete-event engine.
+@FunctionalInterface
+public interface SimClock {
+    long nowMs();
+
+    SimClock SYSTEM = System::currentTimeMillis;
+}
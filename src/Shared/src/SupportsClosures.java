@@ -0,0 +1,17 @@
+package Shared.src;
+
+// Runway closures and gate outages at runtime, without a restart.
+public interface SupportsClosures {
+    // Take runway/gate `index` (0-based) out of service. Its capacity goes at once if a unit is free, else
+    // with the next release, ahead of any waiting plane; a plane on it finishes and the index retires when
+    // it leaves. False if it was already closed.
+    boolean close(Lease.Kind kind, int index);
+
+    // Back in service; false if it was not closed.
+    boolean reopen(Lease.Kind kind, int index);
+
+    boolean isClosed(Lease.Kind kind, int index);
+
+    // Planes currently queued for a runway or a gate: the depth telemetry measures recovery against.
+    int queuedPlanes();
+}
@@ -0,0 +1,6 @@
+package Shared.src;
+
+public interface SupportsRunwayPolicy {
+    // Replace the default strict arrival priority; call before planes start.
+    void setRunwayPolicy(RunwayPolicy policy);
+}
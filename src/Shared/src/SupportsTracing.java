@@ -0,0 +1,6 @@
+package Shared.src;
+
+// Per-event tracing of requests, grants, releases, timeouts and wake-ups (see EventTrace); null turns it off.
+public interface SupportsTracing {
+    void setTrace(EventTrace trace);
+}
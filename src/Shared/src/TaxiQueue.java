@@ -0,0 +1,56 @@
+package Shared.src;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/*
+ * Taxiway queue (planes that landed and wait for a gate), in FIFO order.
+ * Insertion-ordered hash set behind a short lock: add, remove-by-id and head poll are O(1),
+ * size() and version() are plain volatile reads, and snapshot(n) copies only the first n entries.
+ */
+public class TaxiQueue {
+    private final LinkedHashSet<String> planes = new LinkedHashSet<>();
+    private volatile int size = 0;
+    private volatile long version = 0;   // bumped on every change, so readers can skip an unchanged queue
+
+    // Adds at the tail; no-op (returns false) if the plane is already queued.
+    public synchronized boolean add(String planeId) {
+        if (planeId == null || !planes.add(planeId)) return false;
+        size = planes.size();
+        version++;
+        return true;
+    }
+
+    public synchronized boolean remove(String planeId) {
+        if (!planes.remove(planeId)) return false;
+        size = planes.size();
+        version++;
+        return true;
+    }
+
+    // Removes and returns the head, or null if empty.
+    public synchronized String poll() {
+        Iterator<String> it = planes.iterator();
+        if (!it.hasNext()) return null;
+        String head = it.next();
+        it.remove();
+        size = planes.size();
+        version++;
+        return head;
+    }
+
+    public int size() { return size; }
+    public long version() { return version; }
+
+    // First max entries in FIFO order.
+    public synchronized List<String> snapshot(int max) {
+        List<String> out = new ArrayList<>(Math.min(max, planes.size()));
+        for (String id : planes) {
+            if (out.size() >= max) break;
+            out.add(id);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,236 @@
+package Shared.src;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Samples AirportTelemetry on its own thread, every periodMs (10 ms catches bursts a 1 s CSV row averages
+ * away), into a binary file written through memory-mapped buffers: no formatting and no write() calls per
+ * row, and nothing on the caller's thread (the GUI's EDT). toCsv() converts a recording to the CSV schema
+ * of AirportTelemetry.csvHeader(), with time in seconds to the millisecond, so generate_charts.py reads it.
+ *
+ * Layout (big-endian): a HEADER_BYTES header, then chunks of CHUNK_ROWS rows. Inside a chunk the data is
+ * columnar: each column's values for the chunk are contiguous, fixed width (8-byte double for numbers and
+ * time, the column's width in ASCII bytes for text). Each chunk is mapped when the first row reaches it;
+ * the row count in the header is updated after every row, so a reader never sees a half-written one.
+ *
+ * Header: MAGIC, VERSION, periodMs, CHUNK_ROWS (ints), row count (long), column count (int), then per
+ * column its name (short length + UTF-8), kind (0 number, 1 text), width (short) and format.
+ */
+public final class TelemetryRecorder implements AutoCloseable {
+    private static final int MAGIC = 0x41544C4D;   // "ATLM"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8192;
+    private static final int ROWS_AT = 16;
+    private static final int CHUNK_ROWS = 4096;
+
+    private final AirportTelemetry telemetry;
+    private final Path file;
+    private final long periodMs;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<AirportTelemetry.Column> columns = AirportTelemetry.COLUMNS;
+    private final int[] widths;      // bytes per value, time first
+    private final long[] offsets;    // column start inside a chunk, time first
+    private final long chunkBytes;
+    private final long startMs;
+    private final ScheduledExecutorService sampler;
+    private MappedByteBuffer chunk;  // sampler thread only
+    private volatile long rows = 0;  // written by the sampler thread only
+    private volatile boolean closed = false;
+    private volatile Throwable failure;   // why sampling stopped before close(), null if it did not
+
+    public TelemetryRecorder(AirportTelemetry telemetry, Path file, long periodMs) throws IOException {
+        if (periodMs <= 0) throw new IllegalArgumentException("period must be > 0 ms");
+        this.telemetry = telemetry;
+        this.file = file;
+        this.periodMs = periodMs;
+        this.widths = new int[columns.size() + 1];
+        this.offsets = new long[widths.length];
+        widths[0] = 8;
+        for (int c = 0; c < columns.size(); c++) {
+            AirportTelemetry.Column col = columns.get(c);
+            widths[c + 1] = col.isText() ? col.width.applyAsInt(telemetry) : 8;
+        }
+        long offset = 0;
+        for (int c = 0; c < widths.length; c++) {
+            offsets[c] = offset;
+            offset += (long) CHUNK_ROWS * widths[c];
+        }
+        this.chunkBytes = offset;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        writeHeader();
+        this.startMs = telemetry.nowMs();
+        this.sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "telemetry-recorder");
+            t.setDaemon(true);
+            return t;
+        });
+        sampler.scheduleAtFixedRate(this::sample, periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    public Path file() { return file; }
+    public long periodMs() { return periodMs; }
+    public long rows() { return rows; }
+
+    // The error that stopped the recording early (the rows before it are kept), or null.
+    public Throwable failure() { return failure; }
+
+    // One line for logs and results: "" when the recording ran to close().
+    public String failureMessage() {
+        Throwable f = failure;
+        return f == null ? "" : "stopped after " + rows + " rows: " + f;
+    }
+
+    private void writeHeader() {
+        header.putInt(MAGIC).putInt(VERSION).putInt((int) periodMs).putInt(CHUNK_ROWS).putLong(0L).putInt(columns.size());
+        for (int c = 0; c < columns.size(); c++) {
+            AirportTelemetry.Column col = columns.get(c);
+            putString(header, col.name);
+            header.put((byte) (col.isText() ? 1 : 0)).putShort((short) widths[c + 1]);
+            putString(header, col.isText() ? "" : col.format);
+        }
+    }
+
+    private void sample() {
+        try {
+            AirportTelemetry.Snapshot snap = telemetry.snapshot();
+            int row = (int) (rows % CHUNK_ROWS);
+            if (row == 0) chunk = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + rows / CHUNK_ROWS * chunkBytes, chunkBytes);
+            chunk.putDouble((int) offsets[0] + row * 8, (telemetry.nowMs() - startMs) / 1000.0);
+            for (int c = 0; c < columns.size(); c++) {
+                AirportTelemetry.Column col = columns.get(c);
+                int at = (int) offsets[c + 1] + row * widths[c + 1];
+                if (!col.isText()) {
+                    chunk.putDouble(at, col.number.applyAsDouble(snap));
+                    continue;
+                }
+                String text = col.text.apply(snap);
+                for (int i = 0; i < widths[c + 1]; i++) chunk.put(at + i, i < text.length() ? (byte) text.charAt(i) : (byte) ' ');
+            }
+            header.putLong(ROWS_AT, ++rows);
+        } catch (IOException | RuntimeException e) {
+            //disk full, a failing column or the like: stop sampling, keep what was recorded, report it at close().
+            //(rethrowing would only make scheduleAtFixedRate cancel the task without telling anyone)
+            failure = e;
+            sampler.shutdown();
+        }
+    }
+
+    // Stop sampling and flush the mapped pages; the file stays readable by toCsv(). A recording that stopped
+    // early says so on stderr; callers put failureMessage() in their own results.
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        sampler.shutdown();
+        try {
+            sampler.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (chunk != null) chunk.force();
+        header.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            if (failure == null) failure = e;
+        }
+        if (failure != null) System.err.println("Telemetry recording " + file + " " + failureMessage());
+    }
+
+    // --- Reading back ---
+
+    public static void toCsv(Path recording, Path csv) throws IOException {
+        try (Writer out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            toCsv(recording, out);
+        }
+    }
+
+    public static void toCsv(Path recording, Writer out) throws IOException {
+        try (FileChannel in = FileChannel.open(recording, StandardOpenOption.READ)) {
+            MappedByteBuffer h = in.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (h.getInt() != MAGIC) throw new IOException(recording + " is not a telemetry recording");
+            if (h.getInt() != VERSION) throw new IOException(recording + ": unsupported recording version");
+            h.getInt();   // periodMs
+            int chunkRows = h.getInt();
+            long rows = h.getLong();
+            int n = h.getInt();
+            List<String> names = new ArrayList<>(n);
+            List<String> formats = new ArrayList<>(n);
+            int[] widths = new int[n + 1];
+            boolean[] text = new boolean[n + 1];
+            widths[0] = 8;
+            for (int c = 1; c <= n; c++) {
+                names.add(getString(h));
+                text[c] = h.get() == 1;
+                widths[c] = h.getShort();
+                formats.add(getString(h));
+            }
+            long[] offsets = new long[n + 1];
+            long chunkBytes = 0;
+            for (int c = 0; c <= n; c++) {
+                offsets[c] = chunkBytes;
+                chunkBytes += (long) chunkRows * widths[c];
+            }
+
+            out.write("time," + String.join(",", names) + "\n");
+            StringBuilder line = new StringBuilder(1024);
+            MappedByteBuffer chunk = null;
+            for (long r = 0; r < rows; r++) {
+                int row = (int) (r % chunkRows);
+                if (row == 0) chunk = in.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + r / chunkRows * chunkBytes, chunkBytes);
+                line.setLength(0);
+                line.append(String.format(Locale.US, "%.3f", chunk.getDouble((int) offsets[0] + row * 8)));
+                for (int c = 1; c <= n; c++) {
+                    int at = (int) offsets[c] + row * widths[c];
+                    line.append(',');
+                    if (text[c]) {
+                        int len = widths[c];
+                        while (len > 0 && chunk.get(at + len - 1) == ' ') len--;
+                        for (int i = 0; i < len; i++) line.append((char) chunk.get(at + i));
+                    } else {
+                        double v = chunk.getDouble(at);
+                        String f = formats.get(c - 1);
+                        line.append(f.equals("%d") ? Long.toString((long) v) : String.format(Locale.US, f, v));
+                    }
+                }
+                out.write(line.append('\n').toString());
+            }
+        }
+    }
+
+    private static void putString(MappedByteBuffer b, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        b.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getString(MappedByteBuffer b) {
+        byte[] bytes = new byte[b.getShort()];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // java Shared.src.TelemetryRecorder telemetry_data.bin telemetry_data.csv
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: TelemetryRecorder <recording.bin> <out.csv>");
+            System.exit(2);
+        }
+        toCsv(Path.of(args[0]), Path.of(args[1]));
+    }
+}
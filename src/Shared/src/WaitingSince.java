@@ -0,0 +1,29 @@
+package Shared.src;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * Start times (System.nanoTime()) of the planes currently waiting in one class, so a RunwayPolicy can
+ * tell how long the oldest has waited. Planes do not leave in arrival order (timeouts, notifyAll races),
+ * hence a sorted multiset rather than a FIFO: add/remove O(log n), oldest O(1)-ish.
+ * Planes are registered while they wait (the Monitor only once it finds nothing for them). Synchronized:
+ * controllers without a state lock share it.
+ */
+public final class WaitingSince {
+    private final TreeMap<Long, Integer> starts = new TreeMap<>();
+
+    public synchronized void add(long startNanos) {
+        starts.merge(startNanos, 1, Integer::sum);
+    }
+
+    public synchronized void remove(long startNanos) {
+        starts.computeIfPresent(startNanos, (k, n) -> n > 1 ? n - 1 : null);
+    }
+
+    // How long the oldest registered plane has waited, 0 if none.
+    public synchronized long oldestWaitNanos(long nowNanos) {
+        Map.Entry<Long, Integer> e = starts.firstEntry();
+        return e == null ? 0L : nowNanos - e.getKey();
+    }
+}
@@ -0,0 +1,208 @@
+package Shared.src;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/*
+ * Open-loop plane stream, produced lazily from a seed: each next() draws the next plane's intended arrival
+ * time, type, priority and hold times. The schedule never looks at the airport, so when it saturates planes
+ * keep coming at the profile's rate (a closed loop would slow down with it and hide the queueing), and waits
+ * are measured from the intended time (Airplane.setIntendedStart), not from whenever the injector got to it.
+ *
+ * Arrival profiles (rates in planes per second), all Poisson processes drawn by thinning:
+ *   poisson:<rate>                              constant rate
+ *   onoff:<onRate>:<onSec>:<offSec>[:<offRate>] bursts: onSec at onRate, then offSec at offRate (default 0)
+ *   diurnal:<rate>:<peakRate>:<daySec>:<banks>  a compressed day: rate follows a day curve (night at 10%),
+ *                                               plus <banks> evenly spaced peaks (hub banks) reaching peakRate
+ * Hold-time distributions, around the Airplane means (landing 350 ms, parked 800, preparing 350, takeoff 350):
+ *   uniform (the Airplane ranges) | exponential (same means) | lognormal:<sigma> (same medians)
+ * Three separate streams off the seed (times, mix, holds): changing the mix does not move the arrival times.
+ */
+public final class WorkloadGenerator implements Iterator<FlightPlan> {
+
+    public static final class Profile {
+        private enum Kind { POISSON, ONOFF, DIURNAL }
+
+        private final Kind kind;
+        private final double rate;       // per second: poisson / on / day rate
+        private final double peakRate;   // diurnal
+        private final double offRate;    // onoff
+        private final double onSec, offSec, daySec;
+        private final int banks;
+        private final String spec;
+
+        private Profile(Kind kind, double rate, double peakRate, double offRate, double onSec, double offSec, double daySec, int banks, String spec) {
+            this.kind = kind; this.rate = rate; this.peakRate = peakRate; this.offRate = offRate;
+            this.onSec = onSec; this.offSec = offSec; this.daySec = daySec; this.banks = banks; this.spec = spec;
+        }
+
+        public static Profile parse(String spec) {
+            String[] p = spec.split(":");
+            try {
+                Profile profile = switch (p[0]) {
+                    case "poisson" -> p.length == 2 ? new Profile(Kind.POISSON, num(p[1]), 0, 0, 0, 0, 0, 0, spec) : null;
+                    case "onoff" -> p.length == 4 || p.length == 5
+                            ? new Profile(Kind.ONOFF, num(p[1]), 0, p.length == 5 ? num(p[4]) : 0, num(p[2]), num(p[3]), 0, 0, spec) : null;
+                    case "diurnal" -> p.length == 5
+                            ? new Profile(Kind.DIURNAL, num(p[1]), num(p[2]), 0, 0, 0, num(p[3]), Integer.parseInt(p[4]), spec) : null;
+                    default -> null;
+                };
+                if (profile != null) return profile.validate();
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+            throw new IllegalArgumentException("traffic must be poisson:<rate>, onoff:<onRate>:<onSec>:<offSec>[:<offRate>]"
+                    + " or diurnal:<rate>:<peakRate>:<daySec>:<banks>, got: " + spec);
+        }
+
+        private static double num(String s) { return Double.parseDouble(s); }
+
+        private Profile validate() {
+            boolean ok = switch (kind) {
+                case POISSON -> rate > 0;
+                case ONOFF -> rate > 0 && offRate >= 0 && onSec > 0 && offSec >= 0;
+                case DIURNAL -> rate > 0 && peakRate >= 0 && daySec > 0 && banks >= 0;
+            };
+            if (!ok) throw new IllegalArgumentException("traffic rates and periods must be > 0: " + spec);
+            return this;
+        }
+
+        // Planes per second at t seconds into the run.
+        public double rateAt(double t) {
+            return switch (kind) {
+                case POISSON -> rate;
+                case ONOFF -> t % (onSec + offSec) < onSec ? rate : offRate;
+                case DIURNAL -> {
+                    double day = (t % daySec) / daySec;
+                    double curve = 0.55 - 0.45 * Math.cos(2 * Math.PI * day);   // 0.1 at midnight, 1 at noon
+                    double bank = 0;
+                    double width = 1.0 / (8.0 * Math.max(1, banks));
+                    for (int b = 0; b < banks; b++) {
+                        double d = day - (b + 0.5) / banks;
+                        bank = Math.max(bank, Math.exp(-d * d / (2 * width * width)));
+                    }
+                    yield curve * rate + Math.max(0, peakRate - rate) * bank;
+                }
+            };
+        }
+
+        // Upper bound of rateAt, for thinning.
+        double maxRate() {
+            return switch (kind) {
+                case POISSON -> rate;
+                case ONOFF -> Math.max(rate, offRate);
+                case DIURNAL -> rate + Math.max(0, peakRate - rate);
+            };
+        }
+
+        @Override
+        public String toString() { return spec; }
+    }
+
+    public static final class Holds {
+        private enum Kind { UNIFORM, EXPONENTIAL, LOGNORMAL }
+
+        private final Kind kind;
+        private final double sigma;
+        private final double scale;
+        private final String spec;
+
+        private Holds(Kind kind, double sigma, double scale, String spec) {
+            this.kind = kind; this.sigma = sigma; this.scale = scale; this.spec = spec;
+        }
+
+        // scale multiplies every hold time (0.1: ten times shorter stays).
+        public static Holds parse(String spec, double scale) {
+            if (!(scale >= 0)) throw new IllegalArgumentException("hold scale must be >= 0");
+            String[] p = spec.split(":");
+            try {
+                if (p[0].equals("uniform") && p.length == 1) return new Holds(Kind.UNIFORM, 0, scale, spec);
+                if (p[0].equals("exponential") && p.length == 1) return new Holds(Kind.EXPONENTIAL, 0, scale, spec);
+                if (p[0].equals("lognormal") && p.length == 2 && Double.parseDouble(p[1]) > 0) {
+                    return new Holds(Kind.LOGNORMAL, Double.parseDouble(p[1]), scale, spec);
+                }
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+            throw new IllegalArgumentException("holds must be uniform, exponential or lognormal:<sigma>, got: " + spec);
+        }
+
+        // One hold around the Airplane range [minMs, minMs + spreadMs), in ns.
+        long draw(int minMs, int spreadMs, Random rng) {
+            double mid = minMs + spreadMs / 2.0;
+            double ms = switch (kind) {
+                case UNIFORM -> minMs + rng.nextInt(spreadMs);
+                case EXPONENTIAL -> -mid * Math.log(1 - rng.nextDouble());
+                case LOGNORMAL -> mid * Math.exp(sigma * rng.nextGaussian());
+            };
+            return Math.round(ms * scale * 1e6);
+        }
+
+        @Override
+        public String toString() { return scale == 1 ? spec : String.format(Locale.US, "%s x%.2f", spec, scale); }
+    }
+
+    private final Profile profile;
+    private final Holds holds;
+    private final double arrivalRatio, emergencyRatio, lowFuelRatio;
+    private final long durationNanos;
+    private final int maxPlanes;
+    private final Random times, mix, holdRng;
+    private double t = 0;               // seconds, last drawn arrival
+    private int count = 0;
+    private FlightPlan next;
+
+    // Planes until durationSec (intended arrival time) or maxPlanes (0: no cap), whichever comes first.
+    public WorkloadGenerator(Profile profile, Holds holds, double arrivalRatio, double emergencyRatio, double lowFuelRatio,
+                             long seed, double durationSec, int maxPlanes) {
+        this.profile = profile;
+        this.holds = holds;
+        this.arrivalRatio = arrivalRatio;
+        this.emergencyRatio = emergencyRatio;
+        this.lowFuelRatio = lowFuelRatio;
+        this.durationNanos = (long) (durationSec * 1e9);
+        this.maxPlanes = maxPlanes;
+        this.times = new Random(seed);
+        this.mix = new Random(seed ^ 0x9E3779B97F4A7C15L);
+        this.holdRng = new Random(seed ^ 0x5DEECE66DL);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) next = draw();
+        return next != null;
+    }
+
+    @Override
+    public FlightPlan next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        FlightPlan p = next;
+        next = null;
+        return p;
+    }
+
+    private FlightPlan draw() {
+        if (maxPlanes > 0 && count >= maxPlanes) return null;
+        double max = profile.maxRate();
+        do {
+            t += -Math.log(1 - times.nextDouble()) / max;
+            if (t * 1e9 > durationNanos) return null;
+        } while (times.nextDouble() * max > profile.rateAt(t));
+
+        boolean arrival = mix.nextDouble() < arrivalRatio;
+        Airplane.Priority priority = Airplane.Priority.NORMAL;
+        if (arrival) {
+            double d = mix.nextDouble();
+            if (d < emergencyRatio) priority = Airplane.Priority.EMERGENCY;
+            else if (d < emergencyRatio + lowFuelRatio) priority = Airplane.Priority.LOW_FUEL;
+        }
+        long land = arrival ? holds.draw(200, 300, holdRng) : 0;
+        long gate = arrival ? holds.draw(400, 800, holdRng) : 0;
+        long prep = arrival ? holds.draw(200, 300, holdRng) : 0;
+        long takeoff = holds.draw(200, 300, holdRng);
+        count++;
+        return new FlightPlan("P" + count, (long) (t * 1e9), arrival, priority, land, gate, prep, takeoff, holdRng.nextLong());
+    }
+}
@@ -0,0 +1,234 @@
+package Simulation.src;
+
+import Shared.src.Airplane;
+import Shared.src.AirportTelemetry;
+import Shared.src.ResourceSlots;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/*
+ * Discrete-event version of the airport: a priority queue of timestamped events and a virtual clock,
+ * single-threaded. It runs the same lifecycle as Airplane.run() (arrival -> runway -> gate -> departure,
+ * same hold-time distributions) under the basic rules of the Airport interface:
+ *   - one plane per runway/gate,
+ *   - a freed runway goes to the first waiting arrival, departures only get it when no arrival waits
+ *     (strict FIFO arrival priority only: no landing priority classes and no runway policy),
+ *   - planes that landed but have no gate wait on the taxiway (FIFO).
+ * Telemetry is timed by the virtual clock, so a day of traffic takes seconds.
+ */
+public class EventSimulator {
+
+    private static final class Event implements Comparable<Event> {
+        final long time;
+        final long seq;     // FIFO among events with the same timestamp
+        final Runnable action;
+
+        Event(long time, long seq, Runnable action) { this.time = time; this.seq = seq; this.action = action; }
+
+        @Override
+        public int compareTo(Event o) {
+            int c = Long.compare(time, o.time);
+            return c != 0 ? c : Long.compare(seq, o.seq);
+        }
+    }
+
+    private static final class Plane {
+        final String id;
+        final boolean arrivalFirst;
+        Airplane.Stage stage;
+        long waitStart;
+        long runwayStart;
+        long gateStart;
+        int runway = -1;
+        int gate = -1;
+        long bornAt;
+
+        Plane(String id, boolean arrivalFirst) {
+            this.id = id;
+            this.arrivalFirst = arrivalFirst;
+            this.stage = arrivalFirst ? Airplane.Stage.INBOUND : Airplane.Stage.OUTBOUND;
+        }
+    }
+
+    private final VirtualClock clock = new VirtualClock();
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private long seq = 0;
+    private final Random rng;
+
+    private int freeRunways;
+    private int freeGates;
+    private final ResourceSlots runwaySlots;
+    private final ResourceSlots gateSlots;
+    private final ArrayDeque<Plane> waitingArrivals   = new ArrayDeque<>();
+    private final ArrayDeque<Plane> waitingDepartures = new ArrayDeque<>();
+    private final ArrayDeque<Plane> taxiway           = new ArrayDeque<>();
+
+    private final AirportTelemetry telemetry;
+    private long planesCompleted = 0;
+    private long eventsProcessed = 0;
+
+    public EventSimulator(int runways, int gates, long seed) {
+        this.freeRunways = runways;
+        this.freeGates = gates;
+        this.runwaySlots = new ResourceSlots(runways);
+        this.gateSlots = new ResourceSlots(gates);
+        this.rng = new Random(seed);
+        this.telemetry = new AirportTelemetry(runways, gates, clock);
+        telemetry.setExecutionMode("DISCRETE-EVENT");
+    }
+
+    public VirtualClock getClock() { return clock; }
+    public AirportTelemetry getTelemetry() { return telemetry; }
+    public long getPlanesCompleted() { return planesCompleted; }
+    public long getEventsProcessed() { return eventsProcessed; }
+    public int pendingEvents() { return events.size(); }
+
+    // Schedule a plane to show up at the given virtual time (arrival first, or direct departure).
+    public void addPlane(String id, boolean arrivalFirst, long atMs) {
+        Plane p = new Plane(id, arrivalFirst);
+        schedule(atMs, () -> {
+            p.bornAt = clock.nowMs();
+            if (p.arrivalFirst) requestRunwayForArrival(p);
+            else requestRunwayForDeparture(p);
+        });
+    }
+
+    // Process events until the queue is empty.
+    public void run() { runUntil(Long.MAX_VALUE); }
+
+    // Process all events with timestamp <= untilMs; the clock ends at untilMs (or the last event).
+    public void runUntil(long untilMs) {
+        Event e;
+        while ((e = events.peek()) != null && e.time <= untilMs) {
+            events.poll();
+            clock.advanceTo(e.time);
+            e.action.run();
+            eventsProcessed++;
+        }
+        if (untilMs != Long.MAX_VALUE && untilMs > clock.nowMs()) clock.advanceTo(untilMs);
+    }
+
+    private void schedule(long atMs, Runnable action) {
+        events.add(new Event(Math.max(atMs, clock.nowMs()), seq++, action));
+    }
+
+    private void after(long delayMs, Runnable action) { schedule(clock.nowMs() + delayMs, action); }
+
+    // --- Runways ---
+    private void requestRunwayForArrival(Plane p) {
+        p.waitStart = clock.nowMs();
+        if (freeRunways > 0) {
+            freeRunways--;
+            grantRunway(p);
+        } else {
+            waitingArrivals.add(p);
+        }
+    }
+
+    private void requestRunwayForDeparture(Plane p) {
+        p.waitStart = clock.nowMs();
+        if (freeRunways > 0 && waitingArrivals.isEmpty()) {
+            freeRunways--;
+            grantRunway(p);
+        } else {
+            waitingDepartures.add(p);
+        }
+    }
+
+    private void grantRunway(Plane p) {
+        long now = clock.nowMs();
+        p.runwayStart = now;
+        p.runway = runwaySlots.claim();
+        telemetry.runwayTaken(p.runway);
+        telemetry.addRunwayWait(now - p.waitStart, p.stage == Airplane.Stage.INBOUND);
+        if (p.stage == Airplane.Stage.INBOUND) {
+            after(200 + rng.nextInt(300), () -> { releaseRunway(p); requestGate(p); });
+        } else {
+            after(200 + rng.nextInt(300), () -> {
+                releaseRunway(p);
+                planesCompleted++;
+                telemetry.addTurnaround(clock.nowMs() - p.bornAt);
+            });
+        }
+    }
+
+    private void releaseRunway(Plane p) {
+        telemetry.runwayFreed(p.runway, (clock.nowMs() - p.runwayStart) * 1_000_000L);
+        runwaySlots.free(p.runway);
+        // Arrival priority: hand the runway to the first waiting arrival, else the first departure.
+        Plane next = waitingArrivals.poll();
+        if (next == null) next = waitingDepartures.poll();
+        if (next != null) grantRunway(next);
+        else freeRunways++;
+    }
+
+    // --- Gates ---
+    private void requestGate(Plane p) {
+        p.waitStart = clock.nowMs();
+        if (freeGates > 0) {
+            freeGates--;
+            grantGate(p);
+        } else {
+            telemetry.addTaxi("Airplane-" + p.id);
+            taxiway.add(p);
+        }
+    }
+
+    private void grantGate(Plane p) {
+        p.stage = Airplane.Stage.PARKED;
+        p.gateStart = clock.nowMs();
+        p.gate = gateSlots.claim();
+        telemetry.gateTaken(p.gate);
+        telemetry.addGateWait(clock.nowMs() - p.waitStart);
+        after(400 + rng.nextInt(800), () -> {
+            releaseGate(p);
+            p.stage = Airplane.Stage.OUTBOUND;
+            // preparing for departure
+            after(200 + rng.nextInt(300), () -> requestRunwayForDeparture(p));
+        });
+    }
+
+    private void releaseGate(Plane p) {
+        telemetry.gateFreed(p.gate, (clock.nowMs() - p.gateStart) * 1_000_000L);
+        gateSlots.free(p.gate);
+        Plane next = taxiway.poll();
+        if (next != null) {
+            telemetry.removeTaxi("Airplane-" + next.id);
+            grantGate(next);
+        } else {
+            freeGates++;
+        }
+    }
+
+    /*
+     * Simulate a day (or any span) of traffic on one core:
+     *   java Simulation.src.EventSimulator [runways] [gates] [planes] [hours] [seed] [arrivalRatio]
+     * Planes show up uniformly at random over the span.
+     */
+    public static void main(String[] args) {
+        int runways = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int gates   = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        int planes  = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        double hours = args.length > 3 ? Double.parseDouble(args[3]) : 24;
+        long seed   = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+        double arrivalRatio = args.length > 5 ? Double.parseDouble(args[5]) : 0.5;
+
+        EventSimulator sim = new EventSimulator(runways, gates, seed);
+        Random traffic = new Random(seed ^ 0x5DEECE66DL);
+        long spanMs = (long) (hours * 3_600_000);
+        for (int i = 0; i < planes; i++) {
+            sim.addPlane("P" + (i + 1), traffic.nextDouble() < arrivalRatio, (long) (traffic.nextDouble() * spanMs));
+        }
+
+        long wallStart = System.nanoTime();
+        sim.run();
+        double wallSec = (System.nanoTime() - wallStart) / 1e9;
+
+        System.out.println(sim.getTelemetry().summary());
+        System.out.printf(Locale.US, "Simulated %.1f h (%d planes, %d events) in %.2f s wall time%n",
+                sim.getClock().nowMs() / 3_600_000.0, sim.getPlanesCompleted(), sim.getEventsProcessed(), wallSec);
+    }
+}
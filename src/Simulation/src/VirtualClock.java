@@ -0,0 +1,19 @@
+package Simulation.src;
+
+import Shared.src.SimClock;
+
+// Simulated time in ms; only moves forward when the event loop advances it.
+public class VirtualClock implements SimClock {
+    private long now;
+
+    public VirtualClock() { this(0); }
+    public VirtualClock(long startMs) { this.now = startMs; }
+
+    @Override
+    public long nowMs() { return now; }
+
+    void advanceTo(long timeMs) {
+        if (timeMs < now) throw new IllegalArgumentException("time goes backwards: " + timeMs + " < " + now);
+        now = timeMs;
+    }
+}
@@ -0,0 +1,183 @@
+package Tests.src;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import AdaptiveVersion.src.AirportAdaptive;
+import Shared.src.AirportTelemetry;
+import Shared.src.LandingClearance;
+import Shared.src.Lease;
+import Shared.src.ResourceSlots;
+
+/*
+ * Safety and liveness of AirportAdaptive switching while planes hold leases. Each round starts a fresh
+ * airport (on the Semaphore) and sends bursts of planes over a light even stream, so it moves to the
+ * Monitor while a few planes are parked on a runway or gate: they release on the Semaphore after the
+ * switch. One gate is closed and reopened now and then.
+ * Every plane checks that nobody else holds the runway/gate it was given. At the end of a round every
+ * unit must be grantable again.
+ *
+ *   java Tests.src.AdaptiveSwitchHammer [rounds=20] [roundMs=1500]
+ * The sampling window is 20 ms and the dwell time is cut to 100 ms (adaptive.minDwellMs) unless set.
+ * Exit code 0 when nothing was double-granted, no plane hung, capacity came back every round and at
+ * least one switch happened; 1 otherwise.
+ */
+public class AdaptiveSwitchHammer {
+
+    private static final int RUNWAYS = 2, GATES = 3;
+    private static final long WATCHDOG_MS = 10_000;
+
+    private final AirportAdaptive airport;
+    private final AtomicIntegerArray runwayHolders = new AtomicIntegerArray(RUNWAYS);
+    private final AtomicIntegerArray gateHolders = new AtomicIntegerArray(GATES);
+    private final AtomicBoolean doubleGrant = new AtomicBoolean();
+    private volatile boolean running = true;
+
+    private AdaptiveSwitchHammer(AirportAdaptive airport) { this.airport = airport; }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (System.getProperty("adaptive.minDwellMs") == null) System.setProperty("adaptive.minDwellMs", "100");
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        long roundMs = args.length > 1 ? Long.parseLong(args[1]) : 1_500;
+        int switches = 0;
+        for (int round = 1; round <= rounds; round++) {
+            int s = round(round, roundMs);
+            if (s < 0) System.exit(1);
+            switches += s;
+        }
+        System.out.println(rounds + " rounds ok, switches=" + switches);
+        System.exit(switches > 0 ? 0 : 1);
+    }
+
+    // Switches made in one round, or -1 if it failed.
+    private static int round(int round, long roundMs) throws InterruptedException {
+        AirportAdaptive airport = new AirportAdaptive(RUNWAYS, GATES, ResourceSlots.Policy.LOWEST_FREE, 20);
+        AirportTelemetry telemetry = new AirportTelemetry(RUNWAYS, GATES);
+        airport.setTelemetry(telemetry);
+        AdaptiveSwitchHammer h = new AdaptiveSwitchHammer(airport);
+
+        List<Thread> planes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) planes.add(h.start("parked-" + i, h::park, round * 16 + i));
+        for (int i = 0; i < 3; i++) planes.add(h.start("steady-" + i, h::steady, round * 16 + 4 + i));
+        planes.add(h.start("bursts", h::bursts, round));
+        planes.add(h.start("closures", h::closures, round));
+        Thread.sleep(roundMs);
+        h.running = false;
+
+        boolean hung = false;
+        long deadline = System.currentTimeMillis() + WATCHDOG_MS;
+        for (Thread t : planes) {
+            t.join(Math.max(1, deadline - System.currentTimeMillis()));
+            hung |= t.isAlive();
+        }
+        airport.close();
+        airport.reopen(Lease.Kind.GATE, GATES - 1);
+        boolean full = !hung && h.capacityBack();
+        int switches = telemetry.strategySwitches().size();
+        boolean ok = !h.doubleGrant.get() && !hung && full;
+        System.out.printf("round %d: switches=%d doubleGrant=%b hung=%b capacityBack=%b%n",
+                round, switches, h.doubleGrant.get(), hung, full);
+        if (!ok) System.out.println(airport.getStatus());
+        return ok ? switches : -1;
+    }
+
+    private interface Pilot { void fly(Random random) throws InterruptedException; }
+
+    private Thread start(String name, Pilot pilot, int seed) {
+        Thread t = new Thread(() -> {
+            Random random = new Random(seed * 31L + name.hashCode());
+            try {
+                while (running) pilot.fly(random);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    // Long holds, so leases span switches and are released on a controller that is no longer active.
+    private void park(Random random) throws InterruptedException {
+        Lease lease = random.nextBoolean() ? airport.acquireGate(null) : airport.acquireRunwayForDeparture(null);
+        hold(lease, 50 + random.nextInt(400));
+    }
+
+    // A light even stream between the bursts.
+    private void steady(Random random) throws InterruptedException {
+        fly(random);
+        Thread.sleep(2 + random.nextInt(4));
+    }
+
+    // Many planes at once, then quiet for a few windows.
+    private void bursts(Random random) throws InterruptedException {
+        List<Thread> burst = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Thread t = new Thread(() -> {
+                try {
+                    fly(new Random());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            t.setDaemon(true);
+            burst.add(t);
+            t.start();
+        }
+        for (Thread t : burst) t.join();
+        Thread.sleep(60 + random.nextInt(60));
+    }
+
+    private void closures(Random random) throws InterruptedException {
+        Thread.sleep(100 + random.nextInt(200));
+        if (!airport.close(Lease.Kind.GATE, GATES - 1)) airport.reopen(Lease.Kind.GATE, GATES - 1);
+    }
+
+    // One request of a random kind, blocking or timed; the lease is held for a moment.
+    private void fly(Random random) throws InterruptedException {
+        switch (random.nextInt(6)) {
+            case 0 -> hold(airport.acquireRunwayForArrival(null), 1);
+            case 1 -> hold(airport.acquireRunwayForDeparture(null), 1);
+            case 2 -> hold(airport.tryAcquireRunwayForArrival(null, 2, TimeUnit.MILLISECONDS), 1);
+            case 3 -> hold(airport.tryAcquireGate(null, 2, TimeUnit.MILLISECONDS), 1);
+            case 4 -> hold(airport.acquireGate(null), 1);
+            default -> {
+                LandingClearance c = airport.acquireLandingClearance(null);
+                hold(c.runway(), 1);
+                hold(c.gate(), 1);
+            }
+        }
+    }
+
+    private void hold(Lease lease, long millis) throws InterruptedException {
+        if (lease == null) return;
+        AtomicIntegerArray holders = lease.kind() == Lease.Kind.RUNWAY ? runwayHolders : gateHolders;
+        if (holders.getAndIncrement(lease.index()) != 0) doubleGrant.set(true);
+        try {
+            Thread.sleep(millis);
+        } finally {
+            holders.decrementAndGet(lease.index());
+            airport.release(lease);
+        }
+    }
+
+    // Every runway and gate can be held at once again.
+    private boolean capacityBack() throws InterruptedException {
+        List<Lease> leases = new ArrayList<>();
+        boolean full = true;
+        for (int r = 0; r < RUNWAYS; r++) {
+            Lease l = airport.tryAcquireRunwayForDeparture(null, 200, TimeUnit.MILLISECONDS);
+            if (l == null) full = false; else leases.add(l);
+        }
+        for (int g = 0; g < GATES; g++) {
+            Lease l = airport.tryAcquireGate(null, 200, TimeUnit.MILLISECONDS);
+            if (l == null) full = false; else leases.add(l);
+        }
+        for (Lease l : leases) airport.release(l);
+        return full;
+    }
+}
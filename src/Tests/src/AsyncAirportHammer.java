@@ -0,0 +1,125 @@
+package Tests.src;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import MonitorVersion.src.AirportMonitor;
+import SemaphoreVersion.src.AirportSemaphore;
+import Shared.src.Airport;
+import Shared.src.AirportTelemetry;
+import Shared.src.AsyncAirport;
+import Shared.src.Lease;
+import Shared.src.SupportsTelemetry;
+
+/*
+ * The async API (AsyncAirport) of the Monitor and the Semaphore, one after the other:
+ *   - with everything held, 100 000 pending requests start no thread,
+ *   - half of them cancelled, the other half each release their lease as soon as it is granted:
+ *     every one completes and no runway/gate is granted twice,
+ *   - 8 threads mix blocking and async requests, some async ones with orTimeout(),
+ *   - afterwards every runway and gate can be held at once again.
+ *
+ *   java Tests.src.AsyncAirportHammer
+ * Exit code 0 on success; a failure throws (exit code 1).
+ */
+public class AsyncAirportHammer {
+
+    private static final int RUNWAYS = 2, GATES = 3;
+    private static final int PENDING = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        check(new AirportMonitor(RUNWAYS, GATES));
+        check(new AirportSemaphore(RUNWAYS, GATES));
+    }
+
+    private static <A extends Airport & AsyncAirport & SupportsTelemetry> void check(A airport) throws Exception {
+        airport.setTelemetry(new AirportTelemetry(RUNWAYS, GATES));
+        Set<String> inUse = ConcurrentHashMap.newKeySet();
+
+        List<Lease> held = new ArrayList<>();
+        held.add(airport.acquireRunwayForArrivalAsync(null).get());
+        held.add(airport.acquireRunwayForDepartureAsync(null).get());
+        for (int i = 0; i < GATES; i++) held.add(airport.acquireGateAsync(null).get());
+        int threads = Thread.activeCount();
+        List<CompletableFuture<Lease>> pending = new ArrayList<>();
+        for (int i = 0; i < PENDING; i++) pending.add(request(airport, i % 3));
+        if (Thread.activeCount() > threads) throw new AssertionError("pending requests started " + (Thread.activeCount() - threads) + " threads");
+
+        for (int i = 0; i < PENDING; i += 2) pending.get(i).cancel(false);
+        AtomicInteger chained = new AtomicInteger();
+        ExecutorService chain = Executors.newSingleThreadExecutor();
+        for (int i = 1; i < PENDING; i += 2) {
+            pending.get(i).thenAcceptAsync(lease -> {
+                use(inUse, lease);
+                chained.incrementAndGet();
+                inUse.remove(lease.toString());
+                airport.release(lease);
+            }, chain);
+        }
+        for (Lease lease : held) airport.release(lease);
+        for (int i = 1; i < PENDING; i += 2) pending.get(i).get(5, TimeUnit.SECONDS);
+        chain.shutdown();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        AtomicInteger granted = new AtomicInteger();
+        List<Future<?>> jobs = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final int seed = t;
+            jobs.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 20_000; i++) {
+                    int kind = random.nextInt(6);
+                    Lease lease;
+                    if (kind < 3) {
+                        lease = kind == 0 ? airport.acquireRunwayForArrival(null)
+                              : kind == 1 ? airport.acquireRunwayForDeparture(null) : airport.acquireGate(null);
+                    } else {
+                        CompletableFuture<Lease> f = request(airport, kind - 3);
+                        if (random.nextInt(4) == 0) f.orTimeout(random.nextInt(2), TimeUnit.MILLISECONDS);
+                        try {
+                            lease = f.get();
+                        } catch (ExecutionException timedOut) {
+                            continue;
+                        }
+                    }
+                    use(inUse, lease);
+                    inUse.remove(lease.toString());
+                    airport.release(lease);
+                    granted.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> job : jobs) job.get(120, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        held.clear();
+        for (int i = 0; i < RUNWAYS; i++) held.add(airport.acquireRunwayForDepartureAsync(null).get(1, TimeUnit.SECONDS));
+        for (int i = 0; i < GATES; i++) held.add(airport.acquireGateAsync(null).get(1, TimeUnit.SECONDS));
+        for (Lease lease : held) airport.release(lease);
+        System.out.println(airport.getClass().getSimpleName() + ": chained " + chained.get() + ", mixed " + granted.get()
+                + " ok " + airport.getStatus());
+    }
+
+    // kind 0: arrival runway, 1: departure runway, 2: gate
+    private static CompletableFuture<Lease> request(AsyncAirport airport, int kind) {
+        return kind == 0 ? airport.acquireRunwayForArrivalAsync(null)
+             : kind == 1 ? airport.acquireRunwayForDepartureAsync(null) : airport.acquireGateAsync(null);
+    }
+
+    // Marks the runway/gate in use until the caller removes it again, just before releasing it.
+    private static void use(Set<String> inUse, Lease lease) {
+        if (!inUse.add(lease.toString())) throw new AssertionError("granted twice: " + lease);
+        Thread.yield();
+    }
+}
@@ -0,0 +1,69 @@
+package Tests.src;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import Shared.src.Airport;
+
+/*
+ * Mutual exclusion of one controller under interrupts, through the legacy void API
+ * (requestRunwayFor*, releaseRunway, requestGate, releaseGate): 32 planes cycle a runway and a gate while
+ * the main thread interrupts them at random. More than 2 runways or 3 gates in use at once is a failure,
+ * and so is a plane that never finishes.
+ *
+ *   java Tests.src.ControllerHammer <controller class> [cycles=20000]
+ *   e.g. java Tests.src.ControllerHammer SemaphoreVersion.src.AirportSemaphore
+ * Exit code 0 on success, 1 otherwise (the status of the controller is printed).
+ */
+public class ControllerHammer {
+
+    private static final int RUNWAYS = 2, GATES = 3, PLANES = 32;
+    private static final long WATCHDOG_MS = 120_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) throw new IllegalArgumentException("usage: ControllerHammer <controller class> [cycles]");
+        Airport airport = (Airport) Class.forName(args[0]).getConstructor(int.class, int.class).newInstance(RUNWAYS, GATES);
+        int cycles = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        AtomicInteger runwaysInUse = new AtomicInteger(), gatesInUse = new AtomicInteger();
+        AtomicBoolean overbooked = new AtomicBoolean();
+
+        List<Thread> planes = new ArrayList<>();
+        for (int i = 0; i < PLANES; i++) {
+            final boolean arrival = i % 2 == 0;
+            Thread t = new Thread(() -> {
+                for (int c = 0; c < cycles; c++) {
+                    try {
+                        if (arrival) airport.requestRunwayForArrival(null);
+                        else airport.requestRunwayForDeparture(null);
+                        if (runwaysInUse.incrementAndGet() > RUNWAYS) overbooked.set(true);
+                        runwaysInUse.decrementAndGet();
+                        airport.releaseRunway(null);
+                        airport.requestGate(null);
+                        if (gatesInUse.incrementAndGet() > GATES) overbooked.set(true);
+                        gatesInUse.decrementAndGet();
+                        airport.releaseGate(null);
+                    } catch (InterruptedException e) {
+                        //interrupted while waiting: nothing held, next cycle
+                    }
+                    Thread.interrupted();
+                }
+            }, "plane-" + i);
+            t.setDaemon(true);
+            planes.add(t);
+            t.start();
+        }
+
+        Random random = new Random(1);
+        long deadline = System.currentTimeMillis() + WATCHDOG_MS;
+        while (planes.stream().anyMatch(Thread::isAlive) && System.currentTimeMillis() < deadline) {
+            planes.get(random.nextInt(PLANES)).interrupt();
+            Thread.sleep(0, 100_000);
+        }
+        boolean hung = planes.stream().anyMatch(Thread::isAlive);
+        System.out.println(args[0] + " overbooked=" + overbooked.get() + " hung=" + hung + " " + airport.getStatus());
+        System.exit(overbooked.get() || hung ? 1 : 0);
+    }
+}
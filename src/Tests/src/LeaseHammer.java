@@ -0,0 +1,89 @@
+package Tests.src;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import Shared.src.Airport;
+import Shared.src.AirportTelemetry;
+import Shared.src.Lease;
+import Shared.src.SupportsTelemetry;
+
+/*
+ * Leases of one controller handed back from another thread, under interrupts: 32 planes take a runway and
+ * then a gate, and each lease is released by a small pool rather than by the plane that got it, while the
+ * main thread interrupts the planes at random. A runway or gate granted to two planes at once is a failure,
+ * and so are a plane that never finishes and telemetry that still shows anything occupied at the end.
+ *
+ *   java Tests.src.LeaseHammer <controller class> [cycles=5000]
+ *   e.g. java Tests.src.LeaseHammer AdaptiveVersion.src.AirportAdaptive
+ * Exit code 0 on success, 1 otherwise.
+ */
+public class LeaseHammer {
+
+    private static final int RUNWAYS = 2, GATES = 3, PLANES = 32;
+    private static final long WATCHDOG_MS = 120_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) throw new IllegalArgumentException("usage: LeaseHammer <controller class> [cycles]");
+        Airport airport = (Airport) Class.forName(args[0]).getConstructor(int.class, int.class).newInstance(RUNWAYS, GATES);
+        int cycles = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        AirportTelemetry telemetry = new AirportTelemetry(RUNWAYS, GATES);
+        ((SupportsTelemetry) airport).setTelemetry(telemetry);
+        AtomicIntegerArray runways = new AtomicIntegerArray(RUNWAYS), gates = new AtomicIntegerArray(GATES);
+        AtomicBoolean doubleGrant = new AtomicBoolean(), failed = new AtomicBoolean();
+        ExecutorService releasers = Executors.newFixedThreadPool(4, r -> {
+            Thread t = new Thread(r, "releaser");
+            t.setDaemon(true);
+            return t;
+        });
+
+        List<Thread> planes = new ArrayList<>();
+        for (int i = 0; i < PLANES; i++) {
+            final boolean arrival = i % 2 == 0;
+            Thread t = new Thread(() -> {
+                for (int c = 0; c < cycles; c++) {
+                    try {
+                        Lease runway = arrival ? airport.acquireRunwayForArrival(null) : airport.acquireRunwayForDeparture(null);
+                        if (runways.getAndIncrement(runway.index()) != 0) doubleGrant.set(true);
+                        runways.decrementAndGet(runway.index());
+                        releasers.submit(() -> airport.release(runway)).get();
+                        Lease gate = airport.acquireGate(null);
+                        if (gates.getAndIncrement(gate.index()) != 0) doubleGrant.set(true);
+                        gates.decrementAndGet(gate.index());
+                        releasers.submit(() -> airport.release(gate)).get();
+                    } catch (InterruptedException e) {
+                        //interrupted while waiting: the lease, if any, is released by the pool anyway
+                    } catch (ExecutionException e) {
+                        e.getCause().printStackTrace();
+                        failed.set(true);
+                    }
+                    Thread.interrupted();
+                }
+            }, "plane-" + i);
+            t.setDaemon(true);
+            planes.add(t);
+            t.start();
+        }
+
+        Random random = new Random(1);
+        long deadline = System.currentTimeMillis() + WATCHDOG_MS;
+        while (planes.stream().anyMatch(Thread::isAlive) && System.currentTimeMillis() < deadline) {
+            planes.get(random.nextInt(PLANES)).interrupt();
+            Thread.sleep(0, 200_000);
+        }
+        releasers.shutdown();
+        releasers.awaitTermination(5, TimeUnit.SECONDS);
+        boolean hung = planes.stream().anyMatch(Thread::isAlive);
+        boolean leaked = telemetry.getOccupiedRunways() != 0 || telemetry.getOccupiedGates() != 0;
+        System.out.println(args[0] + " doubleGrant=" + doubleGrant.get() + " hung=" + hung + " leaked=" + leaked
+                + " failed=" + failed.get() + " " + airport.getStatus());
+        System.exit(doubleGrant.get() || hung || leaked || failed.get() ? 1 : 0);
+    }
+}
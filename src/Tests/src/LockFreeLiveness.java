@@ -0,0 +1,70 @@
+package Tests.src;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import LockFreeVersion.src.AirportLockFree;
+import Shared.src.Airport;
+import Shared.src.Lease;
+
+/*
+ * Liveness check of the LockFree hand-off: with one runway, arrivals and departures (blocking and timed)
+ * race so that a releaser often claims a waiter whose node is not queued yet and has to give the permit
+ * back. Every round is a fixed amount of work; a round that does not finish within the watchdog time
+ * means a plane was left parked next to a free runway. A stranded plane is rescued by the next request,
+ * so what matters is the end of a round, when traffic stops: many short rounds of a few planes each.
+ *
+ *   java Tests.src.LockFreeLiveness [rounds=5000] [threads=4] [cycles=50]
+ * The hand-off spin is cut to 1 (lockfree.handoffSpins) unless set, so nearly every such claim gives back.
+ * Exit code 0 when every round finished, 1 on a hang (the status of the controller is printed).
+ * Run it on few cores (taskset -c 0,1) to make the preemption windows likely.
+ */
+public class LockFreeLiveness {
+
+    private static final long WATCHDOG_MS = 5_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        if (System.getProperty("lockfree.handoffSpins") == null) System.setProperty("lockfree.handoffSpins", "1");
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int cycles = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        for (int round = 1; round <= rounds; round++) {
+            AirportLockFree airport = new AirportLockFree(1, 1);
+            List<Thread> planes = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int kind = t % 4;
+                Thread th = new Thread(() -> fly(airport, kind, cycles), "plane-" + t);
+                th.setDaemon(true);
+                planes.add(th);
+                th.start();
+            }
+            long deadline = System.currentTimeMillis() + WATCHDOG_MS;
+            for (Thread th : planes) {
+                th.join(Math.max(1, deadline - System.currentTimeMillis()));
+                if (th.isAlive()) {
+                    System.out.println("round " + round + ": HANG " + airport.getStatus());
+                    System.exit(1);
+                }
+            }
+        }
+        System.out.println(rounds + " rounds ok");
+    }
+
+    // kind 0/1: blocking arrival/departure, 2/3: timed arrival/departure with a short timeout
+    private static void fly(Airport airport, int kind, int cycles) {
+        try {
+            for (int i = 0; i < cycles; i++) {
+                Lease runway = switch (kind) {
+                    case 0 -> airport.acquireRunwayForArrival(null);
+                    case 1 -> airport.acquireRunwayForDeparture(null);
+                    case 2 -> airport.tryAcquireRunwayForArrival(null, 50, TimeUnit.MICROSECONDS);
+                    default -> airport.tryAcquireRunwayForDeparture(null, 50, TimeUnit.MICROSECONDS);
+                };
+                if (runway != null) airport.release(runway);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package Tests.src;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import SemaphoreVersion.src.AirportSemaphore;
+import Shared.src.Lease;
+
+/*
+ * Async departures on the fair Semaphore stay behind blocked ones. Each round holds the only runway, blocks
+ * a synchronous departure on it, queues an async departure behind it and releases the runway: the blocked
+ * departure must get it, the async one only after. With two runways, the permit left over after the
+ * blocked departure must reach the async request instead of sitting idle.
+ *
+ *   java Tests.src.SemaphoreAsyncOrder [rounds=200]
+ * Exit code 0 when the async request never overtook and the leftover permit was served, 1 otherwise.
+ */
+public class SemaphoreAsyncOrder {
+
+    public static void main(String[] args) throws Exception {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int overtaken = 0;
+        for (int round = 0; round < rounds; round++) {
+            AirportSemaphore airport = new AirportSemaphore(1, 1);
+            Lease held = airport.acquireRunwayForDeparture(null);
+            CompletableFuture<Lease> blocked = new CompletableFuture<>();
+            Thread t = blockedDeparture(airport, blocked);
+            CompletableFuture<Lease> async = airport.acquireRunwayForDepartureAsync(null);
+            airport.release(held);
+            Lease first = blocked.get(2, TimeUnit.SECONDS);
+            Thread.sleep(1);
+            if (async.isDone()) overtaken++;
+            airport.release(first);
+            airport.release(async.get(2, TimeUnit.SECONDS));
+            t.join();
+        }
+
+        AirportSemaphore airport = new AirportSemaphore(2, 1);
+        Lease h1 = airport.acquireRunwayForDeparture(null), h2 = airport.acquireRunwayForDeparture(null);
+        blockedDeparture(airport, new CompletableFuture<>());
+        CompletableFuture<Lease> async = airport.acquireRunwayForDepartureAsync(null);
+        airport.release(h1);
+        airport.release(h2);
+        boolean leftoverServed = async.get(2, TimeUnit.SECONDS) != null;
+
+        System.out.println("overtaken " + overtaken + "/" + rounds + ", leftover permit served: " + leftoverServed);
+        System.exit(overtaken == 0 && leftoverServed ? 0 : 1);
+    }
+
+    // A synchronous departure, returned once it is parked waiting for the runway.
+    private static Thread blockedDeparture(AirportSemaphore airport, CompletableFuture<Lease> granted) {
+        Thread t = new Thread(() -> {
+            try {
+                granted.complete(airport.acquireRunwayForDeparture(null));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        t.setDaemon(true);
+        t.start();
+        while (t.getState() != Thread.State.WAITING) Thread.onSpinWait();
+        return t;
+    }
+}
@@ -0,0 +1,111 @@
+package Tests.src;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import Shared.src.Airport;
+import Shared.src.AirportTelemetry;
+import Shared.src.Lease;
+import Shared.src.SupportsTelemetry;
+
+/*
+ * Timed requests (Airport.tryAcquire*) mixed with blocking ones, per controller: 24 planes ask for a runway
+ * or a gate, half of the time with a timeout of up to 50 us. Afterwards the whole capacity must be grantable
+ * again, and with everything held a timed arrival must give up and stop holding back departures.
+ * A runway or gate granted twice, a plane that never finishes or a check that fails is a failure.
+ *
+ *   java Tests.src.TimedHammer [controller class ...]   (default: all five controllers)
+ * Exit code 0 when every controller passes, 1 otherwise.
+ */
+public class TimedHammer {
+
+    private static final int RUNWAYS = 2, GATES = 3, PLANES = 24, CYCLES = 4000;
+    private static final String[] CONTROLLERS = {
+        "MonitorVersion.src.AirportMonitor", "SemaphoreVersion.src.AirportSemaphore",
+        "ReentrantLockVersion.src.AirportReentrantLock", "LockFreeVersion.src.AirportLockFree",
+        "AdaptiveVersion.src.AirportAdaptive"
+    };
+
+    public static void main(String[] args) throws Exception {
+        boolean allOk = true;
+        for (String name : args.length > 0 ? args : CONTROLLERS) allOk &= check(name);
+        System.exit(allOk ? 0 : 1);
+    }
+
+    private static boolean check(String name) throws Exception {
+        Airport airport = (Airport) Class.forName(name).getConstructor(int.class, int.class).newInstance(RUNWAYS, GATES);
+        AirportTelemetry telemetry = new AirportTelemetry(RUNWAYS, GATES);
+        ((SupportsTelemetry) airport).setTelemetry(telemetry);
+        AtomicIntegerArray runways = new AtomicIntegerArray(RUNWAYS), gates = new AtomicIntegerArray(GATES);
+        AtomicBoolean doubleGrant = new AtomicBoolean();
+        AtomicLong granted = new AtomicLong(), timedOut = new AtomicLong();
+
+        List<Thread> planes = new ArrayList<>();
+        for (int i = 0; i < PLANES; i++) {
+            final int seed = i;
+            Thread t = new Thread(() -> {
+                Random random = new Random(seed);
+                for (int c = 0; c < CYCLES; c++) {
+                    try {
+                        Lease lease = request(airport, random.nextInt(3), random.nextBoolean() ? random.nextInt(50) * 1000L : -1);
+                        if (lease == null) {
+                            timedOut.incrementAndGet();
+                            continue;
+                        }
+                        AtomicIntegerArray inUse = lease.kind() == Lease.Kind.RUNWAY ? runways : gates;
+                        if (inUse.getAndIncrement(lease.index()) != 0) doubleGrant.set(true);
+                        if (random.nextInt(8) == 0) Thread.yield();
+                        inUse.decrementAndGet(lease.index());
+                        airport.release(lease);
+                        granted.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "plane-" + i);
+            t.setDaemon(true);
+            planes.add(t);
+            t.start();
+        }
+        for (Thread t : planes) t.join(120_000);
+        boolean hung = planes.stream().anyMatch(Thread::isAlive);
+
+        //capacity back: both runways and every gate can be held at once
+        List<Lease> held = new ArrayList<>();
+        for (int i = 0; i < RUNWAYS; i++) held.add(airport.tryAcquireRunwayForDeparture(null, 100, TimeUnit.MILLISECONDS));
+        for (int i = 0; i < GATES; i++) held.add(airport.tryAcquireGate(null, 100, TimeUnit.MILLISECONDS));
+        boolean capacityBack = !held.contains(null);
+        //a timed-out arrival no longer blocks the next departure
+        boolean arrivalGaveUp = airport.tryAcquireRunwayForArrival(null, 20, TimeUnit.MILLISECONDS) == null;
+        boolean departureAfter = false;
+        if (capacityBack) {
+            airport.release(held.get(0));
+            Lease departure = airport.tryAcquireRunwayForDeparture(null, 100, TimeUnit.MILLISECONDS);
+            departureAfter = departure != null;
+            if (departureAfter) airport.release(departure);
+            for (Lease lease : held.subList(1, held.size())) airport.release(lease);
+        }
+
+        boolean ok = !doubleGrant.get() && !hung && capacityBack && arrivalGaveUp && departureAfter;
+        System.out.println(name + (ok ? " ok" : " FAILED") + " granted=" + granted.get() + " timedOut=" + timedOut.get()
+                + " doubleGrant=" + doubleGrant.get() + " hung=" + hung + " capacityBack=" + capacityBack
+                + " arrivalGaveUp=" + arrivalGaveUp + " departureAfter=" + departureAfter + " taxi=" + telemetry.taxiQueueSize());
+        return ok;
+    }
+
+    // kind 0: arrival runway, 1: departure runway, 2: gate; a negative timeout blocks
+    private static Lease request(Airport airport, int kind, long timeoutNanos) throws InterruptedException {
+        if (timeoutNanos < 0) {
+            return kind == 0 ? airport.acquireRunwayForArrival(null)
+                 : kind == 1 ? airport.acquireRunwayForDeparture(null) : airport.acquireGate(null);
+        }
+        return kind == 0 ? airport.tryAcquireRunwayForArrival(null, timeoutNanos, TimeUnit.NANOSECONDS)
+             : kind == 1 ? airport.tryAcquireRunwayForDeparture(null, timeoutNanos, TimeUnit.NANOSECONDS)
+             : airport.tryAcquireGate(null, timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+}